@@ -0,0 +1,103 @@
+package ca.tweetzy.markets.benchmark;
+
+import ca.tweetzy.markets.api.market.BankEntry;
+import ca.tweetzy.markets.api.market.Transaction;
+import ca.tweetzy.markets.api.market.core.Market;
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.model.manager.BankManager;
+import ca.tweetzy.markets.model.manager.CategoryItemManager;
+import ca.tweetzy.markets.model.manager.MarketManager;
+import ca.tweetzy.markets.model.manager.TransactionManager;
+import ca.tweetzy.markets.stub.StubServer;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups the GUIs and commands run on the main thread, against managers filled with a synthetic dataset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManagerBenchmark {
+
+	private static final int KEYS = 1024;
+
+	@Param({"1000", "10000", "100000"})
+	private int listings;
+
+	private final MarketManager marketManager = new MarketManager();
+	private final CategoryItemManager categoryItemManager = new CategoryItemManager();
+	private final BankManager bankManager = new BankManager();
+	private final TransactionManager transactionManager = new TransactionManager();
+
+	private final UUID[] itemIds = new UUID[KEYS];
+	private final UUID[] players = new UUID[KEYS];
+	private final UUID[] sellers = new UUID[KEYS];
+	private final ItemStack[] bankItems = new ItemStack[KEYS];
+	private final OfflinePlayer[] searchers = new OfflinePlayer[KEYS];
+
+	private long lastSeenAt;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final MarketDataset dataset = new MarketDataset(this.listings, 42L);
+		final Random random = new Random(7L);
+
+		this.marketManager.publish(dataset.getMarkets());
+		this.categoryItemManager.publish(dataset.getMarketItems());
+		this.bankManager.publish(dataset.getBankEntries());
+		dataset.getTransactions().forEach(this.transactionManager::track);
+
+		// about half of the generated transactions are newer than this
+		this.lastSeenAt = System.currentTimeMillis() - 500_000L;
+
+		for (int i = 0; i < KEYS; i++) {
+			this.itemIds[i] = dataset.getMarketItems().get(random.nextInt(dataset.getMarketItems().size())).getId();
+			this.players[i] = dataset.randomPlayer(random);
+			this.sellers[i] = dataset.randomPlayer(random);
+			this.bankItems[i] = dataset.getBankItems().get(random.nextInt(dataset.getBankItems().size()));
+			this.searchers[i] = StubServer.offlinePlayer(dataset.randomPlayer(random));
+		}
+	}
+
+	private int next() {
+		return this.cursor = (this.cursor + 1) & (KEYS - 1);
+	}
+
+	@Benchmark
+	public MarketItem categoryItemByUUID() {
+		return this.categoryItemManager.getByUUID(this.itemIds[next()]);
+	}
+
+	@Benchmark
+	public List<Market> openMarketsExclusive() {
+		return this.marketManager.getOpenMarketsExclusive(this.searchers[next()]);
+	}
+
+	@Benchmark
+	public BankEntry bankEntryByPlayer() {
+		final int key = next();
+		return this.bankManager.getEntryByPlayer(this.players[key], this.bankItems[key]);
+	}
+
+	@Benchmark
+	public int transactionsMadeToMarket() {
+		final int key = next();
+		return this.transactionManager.getTransactionsMadeToMarket(this.sellers[key], this.players[key]);
+	}
+
+	@Benchmark
+	public List<Transaction> offlineTransactionsFor() {
+		return this.transactionManager.getOfflineTransactionsFor(this.sellers[next()], this.lastSeenAt);
+	}
+}
@@ -0,0 +1,123 @@
+package ca.tweetzy.markets.benchmark;
+
+import ca.tweetzy.markets.api.market.BankEntry;
+import ca.tweetzy.markets.api.market.Transaction;
+import ca.tweetzy.markets.api.market.TransactionType;
+import ca.tweetzy.markets.api.market.core.Category;
+import ca.tweetzy.markets.api.market.core.Market;
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.api.market.core.RatingSummary;
+import ca.tweetzy.markets.impl.*;
+import ca.tweetzy.markets.stub.StubServer;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * A synthetic, seeded set of markets so results stay comparable between runs and releases.
+ * Every market has {@link #CATEGORIES_PER_MARKET} categories of {@link #ITEMS_PER_CATEGORY} listings.
+ */
+@Getter
+public final class MarketDataset {
+
+	public static final int CATEGORIES_PER_MARKET = 2;
+	public static final int ITEMS_PER_CATEGORY = 5;
+
+	private static final Material[] MATERIALS = {
+			Material.DIAMOND_SWORD, Material.IRON_PICKAXE, Material.OAK_LOG, Material.GOLDEN_APPLE, Material.ENCHANTED_BOOK,
+			Material.NETHERITE_INGOT, Material.COBBLESTONE, Material.BREAD, Material.ELYTRA, Material.SHULKER_BOX
+	};
+
+	private static final String[] WORDS = {
+			"ancient", "blazing", "crystal", "dusk", "ember", "frost", "gilded", "hollow", "iron", "jade",
+			"keen", "lunar", "mythic", "noble", "onyx", "prime", "quartz", "royal", "storm", "twilight"
+	};
+
+	private final List<UUID> players = new ArrayList<>();
+	private final List<Market> markets = new ArrayList<>();
+	private final List<Category> categories = new ArrayList<>();
+	private final List<MarketItem> marketItems = new ArrayList<>();
+	private final List<BankEntry> bankEntries = new ArrayList<>();
+	private final List<Transaction> transactions = new ArrayList<>();
+	private final List<ItemStack> bankItems = new ArrayList<>();
+
+	public MarketDataset(final int listings, final long seed) {
+		StubServer.install();
+
+		final Random random = new Random(seed);
+		final int marketCount = Math.max(1, listings / (CATEGORIES_PER_MARKET * ITEMS_PER_CATEGORY));
+
+		for (int i = 0; i < marketCount; i++)
+			this.players.add(new UUID(seed, i));
+
+		for (final Material material : MATERIALS)
+			this.bankItems.add(new ItemStack(material));
+
+		for (int m = 0; m < marketCount; m++) {
+			final UUID owner = this.players.get(m);
+			final List<Category> marketCategories = new ArrayList<>();
+
+			final Market market = new PlayerMarket(UUID.randomUUID(), owner, "player" + m, "Market " + m, new ArrayList<>(), marketCategories, new RatingSummary(), new ArrayList<>(),
+					random.nextInt(10) != 0, false, null, null, System.currentTimeMillis(), System.currentTimeMillis());
+
+			for (int c = 0; c < CATEGORIES_PER_MARKET; c++) {
+				final List<MarketItem> items = new ArrayList<>();
+				final Category category = new MarketCategory(market.getId(), UUID.randomUUID(), new ItemStack(Material.CHEST), "category" + c, "Category " + c, new ArrayList<>(), items, System.currentTimeMillis(), System.currentTimeMillis());
+
+				for (int i = 0; i < ITEMS_PER_CATEGORY; i++) {
+					final MarketItem marketItem = new CategoryItem(UUID.randomUUID(), category.getId(), randomItem(random), "Vault/Vault", new ItemStack(Material.AIR),
+							1 + random.nextInt(1000), random.nextInt(64), false, true, false);
+
+					items.add(marketItem);
+					this.marketItems.add(marketItem);
+				}
+
+				marketCategories.add(category);
+				this.categories.add(category);
+			}
+
+			this.markets.add(market);
+
+			// one bank entry per distinct currency item the owner holds
+			for (final ItemStack bankItem : this.bankItems)
+				if (random.nextBoolean())
+					this.bankEntries.add(new MarketBankEntry(UUID.randomUUID(), owner, bankItem, 1 + random.nextInt(2304)));
+		}
+
+		for (int t = 0; t < listings; t++) {
+			final UUID buyer = randomPlayer(random);
+			final UUID seller = randomPlayer(random);
+
+			this.transactions.add(new MarketTransaction(UUID.randomUUID(), buyer, "buyer", seller, "seller", TransactionType.ITEM_PURCHASE, new ItemStack(MATERIALS[random.nextInt(MATERIALS.length)]),
+					"Vault/Vault", 1 + random.nextInt(64), random.nextInt(10_000), System.currentTimeMillis() - random.nextInt(1_000_000)));
+		}
+	}
+
+	public UUID randomPlayer(@NonNull final Random random) {
+		return this.players.get(random.nextInt(this.players.size()));
+	}
+
+	public String randomWord(@NonNull final Random random) {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+
+	private ItemStack randomItem(final Random random) {
+		final ItemStack item = new ItemStack(MATERIALS[random.nextInt(MATERIALS.length)]);
+		final ItemMeta meta = item.getItemMeta();
+
+		if (meta != null) {
+			meta.setDisplayName(randomWord(random) + " " + randomWord(random));
+			meta.setLore(List.of("a " + randomWord(random) + " relic", "forged in " + randomWord(random) + " fire"));
+			item.setItemMeta(meta);
+		}
+
+		return item;
+	}
+}
@@ -0,0 +1,81 @@
+package ca.tweetzy.markets.benchmark;
+
+import ca.tweetzy.markets.api.market.core.Market;
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.model.manager.CategoryItemManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword searches over every listing, mixing full words, prefixes, materials and multi word queries. The scoped searches
+ * are the ones a market's or a category's search button runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+	private static final int QUERIES = 256;
+
+	@Param({"1000", "10000", "100000"})
+	private int listings;
+
+	private final CategoryItemManager categoryItemManager = new CategoryItemManager();
+	private final String[] queries = new String[QUERIES];
+	private final Market[] markets = new Market[QUERIES];
+
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final MarketDataset dataset = new MarketDataset(this.listings, 42L);
+		final Random random = new Random(7L);
+
+		this.categoryItemManager.publish(dataset.getMarketItems());
+
+		for (int i = 0; i < QUERIES; i++) {
+			this.markets[i] = dataset.getMarkets().get(random.nextInt(dataset.getMarkets().size()));
+
+			final String word = dataset.randomWord(random);
+
+			this.queries[i] = switch (i % 4) {
+				case 0 -> word;
+				case 1 -> word.substring(0, 3);
+				case 2 -> "sword";
+				default -> word + " " + dataset.randomWord(random);
+			};
+		}
+	}
+
+	@Benchmark
+	public List<MarketItem> search() {
+		this.cursor = (this.cursor + 1) & (QUERIES - 1);
+		return this.categoryItemManager.search(this.queries[this.cursor]);
+	}
+
+	@Benchmark
+	public List<MarketItem> searchInMarket() {
+		this.cursor = (this.cursor + 1) & (QUERIES - 1);
+		return this.categoryItemManager.search(this.queries[this.cursor], this.markets[this.cursor].getCategories());
+	}
+
+	@Benchmark
+	public List<MarketItem> searchInCategory() {
+		this.cursor = (this.cursor + 1) & (QUERIES - 1);
+		return this.categoryItemManager.search(this.queries[this.cursor], List.of(this.markets[this.cursor].getCategories().get(0)));
+	}
+
+	@Benchmark
+	public int reindexListing() {
+		this.cursor = (this.cursor + 1) & (QUERIES - 1);
+		final MarketItem marketItem = this.categoryItemManager.getManagerContent().iterator().next();
+		this.categoryItemManager.reindex(marketItem);
+		return this.cursor;
+	}
+}
@@ -0,0 +1,159 @@
+package ca.tweetzy.markets.benchmark;
+
+import ca.tweetzy.flight.database.Callback;
+import ca.tweetzy.markets.api.market.BankEntry;
+import ca.tweetzy.markets.api.market.Transaction;
+import ca.tweetzy.markets.api.market.core.AbstractMarket;
+import ca.tweetzy.markets.api.market.core.Category;
+import ca.tweetzy.markets.api.market.core.Market;
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.api.market.core.MarketType;
+import ca.tweetzy.markets.stub.StubDatabase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * The loads the plugin runs on startup and the history reads, against a sqlite file seeded with the synthetic dataset.
+ * Every call goes through the data manager, so the row extraction and the item decoding are part of the timing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageReadBenchmark {
+
+	private static final int PAGE = 50;
+
+	@Param({"1000", "10000", "100000"})
+	private int listings;
+
+	private File dataFolder;
+	private StubDatabase database;
+	private UUID[] sellers;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		final MarketDataset dataset = new MarketDataset(this.listings, 42L);
+
+		this.dataFolder = Files.createTempDirectory("markets-bench").toFile();
+		this.database = StubDatabase.sqlite(this.dataFolder);
+		this.database.dataManager().applySQLiteTuning(true, 64);
+
+		seedMarkets(dataset.getMarkets());
+		seed(dataset.getCategories(), this.database.dataManager()::createCategory);
+		seed(dataset.getMarketItems(), this.database.dataManager()::createMarketItem);
+		seed(dataset.getBankEntries(), this.database.dataManager()::createBankEntry);
+		seed(dataset.getTransactions(), this.database.dataManager()::createTransaction);
+
+		this.sellers = dataset.getPlayers().toArray(new UUID[0]);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		this.database.close();
+
+		try (var files = Files.walk(this.dataFolder.toPath())) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Benchmark
+	public List<AbstractMarket> marketGraph() throws Exception {
+		return this.database.await(this.database.dataManager()::getMarketGraph);
+	}
+
+	@Benchmark
+	public List<Category> categories() throws Exception {
+		return this.database.await(this.database.dataManager()::getCategories);
+	}
+
+	@Benchmark
+	public List<MarketItem> marketItems() throws Exception {
+		return this.database.await(this.database.dataManager()::getMarketItems);
+	}
+
+	@Benchmark
+	public List<BankEntry> bankEntries() throws Exception {
+		return this.database.await(this.database.dataManager()::getBankEntries);
+	}
+
+	@Benchmark
+	public List<Transaction> transactions() throws Exception {
+		return this.database.await(this.database.dataManager()::getTransactions);
+	}
+
+	@Benchmark
+	public List<Transaction> transactionPage() throws Exception {
+		this.cursor = (this.cursor + 1) % this.sellers.length;
+		final UUID seller = this.sellers[this.cursor];
+
+		return this.database.await(callback -> this.database.dataManager().getTransactionsPage(seller, 0L, null, PAGE, callback));
+	}
+
+	/**
+	 * Markets are written with plain statements, storing a layout serializes its items through bukkit which the stub server
+	 * can't do. The layout columns stay empty, reading them falls back to the default layout. The dataset only has player markets.
+	 */
+	private void seedMarkets(final List<Market> markets) throws Exception {
+		final String query = "INSERT INTO " + StubDatabase.PREFIX + "markets (id, type, display_name, description, owner, owner_name, created_at, updated_at, open, close_when_out_of_stock) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+		this.database.sql(connection -> {
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement statement = connection.prepareStatement(query)) {
+				for (Market market : markets) {
+					statement.setString(1, market.getId().toString());
+					statement.setString(2, MarketType.PLAYER.name());
+					statement.setString(3, market.getDisplayName());
+					statement.setString(4, String.join(";;;", market.getDescription()));
+					statement.setString(5, market.getOwnerUUID().toString());
+					statement.setString(6, market.getOwnerName());
+					statement.setLong(7, market.getTimeCreated());
+					statement.setLong(8, market.getLastUpdated());
+					statement.setBoolean(9, market.isOpen());
+					statement.setBoolean(10, market.isCloseWhenOutOfStock());
+					statement.addBatch();
+				}
+
+				statement.executeBatch();
+				connection.commit();
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		});
+	}
+
+	/**
+	 * Writes every row through the data manager and waits for the last callback.
+	 */
+	private <T> void seed(final List<? extends T> rows, final BiConsumer<T, Callback<T>> create) throws Exception {
+		final CountDownLatch written = new CountDownLatch(rows.size());
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		for (T row : rows)
+			create.accept(row, (error, value) -> {
+				if (error != null) failure.compareAndSet(null, error);
+				written.countDown();
+			});
+
+		if (!written.await(10, TimeUnit.MINUTES))
+			throw new IllegalStateException("Seeding timed out, " + written.getCount() + " rows left");
+
+		if (failure.get() != null)
+			throw new IllegalStateException("Could not seed the database", failure.get());
+	}
+}
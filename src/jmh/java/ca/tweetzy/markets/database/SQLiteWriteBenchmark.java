@@ -0,0 +1,107 @@
+package ca.tweetzy.markets.database;
+
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.impl.CategoryItem;
+import ca.tweetzy.markets.stub.StubDatabase;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes per second through the data manager into a sqlite file, with sqlite's defaults (rollback journal, synchronous=FULL)
+ * against the tuned profile (write ahead log, synchronous=NORMAL, mmap). Updates are written one call at a time, as the plugin
+ * did before the write behind queue, and as one batch in a single transaction, as the queue writes them.
+ * Lives in the database package because {@link DataManager#updateBatch} is package private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SQLiteWriteBenchmark {
+
+	private static final int BATCH = 100;
+
+	@Param({"DEFAULT", "TUNED"})
+	private String profile;
+
+	private final UUID category = UUID.randomUUID();
+	private final List<MarketItem> stored = new ArrayList<>(BATCH);
+
+	private File dataFolder;
+	private StubDatabase database;
+	private int stock;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		final boolean tuned = this.profile.equals("TUNED");
+
+		this.dataFolder = Files.createTempDirectory("markets-bench").toFile();
+		this.database = StubDatabase.sqlite(this.dataFolder);
+		this.database.dataManager().applySQLiteTuning(tuned, tuned ? 64 : 0);
+
+		for (int i = 0; i < BATCH; i++) {
+			final MarketItem marketItem = newItem();
+			this.database.<MarketItem>await(callback -> this.database.dataManager().createMarketItem(marketItem, callback));
+			this.stored.add(marketItem);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		this.database.close();
+
+		try (var files = Files.walk(this.dataFolder.toPath())) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Benchmark
+	public MarketItem create() throws Exception {
+		final MarketItem marketItem = newItem();
+		return this.database.await(callback -> this.database.dataManager().createMarketItem(marketItem, callback));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int updateOneByOne() throws Exception {
+		restock();
+
+		int updated = 0;
+		for (MarketItem marketItem : this.stored)
+			if (this.database.<Boolean>await(callback -> this.database.dataManager().updateMarketItem(marketItem, callback)))
+				updated++;
+
+		return updated;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int updateBatch() {
+		restock();
+
+		final WriteBehindQueue.BatchResult result = this.database.dataManager().updateBatch(new WriteBehindQueue.Batch(List.of(), this.stored, List.of(), List.of()));
+		if (!result.committed()) throw new IllegalStateException("The batch was rolled back");
+
+		return BATCH - result.unmatched().size();
+	}
+
+	private void restock() {
+		this.stock = (this.stock + 1) & 63;
+		this.stored.forEach(marketItem -> marketItem.setStock(this.stock));
+	}
+
+	private MarketItem newItem() {
+		return new CategoryItem(UUID.randomUUID(), this.category, new ItemStack(Material.DIAMOND_SWORD), "Vault/Vault", new ItemStack(Material.AIR), 100, 64, false, true, false);
+	}
+}
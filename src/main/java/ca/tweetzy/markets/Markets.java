@@ -4,16 +4,20 @@ import ca.tweetzy.flight.FlightPlugin;
 import ca.tweetzy.flight.command.CommandManager;
 import ca.tweetzy.flight.database.DataMigrationManager;
 import ca.tweetzy.flight.database.DatabaseConnector;
-import ca.tweetzy.flight.database.SQLiteConnector;
 import ca.tweetzy.flight.gui.GuiManager;
 import ca.tweetzy.flight.utils.Common;
 import ca.tweetzy.markets.api.MarketsAPI;
 import ca.tweetzy.markets.commands.*;
 import ca.tweetzy.markets.database.DataManager;
+import ca.tweetzy.markets.database.StorageBackend;
+import ca.tweetzy.markets.database.WriteBehindQueue;
 import ca.tweetzy.markets.database.migrations.*;
 import ca.tweetzy.markets.impl.MarketsAPIImpl;
 import ca.tweetzy.markets.listeners.MarketTransactionListener;
 import ca.tweetzy.markets.listeners.PlayerJoinListener;
+import ca.tweetzy.markets.listeners.StartupGateListener;
+import ca.tweetzy.markets.model.Bootstrap;
+import ca.tweetzy.markets.model.ExpiryScheduler;
 import ca.tweetzy.markets.model.manager.*;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
@@ -22,9 +26,14 @@ import org.bukkit.plugin.RegisteredServiceProvider;
 
 public final class Markets extends FlightPlugin {
 
+	private static final long EXPIRY_SWEEP_INTERVAL = 20L;
+
 	@SuppressWarnings("FieldCanBeLocal")
 	private DatabaseConnector databaseConnector;
 	private DataManager dataManager;
+	private ExpiryScheduler expiryScheduler;
+	private WriteBehindQueue writeBehindQueue;
+	private Bootstrap bootstrap;
 
 	private final CommandManager commandManager = new CommandManager(this);
 	private final GuiManager guiManager = new GuiManager(this);
@@ -54,7 +63,7 @@ public final class Markets extends FlightPlugin {
 		Common.setPrefix(Settings.PREFIX.getStringOr("&8[&EMarkets&8]"));
 
 		// Set up the database if enabled
-		this.databaseConnector = new SQLiteConnector(this);
+		this.databaseConnector = StorageBackend.fromSettings().createConnector(this);
 		this.dataManager = new DataManager(this.databaseConnector, this);
 
 		final DataMigrationManager dataMigrationManager = new DataMigrationManager(this.databaseConnector, this.dataManager,
@@ -73,11 +82,17 @@ public final class Markets extends FlightPlugin {
 				new _13_MarketReviewMigration(),
 				new _14_MarketRequestMigration(),
 				new _15_TransactionsMigration(),
-				new _16_InfiniteItemsMigration()
+				new _16_InfiniteItemsMigration(),
+				new _17_BinaryItemMigration(),
+				new _18_IndexMigration(),
+				new _19_BannedUserTableMigration(),
+				new _20_StorageMetaMigration(),
+				new _21_BinaryColumnMigration()
 		);
 
-		// run migrations for tables
-		dataMigrationManager.runMigrations();
+		// batched writer for entity updates
+		this.writeBehindQueue = new WriteBehindQueue(this.dataManager, this, Settings.INTERNAL_WRITE_FLUSH_INTERVAL.getInt(), Settings.INTERNAL_WRITE_MAX_QUEUE_SIZE.getInt());
+		this.writeBehindQueue.start();
 
 		// setup vault
 		setupEconomy();
@@ -85,17 +100,35 @@ public final class Markets extends FlightPlugin {
 		// gui system
 		this.guiManager.init();
 
-		// managers
-		this.marketManager.load();
-		this.playerManager.load();
-		this.currencyManager.load();
-		this.offlineItemPaymentManager.load();
-		this.bankManager.load();
-		this.offerManager.load();
-		this.requestManager.load();
-		this.transactionManager.load();
+		// migrations first, then every manager in parallel, commands are held back until both are done
+		this.bootstrap = new Bootstrap(this)
+				.runAsync("sqlite tuning", () -> this.dataManager.applySQLiteTuning(Settings.DATABASE_SQLITE_WAL.getBoolean(), Settings.DATABASE_SQLITE_MMAP_SIZE.getInt()))
+				.runAsync("migrations", dataMigrationManager::runMigrations)
+				.runAsync("uuid storage", () -> this.dataManager.applyUUIDStorage(Settings.DATABASE_COMPACT_UUIDS.getBoolean()))
+				.load("managers",
+						this.marketManager,
+						this.categoryManager,
+						this.categoryItemManager,
+						this.ratingManager,
+						this.playerManager,
+						this.currencyManager,
+						this.offlineItemPaymentManager,
+						this.bankManager,
+						this.offerManager,
+						this.requestManager,
+						this.transactionManager
+				);
+
+		// one timer sweeps expired offers, requests and offline payments, started once everything is loaded
+		this.expiryScheduler = new ExpiryScheduler(this, EXPIRY_SWEEP_INTERVAL)
+				.register(this.offerManager.getExpiry())
+				.register(this.requestManager.getExpiry())
+				.register(this.offlineItemPaymentManager.getExpiry());
+
+		this.bootstrap.whenReady(this.expiryScheduler::start);
 
 		// listeners
+		getServer().getPluginManager().registerEvents(new StartupGateListener(), this);
 		getServer().getPluginManager().registerEvents(new PlayerJoinListener(), this);
 		getServer().getPluginManager().registerEvents(new MarketTransactionListener(), this);
 
@@ -110,8 +143,11 @@ public final class Markets extends FlightPlugin {
 				new CommandAdmin(),
 				new CommandDelete(),
 				new CommandTransactions(),
+				new CommandExport(),
 				new CommandReload()
 		);
+
+		this.bootstrap.start();
 	}
 
 	@Override
@@ -121,6 +157,14 @@ public final class Markets extends FlightPlugin {
 
 	@Override
 	protected void onSleep() {
+		if (this.expiryScheduler != null)
+			this.expiryScheduler.shutdown();
+
+		if (this.writeBehindQueue != null) {
+			this.writeBehindQueue.shutdown();
+			Common.log("&aWrote &e" + this.writeBehindQueue.getTotalWrites() + " &aqueued updates in &e" + this.writeBehindQueue.getTotalFlushes() + " &aflushes (&e" + this.writeBehindQueue.getCoalescedWrites() + " &acoalesced, avg &e" + String.format("%.2f", this.writeBehindQueue.getAverageFlushMillis()) + "ms&a)");
+		}
+
 		shutdownDataManager(this.dataManager);
 	}
 
@@ -136,10 +180,18 @@ public final class Markets extends FlightPlugin {
 		return getInstance().guiManager;
 	}
 
+	public static Bootstrap getBootstrap() {
+		return getInstance().bootstrap;
+	}
+
 	public static DataManager getDataManager() {
 		return getInstance().dataManager;
 	}
 
+	public static WriteBehindQueue getWriteBehindQueue() {
+		return getInstance().writeBehindQueue;
+	}
+
 	public static MarketManager getMarketManager() {
 		return getInstance().marketManager;
 	}
@@ -0,0 +1,243 @@
+package ca.tweetzy.markets.api.manager;
+
+import ca.tweetzy.flight.utils.Common;
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * A manager backed by concurrent hash indexes rather than a synchronized list.
+ * Reads never lock or copy, writes are serialized so every index stays consistent
+ * with the primary content. The content is handed out in the order it was added, like the list managers did.
+ *
+ * @param <K> the primary key (usually the element id)
+ * @param <T> the managed element
+ */
+public abstract class IndexedManager<K, T> extends Manager {
+
+	protected final Map<K, T> managerContent = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListMap<Long, T> insertionOrder = new ConcurrentSkipListMap<>();
+	private final Map<K, Long> positions = new ConcurrentHashMap<>();
+	private long nextPosition;
+
+	private final List<Indexing> indexes = new CopyOnWriteArrayList<>();
+	private final Function<T, K> primaryKey;
+
+	public IndexedManager(@NonNull final String name, @NonNull final Function<T, K> primaryKey) {
+		super(name);
+		this.primaryKey = primaryKey;
+	}
+
+	/**
+	 * Registers a unique secondary index, should be called from the constructor of the manager. An element whose key is already
+	 * taken is logged and kept aside, it takes over the key once the element holding it is removed.
+	 *
+	 * @param keyExtractor extracts the index key from the element, a null key means the element is not indexed
+	 * @param <I>          the index key type
+	 * @return the created index
+	 */
+	protected <I> Index<I> createIndex(@NonNull final Function<T, I> keyExtractor) {
+		final Index<I> index = new Index<>(keyExtractor);
+		this.indexes.add(index);
+		return index;
+	}
+
+	/**
+	 * Registers a secondary index where many elements can share a key, should be called from the constructor of the manager.
+	 *
+	 * @param keyExtractor extracts the index key from the element, a null key means the element is not indexed
+	 * @param <I>          the index key type
+	 * @return the created index
+	 */
+	protected <I> MultiIndex<I> createMultiIndex(@NonNull final Function<T, I> keyExtractor) {
+		final MultiIndex<I> index = new MultiIndex<>(keyExtractor);
+		this.indexes.add(index);
+		return index;
+	}
+
+	public T get(@NonNull final K k) {
+		return this.managerContent.get(k);
+	}
+
+	public boolean contains(@NonNull final K k) {
+		return this.managerContent.containsKey(k);
+	}
+
+	public synchronized void add(@NonNull final T t) {
+		final K key = this.primaryKey.apply(t);
+		if (this.managerContent.putIfAbsent(key, t) != null) return;
+
+		final long position = this.nextPosition++;
+		this.positions.put(key, position);
+		this.insertionOrder.put(position, t);
+		this.indexes.forEach(index -> index.put(key, t));
+	}
+
+	public synchronized void addAll(@NonNull final Collection<T> t) {
+		t.forEach(this::add);
+	}
+
+	public synchronized void remove(@NonNull final T t) {
+		final K key = this.primaryKey.apply(t);
+		final T removed = this.managerContent.remove(key);
+		if (removed == null) return;
+
+		final Long position = this.positions.remove(key);
+		if (position != null) this.insertionOrder.remove(position);
+		this.indexes.forEach(index -> index.remove(key, removed));
+	}
+
+	/**
+	 * Re-computes the secondary index keys of an element after one of its indexed properties changed.
+	 *
+	 * @param t the element to reindex
+	 */
+	public synchronized void reindex(@NonNull final T t) {
+		final K key = this.primaryKey.apply(t);
+		if (this.managerContent.get(key) != t) return;
+		this.indexes.forEach(index -> {
+			index.remove(key, t);
+			index.put(key, t);
+		});
+	}
+
+	/**
+	 * Replaces the entire content of the manager in one step, used once a full load has completed.
+	 *
+	 * @param t the new content
+	 */
+	public synchronized void publish(@NonNull final Collection<? extends T> t) {
+		clear();
+		t.forEach(this::add);
+	}
+
+	public synchronized void clear() {
+		this.managerContent.clear();
+		this.positions.clear();
+		this.insertionOrder.clear();
+		this.indexes.forEach(Indexing::clear);
+	}
+
+	public int size() {
+		return this.managerContent.size();
+	}
+
+	/**
+	 * @return a read-only live view of the managed elements in the order they were added, no copy is made
+	 */
+	public Collection<T> getManagerContent() {
+		return Collections.unmodifiableCollection(this.insertionOrder.values());
+	}
+
+	private abstract class Indexing {
+
+		abstract void put(K primary, T t);
+
+		abstract void remove(K primary, T t);
+
+		abstract void clear();
+	}
+
+	protected final class Index<I> extends Indexing {
+
+		private final Function<T, I> keyExtractor;
+		private final Map<I, List<T>> entries = new ConcurrentHashMap<>();
+		private final Map<K, I> indexedKeys = new ConcurrentHashMap<>();
+
+		private Index(@NonNull final Function<T, I> keyExtractor) {
+			this.keyExtractor = keyExtractor;
+		}
+
+		/**
+		 * @return the element holding the key, the first one added if several claim it
+		 */
+		public T get(@NonNull final I key) {
+			final List<T> found = this.entries.get(key);
+			if (found == null) return null;
+
+			for (T t : found)
+				return t;
+
+			return null;
+		}
+
+		@Override
+		void put(final K primary, final T t) {
+			final I key = this.keyExtractor.apply(t);
+			if (key == null) return;
+
+			final List<T> found = this.entries.computeIfAbsent(key, ignored -> new CopyOnWriteArrayList<>());
+			if (!found.isEmpty())
+				Common.log("&c" + IndexedManager.this.name + " " + primary + " has the same key as " + primaryKey.apply(found.get(0)) + " (&e" + key + "&c), lookups keep returning the first one");
+
+			found.add(t);
+			this.indexedKeys.put(primary, key);
+		}
+
+		@Override
+		void remove(final K primary, final T t) {
+			final I key = this.indexedKeys.remove(primary);
+			if (key == null) return;
+
+			this.entries.computeIfPresent(key, (ignored, found) -> {
+				found.remove(t);
+				return found.isEmpty() ? null : found;
+			});
+		}
+
+		@Override
+		void clear() {
+			this.entries.clear();
+			this.indexedKeys.clear();
+		}
+	}
+
+	protected final class MultiIndex<I> extends Indexing {
+
+		private final Function<T, I> keyExtractor;
+		private final Map<I, Set<T>> entries = new ConcurrentHashMap<>();
+		private final Map<K, I> indexedKeys = new ConcurrentHashMap<>();
+
+		private MultiIndex(@NonNull final Function<T, I> keyExtractor) {
+			this.keyExtractor = keyExtractor;
+		}
+
+		/**
+		 * @return a read-only live view of the elements with the key, empty if there are none
+		 */
+		public Collection<T> get(@NonNull final I key) {
+			final Set<T> found = this.entries.get(key);
+			return found == null ? Collections.emptySet() : Collections.unmodifiableSet(found);
+		}
+
+		@Override
+		void put(final K primary, final T t) {
+			final I key = this.keyExtractor.apply(t);
+			if (key == null) return;
+
+			this.entries.computeIfAbsent(key, ignored -> ConcurrentHashMap.newKeySet()).add(t);
+			this.indexedKeys.put(primary, key);
+		}
+
+		@Override
+		void remove(final K primary, final T t) {
+			final I key = this.indexedKeys.remove(primary);
+			if (key == null) return;
+
+			this.entries.computeIfPresent(key, (ignored, found) -> {
+				found.remove(t);
+				return found.isEmpty() ? null : found;
+			});
+		}
+
+		@Override
+		void clear() {
+			this.entries.clear();
+			this.indexedKeys.clear();
+		}
+	}
+}
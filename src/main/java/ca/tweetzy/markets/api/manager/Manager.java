@@ -1,14 +1,45 @@
 package ca.tweetzy.markets.api.manager;
 
 import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
 
 public abstract class Manager {
 
 	protected String name;
 
+	private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
 	public Manager(@NonNull final String name) {
 		this.name = name;
 	}
 
 	public abstract void load();
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return a future that completes once the content from {@link #load()} has been published
+	 */
+	public CompletableFuture<Void> getLoaded() {
+		return this.loaded;
+	}
+
+	public boolean isLoaded() {
+		return this.loaded.isDone() && !this.loaded.isCompletedExceptionally();
+	}
+
+	protected final void markLoaded() {
+		this.loaded.complete(null);
+	}
+
+	protected final void markLoaded(@Nullable final Throwable error) {
+		if (error == null)
+			this.loaded.complete(null);
+		else
+			this.loaded.completeExceptionally(error);
+	}
 }
@@ -0,0 +1,20 @@
+package ca.tweetzy.markets.api.market;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Narrows down which transactions are read, every criteria left as null matches everything.
+ *
+ * @param from   only transactions made at or after this time
+ * @param to     only transactions made before this time
+ * @param seller only transactions of this seller
+ * @param buyer  only transactions of this buyer
+ */
+public record TransactionFilter(@Nullable Long from, @Nullable Long to, @Nullable UUID seller, @Nullable UUID buyer) {
+
+	public static TransactionFilter all() {
+		return new TransactionFilter(null, null, null, null);
+	}
+}
@@ -17,7 +17,7 @@ public interface Market extends Identifiable, Displayable, Trackable, Synchroniz
 
 	@NonNull List<Category> getCategories();
 
-	@NonNull List<Rating> getRatings();
+	@NonNull RatingSummary getRatingSummary();
 
 	boolean isOpen();
 
@@ -33,27 +33,23 @@ public interface Market extends Identifiable, Displayable, Trackable, Synchroniz
 
 	void setCloseWhenOutOfStock(final boolean closeWhenOutOfStock);
 
-	default boolean isEmpty() {
-		boolean isEmpty = true;
-		for (Category category : getCategories()) {
-			if (!category.getItems().isEmpty()) {
-				isEmpty = false;
-				break;
-			}
-		}
-		return isEmpty;
-	}
+	/**
+	 * @return the number of items across all categories, maintained as items are added and removed rather than counted
+	 */
+	int getItemCount();
 
-	default int getItemCount() {
-		int count = 0;
-		for (Category category : getCategories()) {
-			count += category.getItems().size();
-		}
+	/**
+	 * Changes the maintained item count, called whenever items are added to or removed from one of the market's categories.
+	 *
+	 * @param amount the number of items added, negative when removed
+	 */
+	void adjustItemCount(int amount);
 
-		return count;
+	default boolean isEmpty() {
+		return getItemCount() <= 0;
 	}
 
 	default double getReviewAvg() {
-		return getRatings().stream().mapToInt(Rating::getStars).average().orElse(0);
+		return getRatingSummary().getAverage();
 	}
 }
@@ -54,6 +54,21 @@ public interface MarketItem extends Identifiable, Synchronize, UserViewable, Sto
 
 	void performPurchase(@NonNull final Market market, @NonNull final Player buyer, final int quantity, Consumer<TransactionResult> transactionResult);
 
+	/**
+	 * Takes stock out in a single compare and set, so concurrent purchases and request fills never take more than what is left.
+	 * Infinite items hand out any quantity without changing their stock.
+	 *
+	 * @param quantity the wanted quantity
+	 * @param partial  whether less than the wanted quantity may be taken when that is all that is left
+	 * @return the quantity taken, 0 if nothing was taken
+	 */
+	int reserveStock(final int quantity, final boolean partial);
+
+	/**
+	 * Puts back stock taken with {@link #reserveStock(int, boolean)} for a sale that did not go through.
+	 */
+	void releaseStock(final int quantity);
+
 	// todo this is needs to be changed
 	default void addStock(@NonNull final ItemStack item, @NonNull final Consumer<SynchronizeResult> resultConsumer) {
 		if (getItem().isSimilar(item)) {
@@ -0,0 +1,49 @@
+package ca.tweetzy.markets.api.market.core;
+
+/**
+ * Running totals of the ratings a market received, the ratings themselves stay in the database.
+ */
+public final class RatingSummary {
+
+	public static final int MAX_STARS = 5;
+
+	private final int[] histogram = new int[MAX_STARS];
+	private long sum;
+	private int count;
+
+	/**
+	 * Counts ratings with the given number of stars, stars outside 1 - 5 are clamped.
+	 */
+	public synchronized void add(final int stars, final int amount) {
+		final int clamped = Math.max(1, Math.min(MAX_STARS, stars));
+
+		this.histogram[clamped - 1] += amount;
+		this.sum += (long) clamped * amount;
+		this.count += amount;
+	}
+
+	public void add(final int stars) {
+		add(stars, 1);
+	}
+
+	public synchronized int getCount() {
+		return this.count;
+	}
+
+	public synchronized long getSum() {
+		return this.sum;
+	}
+
+	public synchronized double getAverage() {
+		return this.count == 0 ? 0 : (double) this.sum / this.count;
+	}
+
+	/**
+	 * @param stars 1 - 5
+	 * @return how many ratings gave exactly that many stars
+	 */
+	public synchronized int getCount(final int stars) {
+		if (stars < 1 || stars > MAX_STARS) return 0;
+		return this.histogram[stars - 1];
+	}
+}
@@ -0,0 +1,149 @@
+package ca.tweetzy.markets.commands;
+
+import ca.tweetzy.flight.command.AllowedExecutor;
+import ca.tweetzy.flight.command.Command;
+import ca.tweetzy.flight.command.ReturnType;
+import ca.tweetzy.flight.settings.TranslationManager;
+import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.api.market.TransactionFilter;
+import ca.tweetzy.markets.api.market.core.MarketUser;
+import ca.tweetzy.markets.model.TransactionExport;
+import ca.tweetzy.markets.settings.Translations;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+
+public final class CommandExport extends Command {
+
+	public CommandExport() {
+		super(AllowedExecutor.BOTH, "export");
+	}
+
+	@Override
+	protected ReturnType execute(CommandSender sender, String... args) {
+		if (args.length == 0) return ReturnType.INVALID_SYNTAX;
+
+		final TransactionExport.Format format;
+		try {
+			format = TransactionExport.Format.valueOf(args[0].toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return ReturnType.INVALID_SYNTAX;
+		}
+
+		boolean gzip = false;
+		Long from = null;
+		Long to = null;
+		UUID seller = null;
+		UUID buyer = null;
+
+		for (int i = 1; i < args.length; i++) {
+			final String arg = args[i];
+			final int separator = arg.indexOf(':');
+
+			if (arg.equalsIgnoreCase("gzip")) {
+				gzip = true;
+				continue;
+			}
+
+			if (separator <= 0) return ReturnType.INVALID_SYNTAX;
+
+			final String key = arg.substring(0, separator).toLowerCase();
+			final String value = arg.substring(separator + 1);
+
+			try {
+				switch (key) {
+					case "from" -> from = LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+					// the end date is inclusive, so the range stops at the start of the next day
+					case "to" -> to = LocalDate.parse(value).plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+					case "seller", "buyer" -> {
+						final UUID player = resolvePlayer(value);
+						if (player == null) {
+							tell(sender, TranslationManager.string(Translations.PLAYER_NOT_FOUND, "value", value));
+							return ReturnType.FAIL;
+						}
+
+						if (key.equals("seller")) seller = player;
+						else buyer = player;
+					}
+					default -> {
+						return ReturnType.INVALID_SYNTAX;
+					}
+				}
+			} catch (DateTimeParseException e) {
+				tell(sender, TranslationManager.string(Translations.EXPORT_INVALID_DATE, "value", value));
+				return ReturnType.FAIL;
+			}
+		}
+
+		final TransactionExport export = new TransactionExport(new TransactionFilter(from, to, seller, buyer), format, gzip);
+		final File file = new File(new File(Markets.getInstance().getDataFolder(), "exports"), export.getFileName(System.currentTimeMillis()));
+
+		export.start(file, new TransactionExport.Listener() {
+			@Override
+			public void progress(int exported, int total) {
+				if (exported == 0)
+					tell(sender, TranslationManager.string(Translations.EXPORT_STARTED, "export_total", total, "export_file", file.getName()));
+				else
+					tell(sender, TranslationManager.string(Translations.EXPORT_PROGRESS, "export_done", exported, "export_total", total));
+			}
+
+			@Override
+			public void finished(int exported, Throwable error) {
+				if (error != null) {
+					Common.log("&cTransaction export to &e" + file.getName() + " &cfailed&F: &e" + error.getMessage());
+					tell(sender, TranslationManager.string(Translations.EXPORT_FAILED, "export_file", file.getName()));
+					return;
+				}
+
+				tell(sender, TranslationManager.string(Translations.EXPORT_FINISHED, "export_done", exported, "export_file", file.getPath()));
+			}
+		});
+
+		return ReturnType.SUCCESS;
+	}
+
+	private UUID resolvePlayer(final String value) {
+		try {
+			return UUID.fromString(value);
+		} catch (IllegalArgumentException ignored) {
+		}
+
+		return Markets.getPlayerManager().getManagerContent().stream()
+				.filter(user -> user.getLastKnownName().equalsIgnoreCase(value))
+				.map(MarketUser::getUUID)
+				.findFirst()
+				.orElse(null);
+	}
+
+	@Override
+	protected List<String> tab(CommandSender sender, String... args) {
+		if (args.length == 1)
+			return List.of("csv", "ndjson");
+
+		if (args.length > 1)
+			return List.of("gzip", "from:", "to:", "seller:", "buyer:");
+
+		return null;
+	}
+
+	@Override
+	public String getPermissionNode() {
+		return "markets.command.export";
+	}
+
+	@Override
+	public String getSyntax() {
+		return "export <csv|ndjson> [gzip] [from:yyyy-mm-dd] [to:yyyy-mm-dd] [seller:<player>] [buyer:<player>]";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Exports transactions to a file for analysis";
+	}
+}
@@ -4,6 +4,7 @@ import ca.tweetzy.flight.command.AllowedExecutor;
 import ca.tweetzy.flight.command.Command;
 import ca.tweetzy.flight.command.ReturnType;
 import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.markets.Markets;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import org.bukkit.command.CommandSender;
@@ -20,6 +21,8 @@ public final class CommandReload extends Command {
 	protected ReturnType execute(CommandSender sender, String... args) {
 		Settings.init();
 		Translations.init();
+		Markets.getCategoryItemManager().getIconCache().clear();
+		Markets.getPlayerManager().clearLimits();
 		Common.setPrefix(Settings.PREFIX.getStringOr("&8[&EMarkets&8]"));
 		return ReturnType.SUCCESS;
 	}
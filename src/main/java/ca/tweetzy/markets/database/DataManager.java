@@ -5,66 +5,110 @@ import ca.tweetzy.flight.database.Callback;
 import ca.tweetzy.flight.database.DataManagerAbstract;
 import ca.tweetzy.flight.database.DatabaseConnector;
 import ca.tweetzy.flight.database.UpdateCallback;
-import ca.tweetzy.flight.utils.SerializeUtil;
+import ca.tweetzy.flight.utils.Common;
 import ca.tweetzy.markets.api.currency.Payment;
 import ca.tweetzy.markets.api.market.*;
 import ca.tweetzy.markets.api.market.core.*;
 import ca.tweetzy.markets.api.market.layout.Layout;
 import ca.tweetzy.markets.api.market.offer.Offer;
+import ca.tweetzy.markets.database.codec.BinaryItemCodec;
+import ca.tweetzy.markets.database.codec.ItemCodec;
+import ca.tweetzy.markets.database.codec.InterningItemCodec;
 import ca.tweetzy.markets.impl.*;
 import ca.tweetzy.markets.impl.layout.HomeLayout;
+import ca.tweetzy.markets.model.UUIDHelper;
 import lombok.NonNull;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.UUID;
+import java.sql.Statement;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public final class DataManager extends DataManagerAbstract {
 
+	private static final String[][] UUID_COLUMNS = {
+			{"markets", "id", "owner"},
+			{"category", "id", "owning_market"},
+			{"category_item", "id", "owning_category"},
+			{"user", "id"},
+			{"offline_payment", "id", "payment_for"},
+			{"offer", "id", "sender", "offer_to", "market_item"},
+			{"bank_entry", "id", "owner"},
+			{"review", "id", "market", "rater"},
+			{"request", "id", "owner"},
+			{"transaction", "id", "buyer", "seller"},
+			{"market_banned_user", "market", "banned_user"}
+	};
+
+	private static final int UUID_CONVERT_CHUNK = 10_000;
+	private static final int STREAM_CHUNK_SIZE = 500;
+
+	/**
+	 * Receives rows as they are read by a streaming query.
+	 */
+	@FunctionalInterface
+	public interface RowVisitor<T> {
+
+		void visit(T row) throws Exception;
+	}
+
+	@FunctionalInterface
+	private interface SqlWork {
+
+		void run() throws SQLException;
+	}
+
+	private volatile ItemCodec itemCodec = new InterningItemCodec(new BinaryItemCodec(), 4096);
+	private volatile boolean compactUUIDs;
+
+	private final StatementCache statements = new StatementCache();
+
 	public DataManager(DatabaseConnector databaseConnector, Plugin plugin) {
 		super(databaseConnector, plugin);
 	}
 
+	public ItemCodec getItemCodec() {
+		return this.itemCodec;
+	}
+
+	public void setItemCodec(@NonNull final ItemCodec itemCodec) {
+		this.itemCodec = itemCodec;
+	}
+
 	public void createMarket(@NonNull final AbstractMarket market, final Callback<AbstractMarket> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
-			final String query = "INSERT INTO " + this.getTablePrefix() + "markets (id, type, display_name, description, owner, owner_name, created_at, updated_at, banned_users, open, close_when_out_of_stock, home_layout, category_layout) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "markets WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
+			final String query = "INSERT INTO " + this.getTablePrefix() + "markets (id, type, display_name, description, owner, owner_name, created_at, updated_at, open, close_when_out_of_stock, home_layout, category_layout) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-				fetch.setString(1, market.getId().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				preparedStatement.setString(1, market.getId().toString());
+				setUUID(preparedStatement, 1, market.getId());
 				preparedStatement.setString(2, market.getMarketType().name());
 				preparedStatement.setString(3, market.getDisplayName());
 				preparedStatement.setString(4, String.join(";;;", market.getDescription()));
-				preparedStatement.setString(5, market.getOwnerUUID().toString());
+				setUUID(preparedStatement, 5, market.getOwnerUUID());
 				preparedStatement.setString(6, market.getOwnerName());
 				preparedStatement.setLong(7, market.getTimeCreated());
 				preparedStatement.setLong(8, market.getLastUpdated());
-				preparedStatement.setString(9, market.getBannedUsers().stream().map(UUID::toString).collect(Collectors.joining(",")));
-				preparedStatement.setBoolean(10, market.isOpen());
-				preparedStatement.setBoolean(11, market.isCloseWhenOutOfStock());
-				preparedStatement.setString(12, market.getHomeLayout().getJSONString());
-				preparedStatement.setString(13, market.getCategoryLayout().getJSONString());
+				preparedStatement.setBoolean(9, market.isOpen());
+				preparedStatement.setBoolean(10, market.isCloseWhenOutOfStock());
+				preparedStatement.setString(11, market.getHomeLayout().getJSONString());
+				preparedStatement.setString(12, market.getCategoryLayout().getJSONString());
 
-				preparedStatement.executeUpdate();
+				inTransaction(connection, () -> {
+					preparedStatement.executeUpdate();
+					writeBannedUsers(connection, List.of(market));
+				});
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractMarket(res));
-				}
+				if (callback != null)
+					callback.accept(null, market);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -75,27 +119,18 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void updateMarket(@NonNull final AbstractMarket market, final Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			final String query = "UPDATE " + this.getTablePrefix() + "markets SET display_name = ?, description = ?, owner_name = ?, updated_at = ?, banned_users = ?, open = ?, close_when_out_of_stock = ?, home_layout = ?, category_layout = ? WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-
-				preparedStatement.setString(1, market.getDisplayName());
-				preparedStatement.setString(2, String.join(";;;", market.getDescription()));
-				preparedStatement.setString(3, market.getOwnerName());
-				preparedStatement.setLong(4, market.getLastUpdated());
-
-				preparedStatement.setString(5, market.getBannedUsers().stream().map(UUID::toString).collect(Collectors.joining(",")));
-				preparedStatement.setBoolean(6, market.isOpen());
-				preparedStatement.setBoolean(7, market.isCloseWhenOutOfStock());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, marketUpdateQuery());
+				bindMarketUpdate(preparedStatement, market);
 
-				preparedStatement.setString(8, market.getHomeLayout().getJSONString());
-				preparedStatement.setString(9, market.getCategoryLayout().getJSONString());
-				preparedStatement.setString(10, market.getId().toString());
-
-				int result = preparedStatement.executeUpdate();
+				final int[] result = {0};
+				inTransaction(connection, () -> {
+					result[0] = preparedStatement.executeUpdate();
+					writeBannedUsers(connection, List.of(market));
+				});
 
 				if (callback != null)
-					callback.accept(null, result > 0);
+					callback.accept(null, result[0] > 0);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -106,11 +141,19 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void deleteMarket(@NonNull final AbstractMarket market, Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + this.getTablePrefix() + "markets WHERE id = ?")) {
-				statement.setString(1, market.getId().toString());
+			try {
+				final PreparedStatement statement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "markets WHERE id = ?");
+				final PreparedStatement bannedStatement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "market_banned_user WHERE market = ?");
+				setUUID(statement, 1, market.getId());
+				setUUID(bannedStatement, 1, market.getId());
 
-				int result = statement.executeUpdate();
-				callback.accept(null, result > 0);
+				final int[] result = {0};
+				inTransaction(connection, () -> {
+					result[0] = statement.executeUpdate();
+					bannedStatement.executeUpdate();
+				});
+
+				callback.accept(null, result[0] > 0);
 
 			} catch (Exception e) {
 				resolveCallback(callback, e);
@@ -130,6 +173,7 @@ public final class DataManager extends DataManagerAbstract {
 					markets.add(market);
 				}
 
+				readBannedUsers(connection, markets.stream().collect(Collectors.toMap(AbstractMarket::getId, market -> market)));
 				callback.accept(null, markets);
 			} catch (Exception e) {
 				resolveCallback(callback, e);
@@ -137,19 +181,79 @@ public final class DataManager extends DataManagerAbstract {
 		}));
 	}
 
+	/**
+	 * Loads every market together with its rating totals, categories and items using one set based
+	 * query per table, the object graph is linked in memory before the callback is fired.
+	 * Categories, items and ratings that belong to a missing parent are skipped.
+	 *
+	 * @param callback receives the fully linked markets
+	 */
+	public void getMarketGraph(@NonNull final Callback<List<AbstractMarket>> callback) {
+		this.runAsync(() -> this.databaseConnector.connect(connection -> {
+			final Map<UUID, AbstractMarket> markets = new LinkedHashMap<>();
+			final Map<UUID, Category> categories = new HashMap<>();
+
+			try (PreparedStatement marketStatement = connection.prepareStatement("SELECT * FROM " + this.getTablePrefix() + "markets");
+				 PreparedStatement reviewStatement = connection.prepareStatement("SELECT market, stars, COUNT(*) AS total FROM " + this.getTablePrefix() + "review GROUP BY market, stars");
+				 PreparedStatement categoryStatement = connection.prepareStatement("SELECT * FROM " + this.getTablePrefix() + "category");
+				 PreparedStatement itemStatement = connection.prepareStatement("SELECT * FROM " + this.getTablePrefix() + "category_item")) {
+
+				try (ResultSet resultSet = marketStatement.executeQuery()) {
+					while (resultSet.next()) {
+						final AbstractMarket market = extractMarket(resultSet);
+						markets.put(market.getId(), market);
+					}
+				}
+
+				readBannedUsers(connection, markets);
+
+				// only the rating totals are kept in memory, the reviews are paged in when someone views them
+				try (ResultSet resultSet = reviewStatement.executeQuery()) {
+					while (resultSet.next()) {
+						final AbstractMarket market = markets.get(getUUID(resultSet, "market"));
+						if (market != null)
+							market.getRatingSummary().add(resultSet.getInt("stars"), resultSet.getInt("total"));
+					}
+				}
+
+				try (ResultSet resultSet = categoryStatement.executeQuery()) {
+					while (resultSet.next()) {
+						final Category category = extractCategory(resultSet);
+						final AbstractMarket market = markets.get(category.getOwningMarket());
+						if (market == null) continue;
+
+						market.getCategories().add(category);
+						categories.put(category.getId(), category);
+					}
+				}
+
+				try (ResultSet resultSet = itemStatement.executeQuery()) {
+					while (resultSet.next()) {
+						final Category category = categories.get(getUUID(resultSet, "owning_category"));
+						if (category == null) continue;
+
+						category.getItems().add(extractMarketItem(resultSet));
+						markets.get(category.getOwningMarket()).adjustItemCount(1);
+					}
+				}
+
+				callback.accept(null, new ArrayList<>(markets.values()));
+			} catch (Exception e) {
+				resolveCallback(callback, e);
+			}
+		}));
+	}
+
 	public void createCategory(@NonNull final Category category, final Callback<Category> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
 			final String query = "INSERT INTO " + this.getTablePrefix() + "category (id, owning_market, name, icon, display_name, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "category WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
 
-				fetch.setString(1, category.getId().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				preparedStatement.setString(1, category.getId().toString());
-				preparedStatement.setString(2, category.getOwningMarket().toString());
+				setUUID(preparedStatement, 1, category.getId());
+				setUUID(preparedStatement, 2, category.getOwningMarket());
 				preparedStatement.setString(3, category.getName().toLowerCase());
 				preparedStatement.setString(4, category.getIcon().getType().name());
 				preparedStatement.setString(5, category.getDisplayName());
@@ -159,11 +263,8 @@ public final class DataManager extends DataManagerAbstract {
 
 				preparedStatement.executeUpdate();
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractCategory(res));
-				}
+				if (callback != null)
+					callback.accept(null, category);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -177,13 +278,14 @@ public final class DataManager extends DataManagerAbstract {
 			//id, owning_market, name, icon, display_name, description, created_at, updated_at
 			final String query = "UPDATE " + this.getTablePrefix() + "category SET icon = ?, display_name = ?, description = ?, updated_at = ? WHERE id = ?";
 
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
 				preparedStatement.setString(1, category.getIcon().getType().toString());
 				preparedStatement.setString(2, category.getDisplayName());
 				preparedStatement.setString(3, String.join(";;;", category.getDescription()));
 				preparedStatement.setLong(4, category.getLastUpdated());
-				preparedStatement.setString(5, category.getId().toString());
+				setUUID(preparedStatement, 5, category.getId());
 
 				int result = preparedStatement.executeUpdate();
 
@@ -199,8 +301,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void deleteCategory(@NonNull final Category category, Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + this.getTablePrefix() + "category WHERE id = ?")) {
-				statement.setString(1, category.getId().toString());
+			try {
+				final PreparedStatement statement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "category WHERE id = ?");
+				setUUID(statement, 1, category.getId());
 
 				int result = statement.executeUpdate();
 				callback.accept(null, result > 0);
@@ -233,18 +336,15 @@ public final class DataManager extends DataManagerAbstract {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
 			final String query = "INSERT INTO " + this.getTablePrefix() + "category_item (id, owning_category, item, currency, currency_item, price, stock, price_is_for_all, accepting_offers, infinite) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "category_item WHERE id = ?";
 
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				fetch.setString(1, marketItem.getId().toString());
-
-				preparedStatement.setString(1, marketItem.getId().toString());
-				preparedStatement.setString(2, marketItem.getOwningCategory().toString());
-				preparedStatement.setString(3, SerializeUtil.encodeItem(marketItem.getItem()));
+				setUUID(preparedStatement, 1, marketItem.getId());
+				setUUID(preparedStatement, 2, marketItem.getOwningCategory());
+				preparedStatement.setBytes(3, this.itemCodec.encode(marketItem.getItem()));
 				preparedStatement.setString(4, marketItem.getCurrency());
-				preparedStatement.setString(5, SerializeUtil.encodeItem(marketItem.getCurrencyItem()));
+				preparedStatement.setBytes(5, this.itemCodec.encode(marketItem.getCurrencyItem()));
 				preparedStatement.setDouble(6, marketItem.getPrice());
 				preparedStatement.setInt(7, marketItem.getStock());
 				preparedStatement.setBoolean(8, marketItem.isPriceForAll());
@@ -253,11 +353,8 @@ public final class DataManager extends DataManagerAbstract {
 
 				preparedStatement.executeUpdate();
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractMarketItem(res));
-				}
+				if (callback != null)
+					callback.accept(null, marketItem);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -268,18 +365,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void updateMarketItem(@NonNull final MarketItem marketItem, final Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			final String query = "UPDATE " + this.getTablePrefix() + "category_item SET currency = ?, price = ?, stock = ?, price_is_for_all = ?, currency_item = ?, accepting_offers = ?, infinite = ? WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-
-				preparedStatement.setString(1, marketItem.getCurrency());
-				preparedStatement.setDouble(2, marketItem.getPrice());
-				preparedStatement.setInt(3, marketItem.getStock());
-				preparedStatement.setBoolean(4, marketItem.isPriceForAll());
-				preparedStatement.setString(5, SerializeUtil.encodeItem(marketItem.getCurrencyItem()));
-				preparedStatement.setBoolean(6, marketItem.isAcceptingOffers());
-				preparedStatement.setBoolean(7, marketItem.isInfinite());
-				preparedStatement.setString(8, marketItem.getId().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, marketItemUpdateQuery());
+				bindMarketItemUpdate(preparedStatement, marketItem);
 
 				int result = preparedStatement.executeUpdate();
 
@@ -296,8 +384,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void deleteMarketItem(@NonNull final MarketItem marketItem, Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + this.getTablePrefix() + "category_item WHERE id = ?")) {
-				statement.setString(1, marketItem.getId().toString());
+			try {
+				final PreparedStatement statement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "category_item WHERE id = ?");
+				setUUID(statement, 1, marketItem.getId());
 
 				int result = statement.executeUpdate();
 				callback.accept(null, result > 0);
@@ -311,8 +400,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void deleteMarketItems(@NonNull final Category category, Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + this.getTablePrefix() + "category_item WHERE owning_category = ?")) {
-				statement.setString(1, category.getId().toString());
+			try {
+				final PreparedStatement statement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "category_item WHERE owning_category = ?");
+				setUUID(statement, 1, category.getId());
 
 				int result = statement.executeUpdate();
 				callback.accept(null, result > 0);
@@ -347,7 +437,7 @@ public final class DataManager extends DataManagerAbstract {
 
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 			try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + this.getTablePrefix() + "category_item WHERE owning_category = ?")) {
-				statement.setString(1, categoryId.toString());
+				setUUID(statement, 1, categoryId);
 
 				final ResultSet resultSet = statement.executeQuery();
 
@@ -367,14 +457,11 @@ public final class DataManager extends DataManagerAbstract {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
 			final String query = "INSERT INTO " + this.getTablePrefix() + "user (id, last_known_name, bio, preferred_language, currency_format_country, last_seen_at) VALUES (?, ?, ?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "user WHERE id = ?";
 
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				fetch.setString(1, marketUser.getUUID().toString());
-
-				preparedStatement.setString(1, marketUser.getUUID().toString());
+				setUUID(preparedStatement, 1, marketUser.getUUID());
 				preparedStatement.setString(2, marketUser.getLastKnownName());
 				preparedStatement.setString(3, String.join(";;;", marketUser.getBio()));
 				preparedStatement.setString(4, marketUser.getPreferredLanguage());
@@ -383,11 +470,8 @@ public final class DataManager extends DataManagerAbstract {
 
 				preparedStatement.executeUpdate();
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractMarketUser(res));
-				}
+				if (callback != null)
+					callback.accept(null, marketUser);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -398,16 +482,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void updateMarketUser(@NonNull final MarketUser marketUser, final Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			final String query = "UPDATE " + this.getTablePrefix() + "user SET last_known_name = ?, bio = ?, preferred_language = ?, currency_format_country = ?, last_seen_at = ? WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-
-				preparedStatement.setString(1, marketUser.getLastKnownName());
-				preparedStatement.setString(2, String.join(";;;", marketUser.getBio()));
-				preparedStatement.setString(3, marketUser.getPreferredLanguage());
-				preparedStatement.setString(4, marketUser.getCurrencyFormatCountry());
-				preparedStatement.setLong(5, marketUser.getLastSeenAt());
-				preparedStatement.setString(6, marketUser.getUUID().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, marketUserUpdateQuery());
+				bindMarketUserUpdate(preparedStatement, marketUser);
 
 				int result = preparedStatement.executeUpdate();
 
@@ -443,27 +520,21 @@ public final class DataManager extends DataManagerAbstract {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
 			final String query = "INSERT INTO " + this.getTablePrefix() + "offline_payment (id, payment_for, currency, amount, reason, received_at) VALUES (?, ?, ?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "offline_payment WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
 
-				fetch.setString(1, payment.getId().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				preparedStatement.setString(1, payment.getId().toString());
-				preparedStatement.setString(2, payment.getFor().toString());
-				preparedStatement.setString(3, SerializeUtil.encodeItem(payment.getCurrency()));
+				setUUID(preparedStatement, 1, payment.getId());
+				setUUID(preparedStatement, 2, payment.getFor());
+				preparedStatement.setBytes(3, this.itemCodec.encode(payment.getCurrency()));
 				preparedStatement.setDouble(4, payment.getAmount());
 				preparedStatement.setString(5, payment.getReason());
 				preparedStatement.setLong(6, payment.getTimeCreated());
 
 				preparedStatement.executeUpdate();
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractOfflineItemPayment(res));
-				}
+				if (callback != null)
+					callback.accept(null, payment);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -492,8 +563,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void deleteOfflineItemPayment(@NonNull final Payment payment, Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + this.getTablePrefix() + "offline_payment WHERE id = ?")) {
-				statement.setString(1, payment.getId().toString());
+			try {
+				final PreparedStatement statement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "offline_payment WHERE id = ?");
+				setUUID(statement, 1, payment.getId());
 
 				int result = statement.executeUpdate();
 				callback.accept(null, result > 0);
@@ -509,31 +581,25 @@ public final class DataManager extends DataManagerAbstract {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
 			final String query = "INSERT INTO " + this.getTablePrefix() + "offer (id, sender, sender_name, offer_to, market_item, currency, currency_item, offered_amount, offered_at, request_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "offer WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
 
-				fetch.setString(1, offer.getId().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				preparedStatement.setString(1, offer.getId().toString());
-				preparedStatement.setString(2, offer.getOfferSender().toString());
+				setUUID(preparedStatement, 1, offer.getId());
+				setUUID(preparedStatement, 2, offer.getOfferSender());
 				preparedStatement.setString(3, offer.getOfferSenderName());
-				preparedStatement.setString(4, offer.getOfferFor().toString());
-				preparedStatement.setString(5, offer.getMarketItem().toString());
+				setUUID(preparedStatement, 4, offer.getOfferFor());
+				setUUID(preparedStatement, 5, offer.getMarketItem());
 				preparedStatement.setString(6, offer.getCurrency());
-				preparedStatement.setString(7, SerializeUtil.encodeItem(offer.getCurrencyItem()));
+				preparedStatement.setBytes(7, this.itemCodec.encode(offer.getCurrencyItem()));
 				preparedStatement.setDouble(8, offer.getOfferedAmount());
 				preparedStatement.setLong(9, offer.getTimeCreated());
 				preparedStatement.setInt(10, offer.getRequestAmount());
 
 				preparedStatement.executeUpdate();
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractOffer(res));
-				}
+				if (callback != null)
+					callback.accept(null, offer);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -562,8 +628,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void deleteOffer(@NonNull final Offer offer, Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + this.getTablePrefix() + "offer WHERE id = ?")) {
-				statement.setString(1, offer.getId().toString());
+			try {
+				final PreparedStatement statement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "offer WHERE id = ?");
+				setUUID(statement, 1, offer.getId());
 
 				int result = statement.executeUpdate();
 				callback.accept(null, result > 0);
@@ -579,25 +646,19 @@ public final class DataManager extends DataManagerAbstract {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
 			final String query = "INSERT INTO " + this.getTablePrefix() + "bank_entry (id, owner, item, quantity) VALUES (?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "bank_entry WHERE id = ?";
 
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				fetch.setString(1, bankEntry.getId().toString());
-
-				preparedStatement.setString(1, bankEntry.getId().toString());
-				preparedStatement.setString(2, bankEntry.getOwner().toString());
-				preparedStatement.setString(3, SerializeUtil.encodeItem(bankEntry.getItem()));
+				setUUID(preparedStatement, 1, bankEntry.getId());
+				setUUID(preparedStatement, 2, bankEntry.getOwner());
+				preparedStatement.setBytes(3, this.itemCodec.encode(bankEntry.getItem()));
 				preparedStatement.setInt(4, bankEntry.getQuantity());
 
 				preparedStatement.executeUpdate();
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractBankEntry(res));
-				}
+				if (callback != null)
+					callback.accept(null, bankEntry);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -626,13 +687,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void updateBankEntry(@NonNull final BankEntry entry, final Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			//id, owning_market, name, icon, display_name, description, created_at, updated_at
-			final String query = "UPDATE " + this.getTablePrefix() + "bank_entry SET quantity = ? WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-
-				preparedStatement.setInt(1, entry.getQuantity());
-				preparedStatement.setString(2, entry.getId().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, bankEntryUpdateQuery());
+				bindBankEntryUpdate(preparedStatement, entry);
 
 				int result = preparedStatement.executeUpdate();
 
@@ -648,8 +705,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void deleteBankEntry(@NonNull final BankEntry entry, Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + this.getTablePrefix() + "bank_entry WHERE id = ?")) {
-				statement.setString(1, entry.getId().toString());
+			try {
+				final PreparedStatement statement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "bank_entry WHERE id = ?");
+				setUUID(statement, 1, entry.getId());
 
 				int result = statement.executeUpdate();
 				callback.accept(null, result > 0);
@@ -665,16 +723,13 @@ public final class DataManager extends DataManagerAbstract {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
 			final String query = "INSERT INTO " + this.getTablePrefix() + "review (id, market, rater, rater_name, feedback, stars, posted_on) VALUES (?, ?, ?, ?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "review WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
 
-				fetch.setString(1, rating.getId().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				preparedStatement.setString(1, rating.getId().toString());
-				preparedStatement.setString(2, rating.getMarketID().toString());
-				preparedStatement.setString(3, rating.getRaterUUID().toString());
+				setUUID(preparedStatement, 1, rating.getId());
+				setUUID(preparedStatement, 2, rating.getMarketID());
+				setUUID(preparedStatement, 3, rating.getRaterUUID());
 				preparedStatement.setString(4, rating.getRaterName());
 				preparedStatement.setString(5, rating.getFeedback());
 				preparedStatement.setInt(6, rating.getStars());
@@ -682,11 +737,8 @@ public final class DataManager extends DataManagerAbstract {
 
 				preparedStatement.executeUpdate();
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractMarketRating(res));
-				}
+				if (callback != null)
+					callback.accept(null, rating);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -700,7 +752,7 @@ public final class DataManager extends DataManagerAbstract {
 
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 			try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + this.getTablePrefix() + "review WHERE market = ?")) {
-				statement.setString(1, market.toString());
+				setUUID(statement, 1, market);
 
 				final ResultSet resultSet = statement.executeQuery();
 
@@ -716,34 +768,101 @@ public final class DataManager extends DataManagerAbstract {
 		}));
 	}
 
+	/**
+	 * Reads when each player last rated each market, used to enforce the time between ratings without keeping the reviews in memory.
+	 *
+	 * @param callback receives market id -> rater id -> time of the latest rating
+	 */
+	public void getLastRatingTimes(@NonNull final Callback<Map<UUID, Map<UUID, Long>>> callback) {
+		final Map<UUID, Map<UUID, Long>> times = new HashMap<>();
+
+		this.runAsync(() -> this.databaseConnector.connect(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("SELECT market, rater, MAX(posted_on) AS last_rated FROM " + this.getTablePrefix() + "review GROUP BY market, rater")) {
+				final ResultSet resultSet = statement.executeQuery();
+				while (resultSet.next())
+					times.computeIfAbsent(getUUID(resultSet, "market"), market -> new HashMap<>()).put(getUUID(resultSet, "rater"), resultSet.getLong("last_rated"));
+
+				callback.accept(null, times);
+			} catch (Exception e) {
+				resolveCallback(callback, e);
+			}
+		}));
+	}
+
+	/**
+	 * Reads one page of ratings, newest first, keyed on the last rating of the previous page.
+	 *
+	 * @param market   only ratings of this market, or null
+	 * @param user     only ratings given by this player or received by their market, or null
+	 * @param after    the last rating of the previous page, or null for the first page
+	 * @param limit    the page size
+	 * @param callback receives the page, an empty page means there are no more ratings
+	 */
+	public void getRatingsPage(@Nullable final UUID market, @Nullable final UUID user, @Nullable final Rating after, final int limit, @NonNull final Callback<List<Rating>> callback) {
+		final List<Rating> ratings = new ArrayList<>();
+
+		this.runAsync(() -> this.databaseConnector.connect(connection -> {
+			final List<String> conditions = new ArrayList<>();
+			if (market != null) conditions.add("market = ?");
+			if (user != null) conditions.add("(rater = ? OR market IN (SELECT id FROM " + this.getTablePrefix() + "markets WHERE owner = ?))");
+			if (after != null) conditions.add("(posted_on < ? OR (posted_on = ? AND id < ?))");
+
+			final String query = "SELECT * FROM " + this.getTablePrefix() + "review" +
+					(conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+					" ORDER BY posted_on DESC, id DESC LIMIT ?";
+
+			try (PreparedStatement statement = connection.prepareStatement(query)) {
+				int index = 1;
+
+				if (market != null)
+					setUUID(statement, index++, market);
+
+				if (user != null) {
+					setUUID(statement, index++, user);
+					setUUID(statement, index++, user);
+				}
+
+				if (after != null) {
+					statement.setLong(index++, after.getTimeCreated());
+					statement.setLong(index++, after.getTimeCreated());
+					setUUID(statement, index++, after.getId());
+				}
+
+				statement.setInt(index, limit);
+
+				final ResultSet resultSet = statement.executeQuery();
+				while (resultSet.next())
+					ratings.add(extractMarketRating(resultSet));
+
+				callback.accept(null, ratings);
+			} catch (Exception e) {
+				resolveCallback(callback, e);
+			}
+		}));
+	}
+
 	public void createRequest(@NonNull final Request request, final Callback<Request> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
 			final String query = "INSERT INTO " + this.getTablePrefix() + "request (id, owner, owner_name, requested_item, currency, currency_item, price, requested_amount, requested_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "request WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
 
-				fetch.setString(1, request.getId().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				preparedStatement.setString(1, request.getId().toString());
-				preparedStatement.setString(2, request.getOwner().toString());
+				setUUID(preparedStatement, 1, request.getId());
+				setUUID(preparedStatement, 2, request.getOwner());
 				preparedStatement.setString(3, request.getOwnerName());
-				preparedStatement.setString(4, SerializeUtil.encodeItem(request.getRequestItem()));
+				preparedStatement.setBytes(4, this.itemCodec.encode(request.getRequestItem()));
 				preparedStatement.setString(5, request.getCurrency());
-				preparedStatement.setString(6, SerializeUtil.encodeItem(request.getCurrencyItem()));
+				preparedStatement.setBytes(6, this.itemCodec.encode(request.getCurrencyItem()));
 				preparedStatement.setDouble(7, request.getPrice());
 				preparedStatement.setInt(8, request.getRequestedAmount());
 				preparedStatement.setLong(9, request.getTimeCreated());
 
 				preparedStatement.executeUpdate();
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractRequest(res));
-				}
+				if (callback != null)
+					callback.accept(null, request);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -772,8 +891,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	public void deleteRequest(@NonNull final Request request, Callback<Boolean> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
-			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + this.getTablePrefix() + "request WHERE id = ?")) {
-				statement.setString(1, request.getId().toString());
+			try {
+				final PreparedStatement statement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "request WHERE id = ?");
+				setUUID(statement, 1, request.getId());
 
 				int result = statement.executeUpdate();
 				callback.accept(null, result > 0);
@@ -785,27 +905,36 @@ public final class DataManager extends DataManagerAbstract {
 		}));
 	}
 
+	public void deleteRequests(@NonNull final Collection<UUID> requests, Callback<Integer> callback) {
+		deleteByIds("request", requests, callback);
+	}
+
+	public void deleteOffers(@NonNull final Collection<UUID> offers, Callback<Integer> callback) {
+		deleteByIds("offer", offers, callback);
+	}
+
+	public void deleteOfflineItemPayments(@NonNull final Collection<UUID> payments, Callback<Integer> callback) {
+		deleteByIds("offline_payment", payments, callback);
+	}
+
 	public void createTransaction(@NonNull final Transaction transaction, final Callback<Transaction> callback) {
 		this.runAsync(() -> this.databaseConnector.connect(connection -> {
 
 			final String query = "INSERT INTO " + this.getTablePrefix() + "transaction (id, buyer, buyer_name, seller, seller_name, type, item, currency, quantity, price, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-			final String fetchQuery = "SELECT * FROM " + this.getTablePrefix() + "transaction WHERE id = ?";
-
-			try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-				final PreparedStatement fetch = connection.prepareStatement(fetchQuery);
 
-				fetch.setString(1, transaction.getId().toString());
+			try {
+				final PreparedStatement preparedStatement = this.statements.prepare(connection, query);
 
-				preparedStatement.setString(1, transaction.getId().toString());
+				setUUID(preparedStatement, 1, transaction.getId());
 
-				preparedStatement.setString(2, transaction.getBuyer().toString());
+				setUUID(preparedStatement, 2, transaction.getBuyer());
 				preparedStatement.setString(3, transaction.getBuyerName());
 
-				preparedStatement.setString(4, transaction.getSeller().toString());
+				setUUID(preparedStatement, 4, transaction.getSeller());
 				preparedStatement.setString(5, transaction.getSellerName());
 
 				preparedStatement.setString(6, transaction.getType().name());
-				preparedStatement.setString(7, SerializeUtil.encodeItem(transaction.getItem()));
+				preparedStatement.setBytes(7, this.itemCodec.encode(transaction.getItem()));
 
 				preparedStatement.setString(8, transaction.getCurrency());
 				preparedStatement.setInt(9, transaction.getQuantity());
@@ -813,11 +942,8 @@ public final class DataManager extends DataManagerAbstract {
 				preparedStatement.setLong(11, transaction.getTimeCreated());
 				preparedStatement.executeUpdate();
 
-				if (callback != null) {
-					final ResultSet res = fetch.executeQuery();
-					res.next();
-					callback.accept(null, extractTransaction(res));
-				}
+				if (callback != null)
+					callback.accept(null, transaction);
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -844,15 +970,410 @@ public final class DataManager extends DataManagerAbstract {
 		}));
 	}
 
+	public void getTransactionsSince(final long since, @NonNull final Callback<List<Transaction>> callback) {
+		final List<Transaction> transactions = new ArrayList<>();
+
+		this.runAsync(() -> this.databaseConnector.connect(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + this.getTablePrefix() + "transaction WHERE created_at >= ?")) {
+				statement.setLong(1, since);
+
+				final ResultSet resultSet = statement.executeQuery();
+				while (resultSet.next())
+					transactions.add(extractTransaction(resultSet));
+
+				callback.accept(null, transactions);
+			} catch (Exception e) {
+				resolveCallback(callback, e);
+			}
+		}));
+	}
+
+	/**
+	 * Counts every stored transaction per seller and buyer without loading the rows themselves.
+	 *
+	 * @param callback receives seller -> buyer -> number of transactions
+	 */
+	public void getTransactionCounts(@NonNull final Callback<Map<UUID, Map<UUID, Integer>>> callback) {
+		final Map<UUID, Map<UUID, Integer>> counts = new HashMap<>();
+
+		this.runAsync(() -> this.databaseConnector.connect(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("SELECT seller, buyer, COUNT(*) AS total FROM " + this.getTablePrefix() + "transaction GROUP BY seller, buyer")) {
+				final ResultSet resultSet = statement.executeQuery();
+				while (resultSet.next())
+					counts.computeIfAbsent(getUUID(resultSet, "seller"), seller -> new HashMap<>()).put(getUUID(resultSet, "buyer"), resultSet.getInt("total"));
+
+				callback.accept(null, counts);
+			} catch (Exception e) {
+				resolveCallback(callback, e);
+			}
+		}));
+	}
+
+	/**
+	 * Reads one page of a seller's transactions, newest first. Pages are keyed on the last row of the
+	 * previous page rather than an offset, so deep pages cost the same as the first one.
+	 *
+	 * @param seller   the seller
+	 * @param since    only transactions made at or after this time
+	 * @param after    the last transaction of the previous page, or null for the first page
+	 * @param limit    the page size
+	 * @param callback receives the page, an empty page means there are no more transactions
+	 */
+	public void getTransactionsPage(@NonNull final UUID seller, final long since, @Nullable final Transaction after, final int limit, @NonNull final Callback<List<Transaction>> callback) {
+		final List<Transaction> transactions = new ArrayList<>();
+
+		this.runAsync(() -> this.databaseConnector.connect(connection -> {
+			final String query = "SELECT * FROM " + this.getTablePrefix() + "transaction WHERE seller = ? AND created_at >= ?" +
+					(after == null ? "" : " AND (created_at < ? OR (created_at = ? AND id < ?))") +
+					" ORDER BY created_at DESC, id DESC LIMIT ?";
+
+			try (PreparedStatement statement = connection.prepareStatement(query)) {
+				int index = 1;
+				setUUID(statement, index++, seller);
+				statement.setLong(index++, since);
+
+				if (after != null) {
+					statement.setLong(index++, after.getTimeCreated());
+					statement.setLong(index++, after.getTimeCreated());
+					setUUID(statement, index++, after.getId());
+				}
+
+				statement.setInt(index, limit);
+
+				final ResultSet resultSet = statement.executeQuery();
+				while (resultSet.next())
+					transactions.add(extractTransaction(resultSet));
+
+				callback.accept(null, transactions);
+			} catch (Exception e) {
+				resolveCallback(callback, e);
+			}
+		}));
+	}
+
+	/**
+	 * Counts the transactions matching a filter.
+	 *
+	 * @param filter   which transactions to count
+	 * @param callback receives the count
+	 */
+	public void countTransactions(@NonNull final TransactionFilter filter, @NonNull final Callback<Integer> callback) {
+		this.runAsync(() -> this.databaseConnector.connect(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) AS total FROM " + this.getTablePrefix() + "transaction" + transactionFilterClause(filter))) {
+				bindTransactionFilter(statement, filter);
+
+				final ResultSet resultSet = statement.executeQuery();
+				callback.accept(null, resultSet.next() ? resultSet.getInt("total") : 0);
+			} catch (Exception e) {
+				resolveCallback(callback, e);
+			}
+		}));
+	}
+
+	/**
+	 * Reads the transactions matching a filter, oldest first, in chunks that follow the (created_at, id) keyset and hands each one
+	 * to the visitor, so the full history is never held in memory. The connection is only held while a chunk is read and is given
+	 * back before its rows are visited, on sqlite other queries get their turn between chunks. The visitor runs on the database thread.
+	 *
+	 * @param filter   which transactions to read
+	 * @param visitor  receives each transaction, throwing stops the read and fails the callback
+	 * @param callback receives the number of transactions visited
+	 */
+	public void streamTransactions(@NonNull final TransactionFilter filter, @NonNull final RowVisitor<Transaction> visitor, @NonNull final Callback<Integer> callback) {
+		this.runAsync(() -> {
+			int visited = 0;
+			Transaction after = null;
+
+			try {
+				List<Transaction> chunk;
+
+				do {
+					chunk = readTransactionChunk(filter, after);
+
+					for (Transaction transaction : chunk) {
+						visitor.visit(transaction);
+						visited++;
+					}
+
+					if (!chunk.isEmpty()) after = chunk.get(chunk.size() - 1);
+				} while (chunk.size() == STREAM_CHUNK_SIZE);
+
+				callback.accept(null, visited);
+			} catch (Exception e) {
+				resolveCallback(callback, e);
+			}
+		});
+	}
+
+	private List<Transaction> readTransactionChunk(final TransactionFilter filter, @Nullable final Transaction after) throws Exception {
+		final List<Transaction> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+		final Exception[] failure = {null};
+
+		this.databaseConnector.connect(connection -> {
+			final String clause = transactionFilterClause(filter);
+			final String query = "SELECT * FROM " + this.getTablePrefix() + "transaction" + clause +
+					(after == null ? "" : (clause.isEmpty() ? " WHERE " : " AND ") + "(created_at > ? OR (created_at = ? AND id > ?))") +
+					" ORDER BY created_at, id LIMIT " + STREAM_CHUNK_SIZE;
+
+			try (PreparedStatement statement = connection.prepareStatement(query)) {
+				int index = bindTransactionFilter(statement, filter);
+
+				if (after != null) {
+					statement.setLong(index++, after.getTimeCreated());
+					statement.setLong(index++, after.getTimeCreated());
+					setUUID(statement, index, after.getId());
+				}
+
+				final ResultSet resultSet = statement.executeQuery();
+				while (resultSet.next())
+					chunk.add(extractTransaction(resultSet));
+			} catch (Exception e) {
+				failure[0] = e;
+			}
+		});
+
+		if (failure[0] != null) throw failure[0];
+		return chunk;
+	}
+
+	private String transactionFilterClause(final TransactionFilter filter) {
+		final List<String> conditions = new ArrayList<>();
+		if (filter.from() != null) conditions.add("created_at >= ?");
+		if (filter.to() != null) conditions.add("created_at < ?");
+		if (filter.seller() != null) conditions.add("seller = ?");
+		if (filter.buyer() != null) conditions.add("buyer = ?");
+
+		return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+	}
+
+	/**
+	 * @return the index of the next parameter after the filter's
+	 */
+	private int bindTransactionFilter(final PreparedStatement statement, final TransactionFilter filter) throws SQLException {
+		int index = 1;
+		if (filter.from() != null) statement.setLong(index++, filter.from());
+		if (filter.to() != null) statement.setLong(index++, filter.to());
+		if (filter.seller() != null) setUUID(statement, index++, filter.seller());
+		if (filter.buyer() != null) setUUID(statement, index++, filter.buyer());
+		return index;
+	}
+
+	/**
+	 * Writes every pending update of the write behind queue inside a single transaction, one
+	 * JDBC batch per table. This runs on the calling thread, it is never scheduled.
+	 *
+	 * @param batch the coalesced updates to write
+	 * @return whether the transaction was committed, and which entities had no stored row to update
+	 */
+	WriteBehindQueue.BatchResult updateBatch(@NonNull final WriteBehindQueue.Batch batch) {
+		final Set<Object> unmatched = Collections.newSetFromMap(new IdentityHashMap<>());
+		final boolean[] committed = {false};
+
+		this.databaseConnector.connect(connection -> {
+			try {
+				final PreparedStatement marketStatement = this.statements.prepare(connection, marketUpdateQuery());
+				final PreparedStatement itemStatement = this.statements.prepare(connection, marketItemUpdateQuery());
+				final PreparedStatement bankStatement = this.statements.prepare(connection, bankEntryUpdateQuery());
+				final PreparedStatement userStatement = this.statements.prepare(connection, marketUserUpdateQuery());
+
+				for (AbstractMarket market : batch.markets()) {
+					bindMarketUpdate(marketStatement, market);
+					marketStatement.addBatch();
+				}
+
+				for (MarketItem marketItem : batch.marketItems()) {
+					bindMarketItemUpdate(itemStatement, marketItem);
+					itemStatement.addBatch();
+				}
+
+				for (BankEntry entry : batch.bankEntries()) {
+					bindBankEntryUpdate(bankStatement, entry);
+					bankStatement.addBatch();
+				}
+
+				for (MarketUser marketUser : batch.marketUsers()) {
+					bindMarketUserUpdate(userStatement, marketUser);
+					userStatement.addBatch();
+				}
+
+				inTransaction(connection, () -> {
+					if (!batch.markets().isEmpty()) {
+						collectUnmatched(marketStatement.executeBatch(), batch.markets(), unmatched);
+						writeBannedUsers(connection, batch.markets());
+					}
+
+					if (!batch.marketItems().isEmpty()) collectUnmatched(itemStatement.executeBatch(), batch.marketItems(), unmatched);
+					if (!batch.bankEntries().isEmpty()) collectUnmatched(bankStatement.executeBatch(), batch.bankEntries(), unmatched);
+					if (!batch.marketUsers().isEmpty()) collectUnmatched(userStatement.executeBatch(), batch.marketUsers(), unmatched);
+				});
+
+				committed[0] = true;
+			} catch (Exception e) {
+				e.printStackTrace();
+				unmatched.clear();
+			}
+		});
+
+		return new WriteBehindQueue.BatchResult(committed[0], unmatched);
+	}
+
+	/**
+	 * An update count of 0 means the row isn't stored (yet), usually because the entity was synced before its insert ran.
+	 */
+	private static void collectUnmatched(final int[] counts, final List<?> entities, final Set<Object> unmatched) {
+		for (int i = 0; i < counts.length && i < entities.size(); i++)
+			if (counts[i] == 0)
+				unmatched.add(entities.get(i));
+	}
+
+	private void readBannedUsers(@NonNull final Connection connection, @NonNull final Map<UUID, AbstractMarket> markets) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("SELECT market, banned_user FROM " + this.getTablePrefix() + "market_banned_user")) {
+			final ResultSet resultSet = statement.executeQuery();
+			while (resultSet.next()) {
+				final AbstractMarket market = markets.get(getUUID(resultSet, "market"));
+				if (market != null)
+					market.getBannedUsers().add(getUUID(resultSet, "banned_user"));
+			}
+		}
+	}
+
+	/**
+	 * Runs several writes as one transaction. The connection is held by the calling callback alone, so an open transaction can only
+	 * be one this same callback started further up, the work then joins it and the outer call commits or rolls back.
+	 */
+	private void inTransaction(@NonNull final Connection connection, @NonNull final SqlWork work) throws SQLException {
+		final boolean autoCommit = connection.getAutoCommit();
+		if (!autoCommit) {
+			work.run();
+			return;
+		}
+
+		connection.setAutoCommit(false);
+		try {
+			work.run();
+			connection.commit();
+		} catch (SQLException | RuntimeException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	/**
+	 * Deletes many rows of a table by id as a single batch in one transaction, the callback receives how many rows were deleted.
+	 */
+	private void deleteByIds(@NonNull final String table, @NonNull final Collection<UUID> ids, Callback<Integer> callback) {
+		this.runAsync(() -> this.databaseConnector.connect(connection -> {
+			try {
+				final PreparedStatement statement = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + table + " WHERE id = ?");
+				final int[] deleted = {0};
+
+				inTransaction(connection, () -> {
+					for (UUID id : ids) {
+						setUUID(statement, 1, id);
+						statement.addBatch();
+					}
+
+					for (int result : statement.executeBatch())
+						if (result > 0 || result == Statement.SUCCESS_NO_INFO)
+							deleted[0]++;
+				});
+
+				callback.accept(null, deleted[0]);
+
+			} catch (Exception e) {
+				resolveCallback(callback, e);
+			}
+		}));
+	}
+
+	private void writeBannedUsers(@NonNull final Connection connection, @NonNull final Collection<AbstractMarket> markets) throws SQLException {
+		final PreparedStatement delete = this.statements.prepare(connection, "DELETE FROM " + this.getTablePrefix() + "market_banned_user WHERE market = ?");
+		final PreparedStatement insert = this.statements.prepare(connection, SqlDialect.of(connection).insertIgnore(this.getTablePrefix() + "market_banned_user", "market", "banned_user"));
+
+		boolean hasBanned = false;
+
+		for (AbstractMarket market : markets) {
+			setUUID(delete, 1, market.getId());
+			delete.addBatch();
+
+			for (UUID bannedUser : List.copyOf(market.getBannedUsers())) {
+				setUUID(insert, 1, market.getId());
+				setUUID(insert, 2, bannedUser);
+				insert.addBatch();
+				hasBanned = true;
+			}
+		}
+
+		delete.executeBatch();
+		if (hasBanned) insert.executeBatch();
+	}
+
+	private String marketUpdateQuery() {
+		return "UPDATE " + this.getTablePrefix() + "markets SET display_name = ?, description = ?, owner_name = ?, updated_at = ?, open = ?, close_when_out_of_stock = ?, home_layout = ?, category_layout = ? WHERE id = ?";
+	}
+
+	private String marketItemUpdateQuery() {
+		return "UPDATE " + this.getTablePrefix() + "category_item SET currency = ?, price = ?, stock = ?, price_is_for_all = ?, currency_item = ?, accepting_offers = ?, infinite = ? WHERE id = ?";
+	}
+
+	private String bankEntryUpdateQuery() {
+		return "UPDATE " + this.getTablePrefix() + "bank_entry SET quantity = ? WHERE id = ?";
+	}
+
+	private String marketUserUpdateQuery() {
+		return "UPDATE " + this.getTablePrefix() + "user SET last_known_name = ?, bio = ?, preferred_language = ?, currency_format_country = ?, last_seen_at = ? WHERE id = ?";
+	}
+
+	private void bindMarketUpdate(@NonNull final PreparedStatement preparedStatement, @NonNull final AbstractMarket market) throws SQLException {
+		preparedStatement.setString(1, market.getDisplayName());
+		preparedStatement.setString(2, String.join(";;;", market.getDescription()));
+		preparedStatement.setString(3, market.getOwnerName());
+		preparedStatement.setLong(4, market.getLastUpdated());
+
+		preparedStatement.setBoolean(5, market.isOpen());
+		preparedStatement.setBoolean(6, market.isCloseWhenOutOfStock());
+
+		preparedStatement.setString(7, market.getHomeLayout().getJSONString());
+		preparedStatement.setString(8, market.getCategoryLayout().getJSONString());
+		setUUID(preparedStatement, 9, market.getId());
+	}
+
+	private void bindMarketItemUpdate(@NonNull final PreparedStatement preparedStatement, @NonNull final MarketItem marketItem) throws SQLException {
+		preparedStatement.setString(1, marketItem.getCurrency());
+		preparedStatement.setDouble(2, marketItem.getPrice());
+		preparedStatement.setInt(3, marketItem.getStock());
+		preparedStatement.setBoolean(4, marketItem.isPriceForAll());
+		preparedStatement.setBytes(5, this.itemCodec.encode(marketItem.getCurrencyItem()));
+		preparedStatement.setBoolean(6, marketItem.isAcceptingOffers());
+		preparedStatement.setBoolean(7, marketItem.isInfinite());
+		setUUID(preparedStatement, 8, marketItem.getId());
+	}
+
+	private void bindBankEntryUpdate(@NonNull final PreparedStatement preparedStatement, @NonNull final BankEntry entry) throws SQLException {
+		preparedStatement.setInt(1, entry.getQuantity());
+		setUUID(preparedStatement, 2, entry.getId());
+	}
+
+	private void bindMarketUserUpdate(@NonNull final PreparedStatement preparedStatement, @NonNull final MarketUser marketUser) throws SQLException {
+		preparedStatement.setString(1, marketUser.getLastKnownName());
+		preparedStatement.setString(2, String.join(";;;", marketUser.getBio()));
+		preparedStatement.setString(3, marketUser.getPreferredLanguage());
+		preparedStatement.setString(4, marketUser.getCurrencyFormatCountry());
+		preparedStatement.setLong(5, marketUser.getLastSeenAt());
+		setUUID(preparedStatement, 6, marketUser.getUUID());
+	}
+
 	private Transaction extractTransaction(@NonNull final ResultSet resultSet) throws SQLException {
 		return new MarketTransaction(
-				UUID.fromString(resultSet.getString("id")),
-				UUID.fromString(resultSet.getString("buyer")),
+				getUUID(resultSet, "id"),
+				getUUID(resultSet, "buyer"),
 				resultSet.getString("buyer_name"),
-				UUID.fromString(resultSet.getString("seller")),
+				getUUID(resultSet, "seller"),
 				resultSet.getString("seller_name"),
 				TransactionType.valueOf(resultSet.getString("type")),
-				SerializeUtil.decodeItem(resultSet.getString("item")),
+				this.itemCodec.decode(resultSet.getBytes("item")),
 				resultSet.getString("currency"),
 				resultSet.getInt("quantity"),
 				resultSet.getDouble("price"),
@@ -862,12 +1383,12 @@ public final class DataManager extends DataManagerAbstract {
 
 	private Request extractRequest(@NonNull final ResultSet resultSet) throws SQLException {
 		return new MarketRequest(
-				UUID.fromString(resultSet.getString("id")),
-				UUID.fromString(resultSet.getString("owner")),
+				getUUID(resultSet, "id"),
+				getUUID(resultSet, "owner"),
 				resultSet.getString("owner_name"),
-				SerializeUtil.decodeItem(resultSet.getString("requested_item")),
+				this.itemCodec.decode(resultSet.getBytes("requested_item")),
 				resultSet.getString("currency"),
-				SerializeUtil.decodeItem(resultSet.getString("currency_item")),
+				this.itemCodec.decodeShared(resultSet.getBytes("currency_item")),
 				resultSet.getDouble("price"),
 				resultSet.getInt("requested_amount"),
 				resultSet.getLong("requested_at")
@@ -876,9 +1397,9 @@ public final class DataManager extends DataManagerAbstract {
 
 	private Rating extractMarketRating(@NonNull final ResultSet resultSet) throws SQLException {
 		return new MarketRating(
-				UUID.fromString(resultSet.getString("id")),
-				UUID.fromString(resultSet.getString("market")),
-				UUID.fromString(resultSet.getString("rater")),
+				getUUID(resultSet, "id"),
+				getUUID(resultSet, "market"),
+				getUUID(resultSet, "rater"),
 				resultSet.getString("rater_name"),
 				resultSet.getString("feedback"),
 				resultSet.getInt("stars"),
@@ -888,56 +1409,43 @@ public final class DataManager extends DataManagerAbstract {
 
 	private BankEntry extractBankEntry(@NonNull final ResultSet resultSet) throws SQLException {
 		return new MarketBankEntry(
-				UUID.fromString(resultSet.getString("id")),
-				UUID.fromString(resultSet.getString("owner")),
-				SerializeUtil.decodeItem(resultSet.getString("item")),
+				getUUID(resultSet, "id"),
+				getUUID(resultSet, "owner"),
+				this.itemCodec.decode(resultSet.getBytes("item")),
 				resultSet.getInt("quantity")
 		);
 	}
 
 	private Offer extractOffer(@NonNull final ResultSet resultSet) throws SQLException {
 		return new MarketOffer(
-				UUID.fromString(resultSet.getString("id")),
-				UUID.fromString(resultSet.getString("sender")),
+				getUUID(resultSet, "id"),
+				getUUID(resultSet, "sender"),
 				resultSet.getString("sender_name"),
-				UUID.fromString(resultSet.getString("offer_to")),
-				UUID.fromString(resultSet.getString("market_item")),
+				getUUID(resultSet, "offer_to"),
+				getUUID(resultSet, "market_item"),
 				resultSet.getInt("request_amount"),
 				resultSet.getString("currency"),
-				SerializeUtil.decodeItem(resultSet.getString("currency_item")),
+				this.itemCodec.decodeShared(resultSet.getBytes("currency_item")),
 				resultSet.getDouble("offered_amount"),
 				resultSet.getLong("offered_at")
 		);
 	}
 
 	private AbstractMarket extractMarket(@NonNull final ResultSet resultSet) throws SQLException {
-		final ArrayList<UUID> bannedUsers = new ArrayList<>();
 		Layout homeLayout, categoryLayout;
 
-		if (resultSet.getString("banned_users") != null) {
-			final List<String> possibleUUIDS = Arrays.stream(resultSet.getString("banned_users").split(",")).toList();
-
-			for (String id : possibleUUIDS) {
-				try {
-					bannedUsers.add(UUID.fromString(id));
-				} catch (IllegalArgumentException ignored) {
-					continue;
-				}
-			}
-		}
-
 		homeLayout = resultSet.getString("home_layout") != null ? MarketLayout.decodeJSON(resultSet.getString("home_layout")) : new HomeLayout();
 		categoryLayout = resultSet.getString("category_layout") != null ? MarketLayout.decodeJSON(resultSet.getString("category_layout")) : new HomeLayout();
 
 		return new PlayerMarket(
-				UUID.fromString(resultSet.getString("id")),
-				UUID.fromString(resultSet.getString("owner")),
+				getUUID(resultSet, "id"),
+				getUUID(resultSet, "owner"),
 				resultSet.getString("owner_name"),
 				resultSet.getString("display_name"),
 				new ArrayList<>(List.of(resultSet.getString("description").split(";;;"))),
 				new ArrayList<>(),
+				new RatingSummary(),
 				new ArrayList<>(),
-				bannedUsers,
 				resultSet.getBoolean("open"),
 				resultSet.getBoolean("close_when_out_of_stock"),
 				homeLayout,
@@ -949,8 +1457,8 @@ public final class DataManager extends DataManagerAbstract {
 
 	private Category extractCategory(@NonNull final ResultSet resultSet) throws SQLException {
 		return new MarketCategory(
-				UUID.fromString(resultSet.getString("owning_market")),
-				UUID.fromString(resultSet.getString("id")),
+				getUUID(resultSet, "owning_market"),
+				getUUID(resultSet, "id"),
 				CompMaterial.matchCompMaterial(resultSet.getString("icon")).orElse(CompMaterial.CHEST).parseItem(),
 				resultSet.getString("name"),
 				resultSet.getString("display_name"),
@@ -963,11 +1471,11 @@ public final class DataManager extends DataManagerAbstract {
 
 	private MarketItem extractMarketItem(@NonNull final ResultSet resultSet) throws SQLException {
 		return new CategoryItem(
-				UUID.fromString(resultSet.getString("id")),
-				UUID.fromString(resultSet.getString("owning_category")),
-				SerializeUtil.decodeItem(resultSet.getString("item")),
+				getUUID(resultSet, "id"),
+				getUUID(resultSet, "owning_category"),
+				this.itemCodec.decode(resultSet.getBytes("item")),
 				resultSet.getString("currency"),
-				SerializeUtil.decodeItem(resultSet.getString("currency_item")),
+				this.itemCodec.decodeShared(resultSet.getBytes("currency_item")),
 				resultSet.getDouble("price"),
 				resultSet.getInt("stock"),
 				resultSet.getBoolean("price_is_for_all"),
@@ -978,7 +1486,7 @@ public final class DataManager extends DataManagerAbstract {
 
 	private MarketUser extractMarketUser(@NonNull final ResultSet resultSet) throws SQLException {
 		return new MarketPlayer(
-				UUID.fromString(resultSet.getString("id")),
+				getUUID(resultSet, "id"),
 				null,
 				resultSet.getString("last_known_name"),
 				new ArrayList<>(List.of(resultSet.getString("bio").split(";;;"))),
@@ -991,15 +1499,133 @@ public final class DataManager extends DataManagerAbstract {
 
 	private Payment extractOfflineItemPayment(@NonNull final ResultSet resultSet) throws SQLException {
 		return new OfflinePayment(
-				UUID.fromString(resultSet.getString("id")),
-				UUID.fromString(resultSet.getString("payment_for")),
-				SerializeUtil.decodeItem(resultSet.getString("currency")),
+				getUUID(resultSet, "id"),
+				getUUID(resultSet, "payment_for"),
+				this.itemCodec.decode(resultSet.getBytes("currency")),
 				resultSet.getDouble("amount"),
 				resultSet.getString("reason"),
 				resultSet.getLong("received_at")
 		);
 	}
 
+	/**
+	 * Applies the sqlite performance settings, does nothing on other backends. Runs on the calling thread.
+	 *
+	 * @param wal      true to use write ahead logging with synchronous=NORMAL
+	 * @param mmapSize in megabytes, how much of the database file to memory map
+	 */
+	public void applySQLiteTuning(final boolean wal, final int mmapSize) {
+		this.databaseConnector.connect(connection -> {
+			if (SqlDialect.of(connection) != SqlDialect.SQLITE) return;
+
+			SQLiteTuning.apply(connection, wal, mmapSize);
+			Common.log("&aUsing the &e" + (wal ? "write ahead log" : "rollback journal") + " &afor the sqlite database");
+		});
+	}
+
+	/**
+	 * Brings every stored id into the requested format, text (36 characters) or compact (16 bytes).
+	 * The current format is kept in the storage_meta table so this only does work after the setting changes.
+	 * Runs blocking, everything is converted in one transaction so a failure leaves the old format in place.
+	 *
+	 * @param compact whether ids should be stored as 16 bytes
+	 */
+	public void applyUUIDStorage(final boolean compact) {
+		this.databaseConnector.connect(connection -> {
+			// the conversion relies on sqlite's dynamic typing, other backends keep their ids as text
+			if (SqlDialect.of(connection) != SqlDialect.SQLITE) {
+				if (compact)
+					Common.log("&cCompact uuids are only supported by the SQLITE backend, ids are kept as text");
+				return;
+			}
+
+			final String wanted = compact ? "compact" : "text";
+			String current = "text";
+
+			try (PreparedStatement statement = connection.prepareStatement("SELECT meta_value FROM " + this.getTablePrefix() + "storage_meta WHERE meta_key = 'uuid_format'")) {
+				final ResultSet resultSet = statement.executeQuery();
+				if (resultSet.next()) current = resultSet.getString("meta_value");
+			}
+
+			if (current.equals(wanted)) {
+				this.compactUUIDs = compact;
+				return;
+			}
+
+			final boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+
+			try {
+				int converted = 0;
+				for (String[] table : UUID_COLUMNS)
+					for (int i = 1; i < table.length; i++)
+						converted += convertUUIDColumn(connection, table[0], table[i], compact);
+
+				try (PreparedStatement statement = connection.prepareStatement(SqlDialect.of(connection).upsert(this.getTablePrefix() + "storage_meta", new String[]{"meta_key"}, "meta_value"))) {
+					statement.setString(1, "uuid_format");
+					statement.setString(2, wanted);
+					statement.executeUpdate();
+				}
+
+				connection.commit();
+				this.compactUUIDs = compact;
+				Common.log("&aConverted &e" + converted + " &astored ids to the &e" + wanted + " &aformat");
+			} catch (Exception e) {
+				connection.rollback();
+				this.compactUUIDs = current.equals("compact");
+				Common.log("&cCould not convert stored ids to the " + wanted + " format, keeping them as " + current);
+				e.printStackTrace();
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		});
+	}
+
+	private int convertUUIDColumn(@NonNull final Connection connection, @NonNull final String table, @NonNull final String column, final boolean compact) throws SQLException {
+		final String tableName = this.getTablePrefix() + table;
+		int converted = 0;
+
+		try (PreparedStatement select = connection.prepareStatement("SELECT rowid, " + column + " FROM " + tableName + " WHERE typeof(" + column + ") = ? LIMIT " + UUID_CONVERT_CHUNK);
+			 PreparedStatement update = connection.prepareStatement("UPDATE " + tableName + " SET " + column + " = ? WHERE rowid = ?")) {
+
+			select.setString(1, compact ? "text" : "blob");
+
+			int chunk;
+			do {
+				chunk = 0;
+				final ResultSet resultSet = select.executeQuery();
+
+				while (resultSet.next()) {
+					final UUID uuid = getUUID(resultSet, column);
+
+					if (compact) update.setBytes(1, UUIDHelper.compress(uuid));
+					else update.setString(1, uuid.toString());
+
+					update.setLong(2, resultSet.getLong("rowid"));
+					update.addBatch();
+					chunk++;
+				}
+
+				if (chunk > 0) update.executeBatch();
+				converted += chunk;
+			} while (chunk == UUID_CONVERT_CHUNK);
+		}
+
+		return converted;
+	}
+
+	private void setUUID(@NonNull final PreparedStatement statement, final int index, @NonNull final UUID uuid) throws SQLException {
+		if (this.compactUUIDs) statement.setBytes(index, UUIDHelper.compress(uuid));
+		else statement.setString(index, uuid.toString());
+	}
+
+	private UUID getUUID(@NonNull final ResultSet resultSet, @NonNull final String column) throws SQLException {
+		final Object value = resultSet.getObject(column);
+		if (value instanceof byte[] bytes) return UUIDHelper.unCompress(bytes);
+
+		return UUID.fromString(String.valueOf(value));
+	}
+
 //	final String query = "INSERT INTO " + this.getTablePrefix() + "user (id, last_known_name, bio, preferred_language, currency_format_country, last_seen_at) VALUES (?, ?, ?, ?, ?, ?)";
 
 	private void resolveUpdateCallback(@Nullable UpdateCallback callback, @Nullable Exception ex) {
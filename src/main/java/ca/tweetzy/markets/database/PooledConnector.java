@@ -0,0 +1,181 @@
+package ca.tweetzy.markets.database;
+
+import ca.tweetzy.flight.database.DatabaseConnector;
+import ca.tweetzy.flight.utils.Common;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of JDBC connections for backends that allow more than one writer. Connections are opened on demand up to
+ * the pool size, handed back after every callback and checked before they are reused, callers wait when all of them are in use.
+ */
+public final class PooledConnector implements DatabaseConnector {
+
+	private static final int VALIDATION_TIMEOUT = 2;
+
+	private final String url;
+	private final Properties properties = new Properties();
+	private final Driver driver;
+	private final long acquireTimeout;
+
+	private final BlockingQueue<Connection> idle;
+	private final Semaphore permits;
+	private final List<Connection> opened = new ArrayList<>();
+
+	private volatile boolean initialized;
+
+	/**
+	 * @param driverClass    the driver to load, or null to look it up through the driver manager
+	 * @param url            the jdbc url
+	 * @param username       the user to connect as, or null
+	 * @param password       the password of the user, or null
+	 * @param poolSize       the most connections open at once
+	 * @param acquireTimeout in seconds, how long to wait for a free connection
+	 */
+	public PooledConnector(@Nullable final String driverClass, @NonNull final String url, @Nullable final String username, @Nullable final String password, final int poolSize, final int acquireTimeout) {
+		this.url = url;
+		this.acquireTimeout = Math.max(1, acquireTimeout);
+		this.idle = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+		this.permits = new Semaphore(Math.max(1, poolSize), true);
+
+		if (username != null && !username.isEmpty()) this.properties.setProperty("user", username);
+		if (password != null && !password.isEmpty()) this.properties.setProperty("password", password);
+
+		Driver loaded = null;
+		if (driverClass != null && !driverClass.isEmpty()) {
+			try {
+				// loaded through the plugin class loader, the driver manager does not see drivers shaded into plugins
+				loaded = (Driver) Class.forName(driverClass, true, getClass().getClassLoader()).getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException e) {
+				Common.log("&cCould not load the database driver&F: &e" + driverClass);
+			}
+		}
+
+		this.driver = loaded;
+
+		try {
+			// open the first connection right away so a bad url or credentials show up on startup
+			final Connection connection = acquire();
+			this.initialized = true;
+			release(connection, true);
+		} catch (SQLException e) {
+			Common.log("&cCould not connect to the database at&F: &e" + url + " &c(" + e.getMessage() + ")");
+		}
+	}
+
+	@Override
+	public boolean isInitialized() {
+		return this.initialized;
+	}
+
+	@Override
+	public void closeConnection() {
+		this.initialized = false;
+
+		synchronized (this.opened) {
+			for (Connection connection : this.opened)
+				closeQuietly(connection);
+
+			this.opened.clear();
+		}
+
+		this.idle.clear();
+	}
+
+	@Override
+	public void connect(ConnectionCallback callback) {
+		final Connection connection;
+		try {
+			connection = acquire();
+		} catch (SQLException e) {
+			Common.log("&cCould not get a database connection&F: &e" + e.getMessage());
+			return;
+		}
+
+		boolean reusable = true;
+		try {
+			callback.accept(connection);
+		} catch (SQLException e) {
+			Common.log("&cA database operation failed&F: &e" + e.getMessage());
+		} finally {
+			try {
+				// a callback that fails mid transaction must not leak it into the next one
+				if (!connection.getAutoCommit()) {
+					connection.rollback();
+					connection.setAutoCommit(true);
+				}
+			} catch (SQLException e) {
+				reusable = false;
+			}
+
+			release(connection, reusable);
+		}
+	}
+
+	private Connection acquire() throws SQLException {
+		try {
+			if (!this.permits.tryAcquire(this.acquireTimeout, TimeUnit.SECONDS))
+				throw new SQLException("Timed out waiting for a free connection");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a connection", e);
+		}
+
+		try {
+			Connection connection;
+			while ((connection = this.idle.poll()) != null) {
+				if (connection.isValid(VALIDATION_TIMEOUT))
+					return connection;
+
+				forget(connection);
+			}
+
+			connection = this.driver != null ? this.driver.connect(this.url, this.properties) : DriverManager.getConnection(this.url, this.properties);
+			if (connection == null)
+				throw new SQLException("The driver does not accept the url " + this.url);
+
+			synchronized (this.opened) {
+				this.opened.add(connection);
+			}
+
+			return connection;
+		} catch (SQLException e) {
+			this.permits.release();
+			throw e;
+		}
+	}
+
+	private void release(final Connection connection, final boolean reusable) {
+		if (!reusable || !this.initialized || !this.idle.offer(connection))
+			forget(connection);
+
+		this.permits.release();
+	}
+
+	private void forget(final Connection connection) {
+		synchronized (this.opened) {
+			this.opened.remove(connection);
+		}
+
+		closeQuietly(connection);
+	}
+
+	private void closeQuietly(final Connection connection) {
+		try {
+			connection.close();
+		} catch (SQLException ignored) {
+		}
+	}
+}
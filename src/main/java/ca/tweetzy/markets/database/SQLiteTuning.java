@@ -0,0 +1,30 @@
+package ca.tweetzy.markets.database;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Connection settings for the sqlite backend. With write ahead logging readers don't block the writer and a commit
+ * only has to append to the log, which makes synchronous=NORMAL safe against corruption on a crash.
+ */
+@UtilityClass
+public final class SQLiteTuning {
+
+	/**
+	 * @param connection a sqlite connection
+	 * @param wal        true to use write ahead logging, false to go back to sqlite's rollback journal defaults
+	 * @param mmapSize   in megabytes, how much of the database file to memory map, 0 to turn it off
+	 */
+	public void apply(@NonNull final Connection connection, final boolean wal, final int mmapSize) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			// journal_mode returns the resulting mode as a row, so it has to be run as a query
+			statement.executeQuery("PRAGMA journal_mode=" + (wal ? "WAL" : "DELETE")).close();
+			statement.execute("PRAGMA synchronous=" + (wal ? "NORMAL" : "FULL"));
+			statement.executeQuery("PRAGMA mmap_size=" + Math.max(0, mmapSize) * 1024L * 1024L).close();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package ca.tweetzy.markets.database;
+
+import ca.tweetzy.flight.database.DatabaseConnector;
+import lombok.NonNull;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets one caller at a time use a connector that hands every caller the same connection, as the sqlite connector does.
+ * A callback has the connection to itself from start to end, so its transaction, its bound parameters and its cached
+ * statements are never seen by another thread. The lock is reentrant, a callback that connects again on its own thread keeps going.
+ */
+public final class SerializedConnector implements DatabaseConnector {
+
+	private final DatabaseConnector connector;
+	private final ReentrantLock lock = new ReentrantLock(true);
+
+	public SerializedConnector(@NonNull final DatabaseConnector connector) {
+		this.connector = connector;
+	}
+
+	@Override
+	public boolean isInitialized() {
+		return this.connector.isInitialized();
+	}
+
+	@Override
+	public void closeConnection() {
+		this.lock.lock();
+		try {
+			this.connector.closeConnection();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void connect(ConnectionCallback callback) {
+		this.lock.lock();
+		try {
+			this.connector.connect(connection -> {
+				final boolean outermost = this.lock.getHoldCount() == 1;
+
+				try {
+					callback.accept(connection);
+				} finally {
+					// a callback that fails mid transaction must not leave it open for the next caller
+					if (outermost && !connection.getAutoCommit()) {
+						connection.rollback();
+						connection.setAutoCommit(true);
+					}
+				}
+			});
+		} finally {
+			this.lock.unlock();
+		}
+	}
+}
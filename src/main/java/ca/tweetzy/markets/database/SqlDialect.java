@@ -0,0 +1,126 @@
+package ca.tweetzy.markets.database;
+
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The bits of SQL that differ between the supported backends. Embedded H2 runs in MySQL mode, so it shares the MySQL dialect.
+ */
+public enum SqlDialect {
+
+	SQLITE {
+		@Override
+		public String insertIgnore(@NonNull final String table, @NonNull final String... columns) {
+			return "INSERT OR IGNORE INTO " + table + columnsAndValues(columns);
+		}
+
+		@Override
+		public String upsert(@NonNull final String table, @NonNull final String[] keys, @NonNull final String... columns) {
+			return "INSERT OR REPLACE INTO " + table + columnsAndValues(concat(keys, columns));
+		}
+
+		@Override
+		public String binaryType() {
+			// sqlite is dynamically typed, binary payloads are stored in the existing text columns
+			return "TEXT";
+		}
+
+		@Override
+		public String booleanLiteral(final boolean value) {
+			// sqlite has no boolean type, the other migrations already store them as 0 / 1
+			return value ? "1" : "0";
+		}
+
+		@Override
+		public void createIndex(@NonNull final Connection connection, @NonNull final String name, @NonNull final String table, @NonNull final String... columns) throws SQLException {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("CREATE INDEX IF NOT EXISTS " + name + " ON " + table + " (" + String.join(", ", columns) + ")");
+			}
+		}
+	},
+
+	MYSQL {
+		@Override
+		public String insertIgnore(@NonNull final String table, @NonNull final String... columns) {
+			return "INSERT IGNORE INTO " + table + columnsAndValues(columns);
+		}
+
+		@Override
+		public String upsert(@NonNull final String table, @NonNull final String[] keys, @NonNull final String... columns) {
+			return "INSERT INTO " + table + columnsAndValues(concat(keys, columns)) + " ON DUPLICATE KEY UPDATE " +
+					Arrays.stream(columns).map(column -> column + " = VALUES(" + column + ")").collect(Collectors.joining(", "));
+		}
+
+		@Override
+		public String binaryType() {
+			return "LONGBLOB";
+		}
+
+		@Override
+		public String booleanLiteral(final boolean value) {
+			return value ? "TRUE" : "FALSE";
+		}
+
+		@Override
+		public void createIndex(@NonNull final Connection connection, @NonNull final String name, @NonNull final String table, @NonNull final String... columns) throws SQLException {
+			// mysql has no CREATE INDEX IF NOT EXISTS, look the index up in the table metadata instead
+			final DatabaseMetaData metaData = connection.getMetaData();
+			final String storedTable = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : metaData.storesLowerCaseIdentifiers() ? table.toLowerCase() : table;
+
+			try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, storedTable, false, true)) {
+				while (indexes.next())
+					if (name.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) return;
+			}
+
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ")");
+			}
+		}
+	};
+
+	/**
+	 * @return an insert that skips rows whose key already exists
+	 */
+	public abstract String insertIgnore(@NonNull String table, @NonNull String... columns);
+
+	/**
+	 * @return an insert that replaces the values of a row whose key already exists, the key columns come first in the parameters
+	 */
+	public abstract String upsert(@NonNull String table, @NonNull String[] keys, @NonNull String... columns);
+
+	/**
+	 * @return the column type for encoded items and other binary payloads
+	 */
+	public abstract String binaryType();
+
+	/**
+	 * @return the literal to use for a boolean column default
+	 */
+	public abstract String booleanLiteral(boolean value);
+
+	/**
+	 * Creates an index on the table unless one with the same name is already there.
+	 */
+	public abstract void createIndex(@NonNull Connection connection, @NonNull String name, @NonNull String table, @NonNull String... columns) throws SQLException;
+
+	public static SqlDialect of(@NonNull final Connection connection) throws SQLException {
+		return connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("SQLite") ? SQLITE : MYSQL;
+	}
+
+	private static String columnsAndValues(final String[] columns) {
+		return " (" + String.join(", ", columns) + ") VALUES (" + Arrays.stream(columns).map(column -> "?").collect(Collectors.joining(", ")) + ")";
+	}
+
+	private static String[] concat(final String[] first, final String[] second) {
+		final String[] joined = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, joined, first.length, second.length);
+		return joined;
+	}
+}
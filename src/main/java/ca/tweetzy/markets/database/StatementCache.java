@@ -0,0 +1,84 @@
+package ca.tweetzy.markets.database;
+
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Prepared statements kept per connection and reused for the fixed write queries, so sqlite does not compile the same sql on every write.
+ * A statement must only be used while its connection is held exclusively: the shared sqlite connection goes through a
+ * {@link SerializedConnector}, pooled connections are handed to one caller at a time. Statements are owned by the cache, callers must not close them.
+ * Queries that return rows are not cached, an unclosed result set would keep its read open.
+ */
+public final class StatementCache {
+
+	private static final int MAX_PER_CONNECTION = 64;
+
+	private final Map<Connection, Map<String, PreparedStatement>> statements = new IdentityHashMap<>();
+
+	/**
+	 * @return a prepared statement for the sql on this connection with its parameters and batch cleared
+	 */
+	public synchronized PreparedStatement prepare(@NonNull final Connection connection, @NonNull final String sql) throws SQLException {
+		Map<String, PreparedStatement> cached = this.statements.get(connection);
+		if (cached == null) {
+			// a new connection usually means an old one was closed, drop whatever it left behind
+			purgeClosed();
+			cached = new LinkedHashMap<>(16, 0.75F, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+					if (size() <= MAX_PER_CONNECTION) return false;
+
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+			};
+			this.statements.put(connection, cached);
+		}
+
+		PreparedStatement statement = cached.get(sql);
+		if (statement == null || statement.isClosed()) {
+			statement = connection.prepareStatement(sql);
+			cached.put(sql, statement);
+			return statement;
+		}
+
+		statement.clearParameters();
+		statement.clearBatch();
+		return statement;
+	}
+
+	public synchronized void clear() {
+		this.statements.values().forEach(cached -> cached.values().forEach(this::closeQuietly));
+		this.statements.clear();
+	}
+
+	private void purgeClosed() {
+		final Iterator<Map.Entry<Connection, Map<String, PreparedStatement>>> iterator = this.statements.entrySet().iterator();
+		while (iterator.hasNext()) {
+			final Map.Entry<Connection, Map<String, PreparedStatement>> entry = iterator.next();
+
+			boolean closed;
+			try {
+				closed = entry.getKey().isClosed();
+			} catch (SQLException e) {
+				closed = true;
+			}
+
+			if (closed) {
+				entry.getValue().values().forEach(this::closeQuietly);
+				iterator.remove();
+			}
+		}
+	}
+
+	private void closeQuietly(final PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException ignored) {
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package ca.tweetzy.markets.database;
+
+import ca.tweetzy.flight.database.DatabaseConnector;
+import ca.tweetzy.flight.database.SQLiteConnector;
+import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.markets.settings.Settings;
+import lombok.NonNull;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+
+/**
+ * Where the plugin stores its data, picked with the database backend setting.
+ */
+public enum StorageBackend {
+
+	/**
+	 * A single sqlite file, one writer at a time. Every caller shares the one connection, so they take turns using it.
+	 */
+	SQLITE {
+		@Override
+		public DatabaseConnector createConnector(@NonNull final Plugin plugin) {
+			return new SerializedConnector(new SQLiteConnector(plugin));
+		}
+	},
+
+	/**
+	 * An embedded H2 database in MySQL mode, which allows concurrent writers.
+	 */
+	H2 {
+		@Override
+		public DatabaseConnector createConnector(@NonNull final Plugin plugin) {
+			final String path = new File(plugin.getDataFolder(), "markets-h2").getAbsolutePath();
+			return new PooledConnector("org.h2.Driver", "jdbc:h2:file:" + path + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE", "", "", Settings.DATABASE_POOL_SIZE.getInt(), Settings.DATABASE_POOL_TIMEOUT.getInt());
+		}
+	},
+
+	/**
+	 * Any database reachable through a jdbc url, expected to understand MySQL syntax.
+	 */
+	JDBC {
+		@Override
+		public DatabaseConnector createConnector(@NonNull final Plugin plugin) {
+			return new PooledConnector(Settings.DATABASE_DRIVER.getString(), Settings.DATABASE_JDBC_URL.getString(), Settings.DATABASE_USERNAME.getString(), Settings.DATABASE_PASSWORD.getString(), Settings.DATABASE_POOL_SIZE.getInt(), Settings.DATABASE_POOL_TIMEOUT.getInt());
+		}
+	};
+
+	public abstract DatabaseConnector createConnector(@NonNull Plugin plugin);
+
+	public static StorageBackend fromSettings() {
+		final String configured = Settings.DATABASE_BACKEND.getString();
+
+		try {
+			return valueOf(configured.trim().toUpperCase());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			Common.log("&cUnknown database backend &e" + configured + "&c, using &eSQLITE");
+			return SQLITE;
+		}
+	}
+}
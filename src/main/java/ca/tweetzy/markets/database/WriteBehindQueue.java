@@ -0,0 +1,276 @@
+package ca.tweetzy.markets.database;
+
+import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.markets.api.SynchronizeResult;
+import ca.tweetzy.markets.api.market.BankEntry;
+import ca.tweetzy.markets.api.market.core.AbstractMarket;
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.api.market.core.MarketUser;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Collects entity updates and writes them in batched transactions. Repeated updates to the same
+ * entity are coalesced into a single row update, since the entity itself is queued the latest
+ * state is always the one written. A batch that fails to commit is queued again and retried on
+ * the next flush, a write is only given up after {@link #MAX_ATTEMPTS} failed flushes.
+ */
+public final class WriteBehindQueue {
+
+	private static final int MAX_ATTEMPTS = 5;
+	private static final long SHUTDOWN_RETRY_PAUSE = 200L;
+
+	private final DataManager dataManager;
+	private final Plugin plugin;
+	private final long flushInterval;
+	private final int maxQueueSize;
+
+	private final Map<PendingKey, PendingWrite> pending = new LinkedHashMap<>();
+	private final ReentrantLock flushLock = new ReentrantLock();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+	private final AtomicLong totalFlushes = new AtomicLong();
+	private final AtomicLong totalWrites = new AtomicLong();
+	private final AtomicLong coalescedWrites = new AtomicLong();
+	private volatile long lastFlushNanos;
+	private volatile long maxFlushNanos;
+	private final AtomicLong totalFlushNanos = new AtomicLong();
+
+	private BukkitTask flushTask;
+
+	public WriteBehindQueue(@NonNull final DataManager dataManager, @NonNull final Plugin plugin, final long flushInterval, final int maxQueueSize) {
+		this.dataManager = dataManager;
+		this.plugin = plugin;
+		this.flushInterval = Math.max(1, flushInterval);
+		this.maxQueueSize = Math.max(1, maxQueueSize);
+	}
+
+	public void start() {
+		if (this.flushTask != null) return;
+		this.flushTask = Bukkit.getServer().getScheduler().runTaskTimerAsynchronously(this.plugin, this::flush, this.flushInterval, this.flushInterval);
+	}
+
+	/**
+	 * Stops the timer and writes whatever is still pending on the calling thread, retrying failed batches like the timer would.
+	 */
+	public void shutdown() {
+		if (this.flushTask != null) {
+			this.flushTask.cancel();
+			this.flushTask = null;
+		}
+
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+			flush();
+			if (getQueueDepth() == 0) return;
+
+			try {
+				Thread.sleep(SHUTDOWN_RETRY_PAUSE);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				flush();
+				return;
+			}
+		}
+	}
+
+	public void queue(@NonNull final AbstractMarket market, @Nullable final Consumer<SynchronizeResult> syncResult) {
+		queue(new PendingKey(PendingType.MARKET, market.getId()), market, syncResult);
+	}
+
+	public void queue(@NonNull final MarketItem marketItem, @Nullable final Consumer<SynchronizeResult> syncResult) {
+		queue(new PendingKey(PendingType.MARKET_ITEM, marketItem.getId()), marketItem, syncResult);
+	}
+
+	public void queue(@NonNull final BankEntry bankEntry, @Nullable final Consumer<SynchronizeResult> syncResult) {
+		queue(new PendingKey(PendingType.BANK_ENTRY, bankEntry.getId()), bankEntry, syncResult);
+	}
+
+	public void queue(@NonNull final MarketUser marketUser, @Nullable final Consumer<SynchronizeResult> syncResult) {
+		queue(new PendingKey(PendingType.MARKET_USER, marketUser.getUUID()), marketUser, syncResult);
+	}
+
+	private void queue(final PendingKey key, final Object entity, final Consumer<SynchronizeResult> syncResult) {
+		final int size;
+
+		synchronized (this.pending) {
+			PendingWrite write = this.pending.get(key);
+
+			if (write == null) {
+				write = new PendingWrite(key, entity);
+				this.pending.put(key, write);
+			} else {
+				write.entity = entity;
+				this.coalescedWrites.incrementAndGet();
+			}
+
+			if (syncResult != null)
+				write.callbacks.add(syncResult);
+
+			size = this.pending.size();
+		}
+
+		if (size >= this.maxQueueSize && this.flushScheduled.compareAndSet(false, true))
+			Bukkit.getServer().getScheduler().runTaskAsynchronously(this.plugin, this::flush);
+	}
+
+	/**
+	 * Writes every pending update, flushes never overlap so row updates are applied in order.
+	 */
+	public void flush() {
+		this.flushLock.lock();
+
+		try {
+			this.flushScheduled.set(false);
+
+			final List<PendingWrite> writes;
+			synchronized (this.pending) {
+				if (this.pending.isEmpty()) return;
+				writes = new ArrayList<>(this.pending.values());
+				this.pending.clear();
+			}
+
+			final Batch batch = new Batch(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+			writes.forEach(write -> {
+				if (write.entity instanceof AbstractMarket market) batch.markets().add(market);
+				else if (write.entity instanceof MarketItem marketItem) batch.marketItems().add(marketItem);
+				else if (write.entity instanceof BankEntry bankEntry) batch.bankEntries().add(bankEntry);
+				else if (write.entity instanceof MarketUser marketUser) batch.marketUsers().add(marketUser);
+			});
+
+			final long start = System.nanoTime();
+			final BatchResult written = this.dataManager.updateBatch(batch);
+			final long elapsed = System.nanoTime() - start;
+
+			this.lastFlushNanos = elapsed;
+			this.maxFlushNanos = Math.max(this.maxFlushNanos, elapsed);
+			this.totalFlushNanos.addAndGet(elapsed);
+			this.totalFlushes.incrementAndGet();
+			this.totalWrites.addAndGet(writes.size());
+
+			if (!written.committed()) {
+				final List<PendingWrite> givenUp = requeue(writes);
+				Common.log("&cFailed to write &e" + writes.size() + " &cqueued updates to the database, &e" + (writes.size() - givenUp.size()) + " &cwill be retried");
+
+				if (!givenUp.isEmpty()) {
+					Common.log("&cGave up on &e" + givenUp.size() + " &cupdates after " + MAX_ATTEMPTS + " attempts: &e" + givenUp.stream().map(write -> write.key.type().name().toLowerCase() + " " + write.key.id()).collect(Collectors.joining(", ")));
+					givenUp.forEach(write -> write.callbacks.forEach(callback -> callback.accept(SynchronizeResult.FAILURE)));
+				}
+
+				return;
+			}
+
+			if (!written.unmatched().isEmpty())
+				Common.log("&e" + written.unmatched().size() + " &cqueued updates did not match a stored row");
+
+			writes.forEach(write -> {
+				final SynchronizeResult result = written.committed() && !written.unmatched().contains(write.entity) ? SynchronizeResult.SUCCESS : SynchronizeResult.FAILURE;
+				write.callbacks.forEach(callback -> callback.accept(result));
+			});
+		} finally {
+			this.flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Puts the writes of a failed batch back in the queue. An entity that was queued again in the meantime keeps its newer
+	 * write, which then answers the callbacks of both.
+	 *
+	 * @return the writes that ran out of attempts
+	 */
+	private List<PendingWrite> requeue(final List<PendingWrite> writes) {
+		final List<PendingWrite> givenUp = new ArrayList<>();
+
+		synchronized (this.pending) {
+			for (PendingWrite write : writes) {
+				if (++write.attempts >= MAX_ATTEMPTS) {
+					givenUp.add(write);
+					continue;
+				}
+
+				final PendingWrite newer = this.pending.putIfAbsent(write.key, write);
+				if (newer != null)
+					newer.callbacks.addAll(write.callbacks);
+			}
+		}
+
+		return givenUp;
+	}
+
+	public int getQueueDepth() {
+		synchronized (this.pending) {
+			return this.pending.size();
+		}
+	}
+
+	public long getTotalFlushes() {
+		return this.totalFlushes.get();
+	}
+
+	public long getTotalWrites() {
+		return this.totalWrites.get();
+	}
+
+	public long getCoalescedWrites() {
+		return this.coalescedWrites.get();
+	}
+
+	public double getLastFlushMillis() {
+		return this.lastFlushNanos / 1_000_000D;
+	}
+
+	public double getMaxFlushMillis() {
+		return this.maxFlushNanos / 1_000_000D;
+	}
+
+	public double getAverageFlushMillis() {
+		final long flushes = this.totalFlushes.get();
+		return flushes == 0 ? 0 : this.totalFlushNanos.get() / 1_000_000D / flushes;
+	}
+
+	record Batch(List<AbstractMarket> markets, List<MarketItem> marketItems, List<BankEntry> bankEntries, List<MarketUser> marketUsers) {
+	}
+
+	/**
+	 * @param unmatched the queued entities whose update touched no row, compared by identity
+	 */
+	record BatchResult(boolean committed, Set<Object> unmatched) {
+	}
+
+	private enum PendingType {
+		MARKET,
+		MARKET_ITEM,
+		BANK_ENTRY,
+		MARKET_USER
+	}
+
+	private record PendingKey(PendingType type, UUID id) {
+	}
+
+	private static final class PendingWrite {
+
+		private final PendingKey key;
+		private Object entity;
+		private int attempts;
+		private final List<Consumer<SynchronizeResult>> callbacks = new ArrayList<>();
+
+		private PendingWrite(final PendingKey key, final Object entity) {
+			this.key = key;
+			this.entity = entity;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package ca.tweetzy.markets.database.codec;
+
+import ca.tweetzy.flight.utils.SerializeUtil;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores items as a version byte followed by the deflated bukkit serialized stack.
+ * Payloads without the version byte are treated as the legacy base64 text format,
+ * so columns that have not been migrated yet can still be read.
+ */
+public final class BinaryItemCodec implements ItemCodec {
+
+	public static final byte VERSION = 0x01;
+
+	@Override
+	public @Nullable byte[] encode(@Nullable final ItemStack item) {
+		if (item == null) return null;
+
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		outputStream.write(VERSION);
+
+		try (BukkitObjectOutputStream objectStream = new BukkitObjectOutputStream(new DeflaterOutputStream(outputStream, new Deflater(Deflater.BEST_SPEED)))) {
+			objectStream.writeObject(item);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not encode item " + item.getType(), e);
+		}
+
+		return outputStream.toByteArray();
+	}
+
+	@Override
+	public @Nullable ItemStack decode(@Nullable final byte[] payload) {
+		if (payload == null || payload.length == 0) return null;
+
+		if (!isBinary(payload))
+			return SerializeUtil.decodeItem(new String(payload, StandardCharsets.UTF_8));
+
+		try (BukkitObjectInputStream objectStream = new BukkitObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1)))) {
+			return (ItemStack) objectStream.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new IllegalStateException("Could not decode item payload", e);
+		}
+	}
+
+	public static boolean isBinary(@Nullable final byte[] payload) {
+		return payload != null && payload.length > 0 && payload[0] == VERSION;
+	}
+}
@@ -0,0 +1,87 @@
+package ca.tweetzy.markets.database.codec;
+
+import lombok.NonNull;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wraps another codec and keeps one decoded template per distinct payload. Identical rows
+ * (the same currency item on thousands of listings for example) are only deserialized once.
+ * {@link #decode(byte[])} hands every caller its own clone of the shared template, {@link #decodeShared(byte[])}
+ * hands out the template itself so read-only items don't cost a stack and meta per row.
+ */
+public final class InterningItemCodec implements ItemCodec {
+
+	private final ItemCodec codec;
+	private final Map<ByteBuffer, ItemStack> templates;
+
+	private long hits;
+	private long misses;
+
+	public InterningItemCodec(@NonNull final ItemCodec codec, final int maxTemplates) {
+		this.codec = codec;
+		this.templates = new LinkedHashMap<>(256, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ByteBuffer, ItemStack> eldest) {
+				return size() > maxTemplates;
+			}
+		};
+	}
+
+	@Override
+	public @Nullable byte[] encode(@Nullable final ItemStack item) {
+		return this.codec.encode(item);
+	}
+
+	@Override
+	public @Nullable ItemStack decode(@Nullable final byte[] payload) {
+		final ItemStack template = decodeShared(payload);
+		return template == null ? null : template.clone();
+	}
+
+	@Override
+	public @Nullable ItemStack decodeShared(@Nullable final byte[] payload) {
+		if (payload == null || payload.length == 0) return null;
+
+		final ByteBuffer key = ByteBuffer.wrap(payload);
+
+		synchronized (this.templates) {
+			final ItemStack template = this.templates.get(key);
+			if (template != null) {
+				this.hits++;
+				return template;
+			}
+		}
+
+		final ItemStack decoded = this.codec.decode(payload);
+		if (decoded == null) return null;
+
+		synchronized (this.templates) {
+			this.misses++;
+			final ItemStack existing = this.templates.putIfAbsent(key, decoded);
+			return existing != null ? existing : decoded;
+		}
+	}
+
+	public int getTemplateCount() {
+		synchronized (this.templates) {
+			return this.templates.size();
+		}
+	}
+
+	public long getHits() {
+		synchronized (this.templates) {
+			return this.hits;
+		}
+	}
+
+	public long getMisses() {
+		synchronized (this.templates) {
+			return this.misses;
+		}
+	}
+}
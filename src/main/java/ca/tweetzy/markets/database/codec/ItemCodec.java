@@ -0,0 +1,22 @@
+package ca.tweetzy.markets.database.codec;
+
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Converts item stacks to and from the payload stored in item columns.
+ */
+public interface ItemCodec {
+
+	@Nullable byte[] encode(@Nullable final ItemStack item);
+
+	@Nullable ItemStack decode(@Nullable final byte[] payload);
+
+	/**
+	 * Decodes an item that is only ever read, codecs that keep decoded items may hand out the same instance to every caller.
+	 * The result must not be modified, clone it first.
+	 */
+	default @Nullable ItemStack decodeShared(@Nullable final byte[] payload) {
+		return decode(payload);
+	}
+}
@@ -1,6 +1,7 @@
 package ca.tweetzy.markets.database.migrations;
 
 import ca.tweetzy.flight.database.DataMigration;
+import ca.tweetzy.markets.database.SqlDialect;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -14,8 +15,10 @@ public final class _16_InfiniteItemsMigration extends DataMigration {
 
 	@Override
 	public void migrate(Connection connection, String tablePrefix) throws SQLException {
+		final SqlDialect dialect = SqlDialect.of(connection);
+
 		try (Statement statement = connection.createStatement()) {
-			statement.execute("ALTER TABLE " + tablePrefix + "category_item ADD infinite BOOLEAN NOT NULL default 'false';");
+			statement.execute("ALTER TABLE " + tablePrefix + "category_item ADD infinite BOOLEAN NOT NULL default " + dialect.booleanLiteral(false) + ";");
 
 		}
 	}
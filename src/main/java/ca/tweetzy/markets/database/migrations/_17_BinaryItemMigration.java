@@ -0,0 +1,81 @@
+package ca.tweetzy.markets.database.migrations;
+
+import ca.tweetzy.flight.database.DataMigration;
+import ca.tweetzy.flight.utils.SerializeUtil;
+import ca.tweetzy.markets.database.codec.BinaryItemCodec;
+import org.bukkit.inventory.ItemStack;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class _17_BinaryItemMigration extends DataMigration {
+
+	private static final int CHUNK = 1_000;
+
+	public _17_BinaryItemMigration() {
+		super(17);
+	}
+
+	@Override
+	public void migrate(Connection connection, String tablePrefix) throws SQLException {
+		final BinaryItemCodec codec = new BinaryItemCodec();
+
+		// table -> item columns, the values are rewritten in place as versioned binary payloads
+		final Map<String, List<String>> itemColumns = new LinkedHashMap<>();
+		itemColumns.put("category_item", List.of("item", "currency_item"));
+		itemColumns.put("request", List.of("requested_item", "currency_item"));
+		itemColumns.put("offer", List.of("currency_item"));
+		itemColumns.put("bank_entry", List.of("item"));
+		itemColumns.put("offline_payment", List.of("currency"));
+		itemColumns.put("transaction", List.of("item"));
+
+		for (Map.Entry<String, List<String>> table : itemColumns.entrySet())
+			for (String column : table.getValue())
+				convertColumn(connection, codec, tablePrefix + table.getKey(), column);
+	}
+
+	/**
+	 * Converts one column in keyset chunks ordered by id, so only a chunk of payloads is held in memory at a time.
+	 */
+	private void convertColumn(final Connection connection, final BinaryItemCodec codec, final String table, final String column) throws SQLException {
+		final String select = "SELECT id, " + column + " FROM " + table + " WHERE id > ? AND " + column + " IS NOT NULL ORDER BY id LIMIT " + CHUNK;
+		final String update = "UPDATE " + table + " SET " + column + " = ? WHERE id = ?";
+
+		try (PreparedStatement selectStatement = connection.prepareStatement(select); PreparedStatement updateStatement = connection.prepareStatement(update)) {
+			Object lastId = "";
+			int read;
+
+			do {
+				read = 0;
+				boolean pending = false;
+				selectStatement.setObject(1, lastId);
+
+				try (ResultSet resultSet = selectStatement.executeQuery()) {
+					while (resultSet.next()) {
+						read++;
+						lastId = resultSet.getObject("id");
+
+						final byte[] payload = resultSet.getBytes(column);
+						if (payload == null || payload.length == 0 || BinaryItemCodec.isBinary(payload)) continue;
+
+						final ItemStack item = SerializeUtil.decodeItem(new String(payload, StandardCharsets.UTF_8));
+						if (item == null) continue;
+
+						updateStatement.setBytes(1, codec.encode(item));
+						updateStatement.setObject(2, lastId);
+						updateStatement.addBatch();
+						pending = true;
+					}
+				}
+
+				if (pending) updateStatement.executeBatch();
+			} while (read == CHUNK);
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package ca.tweetzy.markets.database.migrations;
+
+import ca.tweetzy.flight.database.DataMigration;
+import ca.tweetzy.markets.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public final class _18_IndexMigration extends DataMigration {
+
+	public _18_IndexMigration() {
+		super(18);
+	}
+
+	@Override
+	public void migrate(Connection connection, String tablePrefix) throws SQLException {
+		final SqlDialect dialect = SqlDialect.of(connection);
+
+		// owner & parent lookups
+		dialect.createIndex(connection, tablePrefix + "markets_owner_idx", tablePrefix + "markets", "owner");
+		dialect.createIndex(connection, tablePrefix + "category_market_idx", tablePrefix + "category", "owning_market");
+		dialect.createIndex(connection, tablePrefix + "category_item_category_idx", tablePrefix + "category_item", "owning_category");
+		dialect.createIndex(connection, tablePrefix + "review_market_idx", tablePrefix + "review", "market");
+		dialect.createIndex(connection, tablePrefix + "review_rater_idx", tablePrefix + "review", "rater");
+		dialect.createIndex(connection, tablePrefix + "offer_to_idx", tablePrefix + "offer", "offer_to");
+		dialect.createIndex(connection, tablePrefix + "offer_sender_idx", tablePrefix + "offer", "sender");
+		dialect.createIndex(connection, tablePrefix + "offer_market_item_idx", tablePrefix + "offer", "market_item");
+		dialect.createIndex(connection, tablePrefix + "bank_entry_owner_idx", tablePrefix + "bank_entry", "owner");
+		dialect.createIndex(connection, tablePrefix + "request_owner_idx", tablePrefix + "request", "owner");
+		dialect.createIndex(connection, tablePrefix + "offline_payment_for_idx", tablePrefix + "offline_payment", "payment_for");
+
+		// transaction history pages, purchase counts & the in memory window
+		dialect.createIndex(connection, tablePrefix + "transaction_seller_created_idx", tablePrefix + "transaction", "seller", "created_at");
+		dialect.createIndex(connection, tablePrefix + "transaction_buyer_seller_idx", tablePrefix + "transaction", "buyer", "seller");
+		dialect.createIndex(connection, tablePrefix + "transaction_created_idx", tablePrefix + "transaction", "created_at");
+	}
+}
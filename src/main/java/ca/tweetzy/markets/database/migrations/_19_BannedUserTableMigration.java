@@ -0,0 +1,50 @@
+package ca.tweetzy.markets.database.migrations;
+
+import ca.tweetzy.flight.database.DataMigration;
+import ca.tweetzy.markets.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public final class _19_BannedUserTableMigration extends DataMigration {
+
+	public _19_BannedUserTableMigration() {
+		super(19);
+	}
+
+	@Override
+	public void migrate(Connection connection, String tablePrefix) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE IF NOT EXISTS " + tablePrefix + "market_banned_user (" +
+					"market VARCHAR(36) NOT NULL, " +
+					"banned_user VARCHAR(36) NOT NULL, " +
+					"PRIMARY KEY (market, banned_user)" +
+					")");
+		}
+
+		// move the comma separated lists over, one row per banned player
+		try (PreparedStatement select = connection.prepareStatement("SELECT id, banned_users FROM " + tablePrefix + "markets WHERE banned_users IS NOT NULL");
+			 PreparedStatement insert = connection.prepareStatement(SqlDialect.of(connection).insertIgnore(tablePrefix + "market_banned_user", "market", "banned_user"))) {
+
+			final ResultSet resultSet = select.executeQuery();
+			while (resultSet.next()) {
+				for (String bannedUser : resultSet.getString("banned_users").split(",")) {
+					if (bannedUser.isBlank()) continue;
+
+					insert.setString(1, resultSet.getString("id"));
+					insert.setString(2, bannedUser.trim());
+					insert.addBatch();
+				}
+			}
+
+			insert.executeBatch();
+		}
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("UPDATE " + tablePrefix + "markets SET banned_users = NULL");
+		}
+	}
+}
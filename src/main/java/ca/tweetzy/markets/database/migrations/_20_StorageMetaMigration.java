@@ -0,0 +1,24 @@
+package ca.tweetzy.markets.database.migrations;
+
+import ca.tweetzy.flight.database.DataMigration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public final class _20_StorageMetaMigration extends DataMigration {
+
+	public _20_StorageMetaMigration() {
+		super(20);
+	}
+
+	@Override
+	public void migrate(Connection connection, String tablePrefix) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE IF NOT EXISTS " + tablePrefix + "storage_meta (" +
+					"meta_key VARCHAR(64) PRIMARY KEY, " +
+					"meta_value TEXT" +
+					")");
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package ca.tweetzy.markets.database.migrations;
+
+import ca.tweetzy.flight.database.DataMigration;
+import ca.tweetzy.markets.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public final class _21_BinaryColumnMigration extends DataMigration {
+
+	public _21_BinaryColumnMigration() {
+		super(21);
+	}
+
+	@Override
+	public void migrate(Connection connection, String tablePrefix) throws SQLException {
+		final SqlDialect dialect = SqlDialect.of(connection);
+
+		// sqlite keeps the binary item payloads in the text columns, typed backends need real binary columns
+		if (dialect == SqlDialect.SQLITE) return;
+
+		// table, column, nullable
+		final String[][] itemColumns = {
+				{"category_item", "item", "NOT NULL"},
+				{"category_item", "currency_item", "NULL"},
+				{"request", "requested_item", "NOT NULL"},
+				{"request", "currency_item", "NULL"},
+				{"offer", "currency_item", "NULL"},
+				{"bank_entry", "item", "NULL"},
+				{"offline_payment", "currency", "NOT NULL"},
+				{"transaction", "item", "NOT NULL"}
+		};
+
+		try (Statement statement = connection.createStatement()) {
+			for (String[] column : itemColumns)
+				statement.execute("ALTER TABLE " + tablePrefix + column[0] + " MODIFY COLUMN " + column[1] + " " + dialect.binaryType() + " " + column[2]);
+		}
+	}
+}
@@ -12,7 +12,9 @@ import lombok.NonNull;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public abstract class MarketsPagedGUI<T> extends BaseGUI {
@@ -22,6 +24,8 @@ public abstract class MarketsPagedGUI<T> extends BaseGUI {
 	protected final Gui parent;
 	protected List<T> items;
 
+	private final Map<Integer, Shown<T>> shown = new HashMap<>();
+
 	public MarketsPagedGUI(Gui parent, @NonNull final Player player, @NonNull String title, int rows, @NonNull List<T> items) {
 		super(parent, title, rows);
 		this.parent = parent;
@@ -60,15 +64,61 @@ public abstract class MarketsPagedGUI<T> extends BaseGUI {
 			setNextPage(getNextButtonSlot(), getNextButton());
 			setOnPage(e -> draw());
 
+			this.shown.clear();
 			for (int i = 0; i < this.rows * 9; i++) {
 				if (this.fillSlots().contains(i) && this.fillSlots().indexOf(i) < itemsToFill.size()) {
 					final T object = itemsToFill.get(this.fillSlots().indexOf(i));
-					setButton(i, this.makeDisplayItem(object), click -> this.onClick(object, click));
+					final ItemStack icon = this.makeDisplayItem(object);
+
+					setButton(i, icon, click -> this.onClick(object, click));
+					this.shown.put(i, new Shown<>(object, icon));
 				}
 			}
 		}
 	}
 
+	/**
+	 * Swaps in a new list of items and only redraws the slots of the current page whose item or icon changed.
+	 * Falls back to a full draw when the number of pages changes, since the page buttons have to change too.
+	 *
+	 * @param items the new items
+	 */
+	protected void refreshItems(@NonNull final List<T> items) {
+		final int perPage = this.fillSlots().size();
+		final int newPages = (int) Math.max(1, Math.ceil(items.size() / (double) perPage));
+
+		this.items = items;
+
+		if (newPages != this.pages || this.page > newPages) {
+			if (this.page > newPages) this.page = newPages;
+			draw();
+			return;
+		}
+
+		final List<T> itemsToFill = items.stream().skip((page - 1) * (long) perPage).limit(perPage).collect(Collectors.toList());
+
+		for (int index = 0; index < perPage; index++) {
+			final int slot = this.fillSlots().get(index);
+
+			if (index >= itemsToFill.size()) {
+				if (this.shown.remove(slot) != null)
+					setButton(slot, getDefaultItem(), click -> {
+					});
+				continue;
+			}
+
+			final T object = itemsToFill.get(index);
+			final ItemStack icon = this.makeDisplayItem(object);
+			final Shown<T> current = this.shown.get(slot);
+
+			if (current != null && current.object() == object && current.icon() == icon)
+				continue;
+
+			setButton(slot, icon, click -> this.onClick(object, click));
+			this.shown.put(slot, new Shown<>(object, icon));
+		}
+	}
+
 	protected abstract ItemStack makeDisplayItem(final T object);
 
 	protected abstract void onClick(final T object, final GuiClickEvent clickEvent);
@@ -118,4 +168,7 @@ public abstract class MarketsPagedGUI<T> extends BaseGUI {
 	protected int getNextButtonSlot() {
 		return 50;
 	}
+
+	private record Shown<T>(T object, ItemStack icon) {
+	}
 }
@@ -99,7 +99,9 @@ public final class MarketsMainGUI extends MarketsBaseGUI {
 						.of(Settings.GUI_MAIN_VIEW_ITEMS_OFFERS.getItemStack())
 						.hideTags(true)
 						.name(TranslationManager.string(this.player, Translations.GUI_MAIN_VIEW_ITEMS_OFFERS_NAME))
-						.lore(TranslationManager.list(this.player, Translations.GUI_MAIN_VIEW_ITEMS_OFFERS_LORE, "left_click", TranslationManager.string(this.player, Translations.MOUSE_LEFT_CLICK)))
+						.lore(TranslationManager.list(this.player, Translations.GUI_MAIN_VIEW_ITEMS_OFFERS_LORE,
+								"offer_count", Markets.getOfferManager().getOfferCountFor(this.player.getUniqueId()),
+								"left_click", TranslationManager.string(this.player, Translations.MOUSE_LEFT_CLICK)))
 						.make(), click -> click.manager.showGUI(click.player, new OffersGUI(new MarketsMainGUI(click.player), click.player)));
 
 	}
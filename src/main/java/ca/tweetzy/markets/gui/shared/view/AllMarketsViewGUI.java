@@ -8,7 +8,6 @@ import ca.tweetzy.flight.utils.Common;
 import ca.tweetzy.flight.utils.QuickItem;
 import ca.tweetzy.flight.utils.input.TitleInput;
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.market.MarketSortType;
 import ca.tweetzy.markets.api.market.core.Market;
 import ca.tweetzy.markets.api.market.core.MarketUser;
 import ca.tweetzy.markets.gui.MarketsPagedGUI;
@@ -22,8 +21,6 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 public final class AllMarketsViewGUI extends MarketsPagedGUI<Market> {
@@ -31,31 +28,12 @@ public final class AllMarketsViewGUI extends MarketsPagedGUI<Market> {
 	MarketUser marketUser;
 
 	public AllMarketsViewGUI(Gui parent, @NonNull Player player) {
-		super(parent, player, TranslationManager.string(player, Translations.GUI_ALL_MARKETS_TITLE), 6, new ArrayList<>(Markets.getMarketManager().getOpenMarketsExclusive(player)));
+		super(parent, player, TranslationManager.string(player, Translations.GUI_ALL_MARKETS_TITLE), 6, Markets.getMarketManager().getOpenMarketsExclusive(player, Markets.getPlayerManager().get(player.getUniqueId()).getMarketSortType()));
 		setDefaultItem(QuickItem.bg(Settings.GUI_ALL_MARKETS_BACKGROUND.getItemStack()));
 		this.marketUser = Markets.getPlayerManager().get(player.getUniqueId());
 		draw();
 	}
 
-	@Override
-	protected void prePopulate() {
-		if (this.marketUser.getMarketSortType() == MarketSortType.NAME) {
-			items.sort(Comparator.comparing(Market::getDisplayName).reversed());
-		}
-
-		if (this.marketUser.getMarketSortType() == MarketSortType.ITEMS) {
-			items.sort(Comparator.comparing(Market::getItemCount).reversed());
-		}
-
-		if (this.marketUser.getMarketSortType() == MarketSortType.REVIEWS) {
-			items.sort(Comparator.comparing(Market::getReviewAvg).reversed());
-		}
-
-		if (this.marketUser.getMarketSortType() == MarketSortType.LAST_UPDATED) {
-			items.sort(Comparator.comparing(Market::getLastUpdated).reversed());
-		}
-	}
-
 	@Override
 	protected ItemStack makeDisplayItem(Market market) {
 		return QuickItem
@@ -64,7 +42,7 @@ public final class AllMarketsViewGUI extends MarketsPagedGUI<Market> {
 				.lore(market.getDescription())
 				.lore(TranslationManager.list(this.player, Translations.GUI_ALL_MARKETS_ITEMS_MARKET_LORE,
 						"left_click", TranslationManager.string(this.player, Translations.MOUSE_LEFT_CLICK),
-						"market_ratings_total", market.getRatings().size(),
+						"market_ratings_total", market.getRatingSummary().getCount(),
 						"market_ratings_stars", StringUtils.repeat("★", (int) market.getReviewAvg())
 				))
 				.make();
@@ -78,6 +56,7 @@ public final class AllMarketsViewGUI extends MarketsPagedGUI<Market> {
 				.lore(TranslationManager.list(this.player, Translations.GUI_ALL_MARKETS_ITEMS_FILTER_LORE, "market_sort_type", marketUser.getMarketSortType().getTranslatedName()))
 				.make(), click -> {
 			this.marketUser.setMarketSortType(this.marketUser.getMarketSortType().next());
+			this.items = Markets.getMarketManager().getOpenMarketsExclusive(this.player, this.marketUser.getMarketSortType());
 			draw();
 		});
 
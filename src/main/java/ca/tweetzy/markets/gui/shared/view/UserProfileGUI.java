@@ -9,6 +9,7 @@ import ca.tweetzy.markets.Markets;
 import ca.tweetzy.markets.api.market.core.MarketUser;
 import ca.tweetzy.markets.api.market.core.Rating;
 import ca.tweetzy.markets.gui.MarketsPagedGUI;
+import ca.tweetzy.markets.model.RatingPager;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import lombok.NonNull;
@@ -18,15 +19,18 @@ import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public final class UserProfileGUI extends MarketsPagedGUI<Rating> {
 
 	private final OfflinePlayer profileUser;
+	private final RatingPager pager;
 
 	public UserProfileGUI(Gui parent, @NonNull Player player, @NonNull final OfflinePlayer profileUser) {
-		super(parent, player, TranslationManager.string(player, Translations.GUI_USER_PROFILE_TITLE, "player_name", profileUser.getName()), 6, Markets.getRatingManager().getRatingsByOrFor(profileUser));
+		super(parent, player, TranslationManager.string(player, Translations.GUI_USER_PROFILE_TITLE, "player_name", profileUser.getName()), 6, new ArrayList<>());
 		this.profileUser = profileUser;
+		this.pager = Markets.getRatingManager().newProfilePager(profileUser, fillSlots().size() * 2);
 		setDefaultItem(QuickItem.bg(Settings.GUI_USER_PROFILE_BACKGROUND.getItemStack()));
 		draw();
 	}
@@ -48,6 +52,13 @@ public final class UserProfileGUI extends MarketsPagedGUI<Rating> {
 		applyBackExit();
 	}
 
+	@Override
+	protected void prePopulate() {
+		// read the next chunk of ratings once the last loaded page is reached
+		if (this.page >= this.pages)
+			this.pager.loadMore(this::refreshItems);
+	}
+
 	@Override
 	protected ItemStack makeDisplayItem(Rating rating) {
 		return QuickItem
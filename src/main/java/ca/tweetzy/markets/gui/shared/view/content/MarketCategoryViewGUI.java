@@ -17,6 +17,8 @@ import ca.tweetzy.markets.gui.shared.view.UserProfileGUI;
 import ca.tweetzy.markets.gui.shared.view.ratings.MarketRatingsViewGUI;
 import ca.tweetzy.markets.gui.shared.view.ratings.NewMarketRatingGUI;
 import ca.tweetzy.markets.impl.MarketOffer;
+import ca.tweetzy.markets.model.ListingIconCache;
+import ca.tweetzy.markets.model.LiveCategoryViews;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import lombok.NonNull;
@@ -27,7 +29,7 @@ import org.bukkit.inventory.ItemStack;
 
 import java.util.List;
 
-public final class MarketCategoryViewGUI extends MarketsPagedGUI<MarketItem> {
+public final class MarketCategoryViewGUI extends MarketsPagedGUI<MarketItem> implements LiveCategoryViews.Viewer {
 
 	private final Player player;
 	private final Market market;
@@ -45,8 +47,15 @@ public final class MarketCategoryViewGUI extends MarketsPagedGUI<MarketItem> {
 
 		setDefaultItem(this.market.getCategoryLayout().getBackgroundItem());
 
-		setOnOpen(open -> this.category.getViewingPlayers().add(player));
-		setOnClose(close -> this.category.getViewingPlayers().remove(player));
+		setOnOpen(open -> {
+			this.category.getViewingPlayers().add(player);
+			Markets.getCategoryManager().getLiveViews().open(this.category.getId(), this);
+		});
+
+		setOnClose(close -> {
+			this.category.getViewingPlayers().remove(player);
+			Markets.getCategoryManager().getLiveViews().close(this.category.getId(), this);
+		});
 
 		draw();
 	}
@@ -55,8 +64,17 @@ public final class MarketCategoryViewGUI extends MarketsPagedGUI<MarketItem> {
 		this(new MarketViewGUI(player, market), player, market, category);
 	}
 
+	@Override
+	public void refresh(@NonNull List<MarketItem> inStockItems) {
+		refreshItems(inStockItems);
+	}
+
 	@Override
 	protected ItemStack makeDisplayItem(MarketItem marketItem) {
+		return Markets.getCategoryItemManager().getIconCache().get(ListingIconCache.View.CATEGORY, this.player, marketItem, () -> renderDisplayItem(marketItem));
+	}
+
+	private ItemStack renderDisplayItem(final MarketItem marketItem) {
 		final QuickItem item = QuickItem.of(marketItem.getItem()).amount(marketItem.getPlusOneStock()).lore(TranslationManager.list(this.player, Translations.GUI_MARKET_CATEGORY_VIEW_ITEMS_ITEM_LORE_HEADER));
 
 		item.lore(TranslationManager.list(this.player, Translations.GUI_MARKET_CATEGORY_VIEW_ITEMS_ITEM_LORE_INFO,
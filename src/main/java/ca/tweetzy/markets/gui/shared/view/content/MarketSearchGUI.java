@@ -14,6 +14,7 @@ import ca.tweetzy.markets.gui.MarketsPagedGUI;
 import ca.tweetzy.markets.gui.shared.checkout.MarketItemPurchaseGUI;
 import ca.tweetzy.markets.gui.shared.checkout.OfferCreateGUI;
 import ca.tweetzy.markets.impl.MarketOffer;
+import ca.tweetzy.markets.model.ListingIconCache;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import lombok.NonNull;
@@ -48,6 +49,10 @@ public final class MarketSearchGUI extends MarketsPagedGUI<MarketItem> {
 
 	@Override
 	protected ItemStack makeDisplayItem(MarketItem marketItem) {
+		return Markets.getCategoryItemManager().getIconCache().get(ListingIconCache.View.SEARCH, this.player, marketItem, () -> renderDisplayItem(marketItem));
+	}
+
+	private ItemStack renderDisplayItem(final MarketItem marketItem) {
 		final QuickItem item = QuickItem.of(marketItem.getItem()).amount(marketItem.getPlusOneStock()).lore(TranslationManager.list(this.player, Translations.GUI_MARKET_CATEGORY_VIEW_ITEMS_ITEM_LORE_HEADER));
 		final Market itemMarket = marketItem.getOwningMarket();
 
@@ -6,9 +6,11 @@ import ca.tweetzy.flight.gui.helper.InventoryBorder;
 import ca.tweetzy.flight.settings.TranslationManager;
 import ca.tweetzy.flight.utils.QuickItem;
 import ca.tweetzy.flight.utils.TimeUtil;
+import ca.tweetzy.markets.Markets;
 import ca.tweetzy.markets.api.market.core.Market;
 import ca.tweetzy.markets.api.market.core.Rating;
 import ca.tweetzy.markets.gui.MarketsPagedGUI;
+import ca.tweetzy.markets.model.RatingPager;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import lombok.NonNull;
@@ -17,16 +19,27 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public final class MarketRatingsViewGUI extends MarketsPagedGUI<Rating> {
 
+	private final RatingPager pager;
+
 	public MarketRatingsViewGUI(Gui parent, @NonNull final Player player, @NonNull final Market market) {
-		super(parent, player, TranslationManager.string(player, Translations.GUI_RATINGS_TITLE, "market_display_name", market.getDisplayName()), 6, market.getRatings());
+		super(parent, player, TranslationManager.string(player, Translations.GUI_RATINGS_TITLE, "market_display_name", market.getDisplayName()), 6, new ArrayList<>());
+		this.pager = Markets.getRatingManager().newMarketPager(market, fillSlots().size() * 2);
 		setDefaultItem(QuickItem.bg(Settings.GUI_RATINGS_BACKGROUND.getItemStack()));
 		draw();
 	}
 
+	@Override
+	protected void prePopulate() {
+		// read the next chunk of ratings once the last loaded page is reached
+		if (this.page >= this.pages)
+			this.pager.loadMore(this::refreshItems);
+	}
+
 	@Override
 	protected ItemStack makeDisplayItem(Rating rating) {
 		return QuickItem
@@ -7,13 +7,13 @@ import ca.tweetzy.flight.gui.helper.InventoryBorder;
 import ca.tweetzy.flight.settings.TranslationManager;
 import ca.tweetzy.flight.utils.Common;
 import ca.tweetzy.flight.utils.MathUtil;
-import ca.tweetzy.flight.utils.PlayerUtil;
 import ca.tweetzy.flight.utils.QuickItem;
 import ca.tweetzy.flight.utils.input.TitleInput;
 import ca.tweetzy.markets.Markets;
 import ca.tweetzy.markets.api.SynchronizeResult;
 import ca.tweetzy.markets.api.market.BankEntry;
 import ca.tweetzy.markets.gui.MarketsPagedGUI;
+import ca.tweetzy.markets.model.ItemDelivery;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import lombok.NonNull;
@@ -120,8 +120,7 @@ public final class BankGUI extends MarketsPagedGUI<BankEntry> {
 					bankEntry.setQuantity(bankEntry.getQuantity() - withdrawAmount);
 					bankEntry.sync(result -> {
 						if (result == SynchronizeResult.FAILURE) return;
-						for (int i = 0; i < withdrawAmount; i++)
-							PlayerUtil.giveItem(click.player, bankEntry.getItem());
+						ItemDelivery.deliver(click.player, bankEntry.getItem(), withdrawAmount);
 
 						click.manager.showGUI(click.player, new BankGUI(BankGUI.this.parent, click.player));
 					});
@@ -133,8 +132,7 @@ public final class BankGUI extends MarketsPagedGUI<BankEntry> {
 	private void deleteAndGiveEntry(@NonNull final BankEntry bankEntry, @NonNull final GuiClickEvent click) {
 		bankEntry.unStore(result -> {
 			if (result == SynchronizeResult.FAILURE) return;
-			for (int i = 0; i < bankEntry.getQuantity(); i++)
-				PlayerUtil.giveItem(click.player, bankEntry.getItem());
+			ItemDelivery.deliver(click.player, bankEntry.getItem(), bankEntry.getQuantity());
 
 			updateAndRedraw();
 		});
@@ -8,27 +8,38 @@ import ca.tweetzy.flight.utils.QuickItem;
 import ca.tweetzy.markets.Markets;
 import ca.tweetzy.markets.api.market.Transaction;
 import ca.tweetzy.markets.gui.MarketsPagedGUI;
+import ca.tweetzy.markets.model.TransactionPager;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import lombok.NonNull;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public final class TransactionsGUI extends MarketsPagedGUI<Transaction> {
 
 	private final Player player;
+	private final TransactionPager pager;
 
 	public TransactionsGUI(Gui parent, @NonNull final Player player) {
-		super(parent, player, TranslationManager.string(player, Translations.GUI_TRANSACTIONS_TITLE), 6, Markets.getTransactionManager().getOfflineTransactionsFor(player.getUniqueId()));
+		super(parent, player, TranslationManager.string(player, Translations.GUI_TRANSACTIONS_TITLE), 6, new ArrayList<>());
 		this.player = player;
+		this.pager = Markets.getTransactionManager().newOfflinePager(player.getUniqueId(), fillSlots().size() * 2);
 		setAcceptsItems(true);
 		setDefaultItem(QuickItem.bg(Settings.GUI_TRANSACTIONS_BACKGROUND.getItemStack()));
 
 		draw();
 	}
 
+	@Override
+	protected void prePopulate() {
+		// read the next chunk of transactions once the last loaded page is reached
+		if (this.page >= this.pages)
+			this.pager.loadMore(this::refreshItems);
+	}
+
 	@Override
 	protected ItemStack makeDisplayItem(Transaction transaction) {
 		final ItemStack item = transaction.getItem();
@@ -16,11 +16,11 @@ import ca.tweetzy.markets.gui.shared.view.content.MarketCategoryViewGUI;
 import ca.tweetzy.markets.gui.shared.view.content.MarketViewGUI;
 import ca.tweetzy.markets.gui.user.market.MarketOverviewGUI;
 import ca.tweetzy.markets.model.FloodGateCheck;
+import ca.tweetzy.markets.model.ItemDelivery;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import lombok.NonNull;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.ClickType;
@@ -268,13 +268,7 @@ public final class MarketCategoryEditGUI extends MarketsPagedGUI<MarketItem> {
 	}
 
 	private void giveBackMarketItem(@NonNull final MarketItem marketItem) {
-		final ItemStack item = marketItem.getItem().clone();
-		item.setAmount(1);
-
-		Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), () -> {
-			for (int i = 0; i < marketItem.getStock(); i++)
-				PlayerUtil.giveItem(this.player, item);
-		});
+		ItemDelivery.deliver(this.player, marketItem.getItem(), marketItem.getStock());
 	}
 
 	private void reopen(@NonNull GuiClickEvent click) {
@@ -3,7 +3,6 @@ package ca.tweetzy.markets.gui.user.market;
 import ca.tweetzy.flight.gui.events.GuiClickEvent;
 import ca.tweetzy.flight.settings.TranslationManager;
 import ca.tweetzy.flight.utils.Common;
-import ca.tweetzy.flight.utils.PlayerUtil;
 import ca.tweetzy.flight.utils.QuickItem;
 import ca.tweetzy.flight.utils.input.TitleInput;
 import ca.tweetzy.markets.Markets;
@@ -15,11 +14,11 @@ import ca.tweetzy.markets.gui.MarketsPagedGUI;
 import ca.tweetzy.markets.gui.shared.MarketsMainGUI;
 import ca.tweetzy.markets.gui.shared.view.ratings.MarketRatingsViewGUI;
 import ca.tweetzy.markets.gui.user.category.MarketCategoryEditGUI;
+import ca.tweetzy.markets.model.ItemDelivery;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import lombok.NonNull;
 import org.apache.commons.lang3.StringUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
@@ -145,8 +144,8 @@ public final class MarketOverviewGUI extends MarketsPagedGUI<Category> {
 				.of(Settings.GUI_MARKET_OVERVIEW_ITEMS_REVIEWS_ITEM.getItemStack())
 				.name(TranslationManager.string(Translations.GUI_MARKET_OVERVIEW_ITEMS_REVIEWS_NAME))
 				.lore(TranslationManager.list(Translations.GUI_MARKET_OVERVIEW_ITEMS_REVIEWS_LORE,
-						"market_ratings_total", market.getRatings().size(),
-						"market_ratings_stars", market.getRatings().isEmpty() ? TranslationManager.string(Translations.NO_REVIEWS) : StringUtils.repeat("★", (int) market.getReviewAvg())
+						"market_ratings_total", market.getRatingSummary().getCount(),
+						"market_ratings_stars", market.getRatingSummary().getCount() == 0 ? TranslationManager.string(Translations.NO_REVIEWS) : StringUtils.repeat("★", (int) market.getReviewAvg())
 				)).make(), click -> click.manager.showGUI(click.player, new MarketRatingsViewGUI(this, click.player, this.market)));
 
 		// unStore button
@@ -197,13 +196,7 @@ public final class MarketOverviewGUI extends MarketsPagedGUI<Category> {
 	}
 
 	private void giveBackMarketItem(@NonNull final MarketItem marketItem) {
-		final ItemStack item = marketItem.getItem().clone();
-		item.setAmount(1);
-
-		Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), () -> {
-			for (int i = 0; i < marketItem.getStock(); i++)
-				PlayerUtil.giveItem(this.player, item);
-		});
+		ItemDelivery.deliver(this.player, marketItem.getItem(), marketItem.getStock());
 	}
 
 	@Override
@@ -4,14 +4,15 @@ import ca.tweetzy.flight.comp.enums.CompMaterial;
 import ca.tweetzy.flight.settings.TranslationManager;
 import ca.tweetzy.flight.utils.Common;
 import ca.tweetzy.flight.utils.ItemUtil;
-import ca.tweetzy.flight.utils.PlayerUtil;
 import ca.tweetzy.markets.Markets;
 import ca.tweetzy.markets.api.SynchronizeResult;
 import ca.tweetzy.markets.api.currency.TransactionResult;
 import ca.tweetzy.markets.api.event.MarketTransactionEvent;
 import ca.tweetzy.markets.api.market.TransactionType;
+import ca.tweetzy.markets.api.market.core.Category;
 import ca.tweetzy.markets.api.market.core.Market;
 import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.model.ItemDelivery;
 import ca.tweetzy.markets.model.Taxer;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
@@ -25,6 +26,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 public final class CategoryItem implements MarketItem {
@@ -35,7 +37,7 @@ public final class CategoryItem implements MarketItem {
 	private String currency;
 	private ItemStack currencyItem;
 	private double price;
-	private int stock;
+	private final AtomicInteger stock;
 	private boolean priceIsForAll;
 	private boolean acceptingOffers;
 	private boolean infinite;
@@ -60,7 +62,7 @@ public final class CategoryItem implements MarketItem {
 		this.currency = currency;
 		this.currencyItem = currencyItem;
 		this.price = price;
-		this.stock = stock;
+		this.stock = new AtomicInteger(stock);
 		this.priceIsForAll = priceIsForAll;
 		this.acceptingOffers = acceptingOffers;
 		this.infinite = infinite;
@@ -106,7 +108,7 @@ public final class CategoryItem implements MarketItem {
 
 	@Override
 	public int getStock() {
-		return this.stock;
+		return this.stock.get();
 	}
 
 	@Override
@@ -141,7 +143,7 @@ public final class CategoryItem implements MarketItem {
 
 	@Override
 	public void setStock(int stock) {
-		this.stock = stock;
+		this.stock.set(stock);
 	}
 
 	@Override
@@ -154,6 +156,14 @@ public final class CategoryItem implements MarketItem {
 		this.acceptingOffers = acceptingOffers;
 	}
 
+	@Override
+	public void addStock(@NonNull ItemStack item, @NonNull Consumer<SynchronizeResult> resultConsumer) {
+		if (this.item.isSimilar(item)) {
+			this.stock.addAndGet(item.getAmount());
+			sync(resultConsumer);
+		}
+	}
+
 	@Override
 	public boolean isInfinite() {
 		return this.infinite;
@@ -184,8 +194,14 @@ public final class CategoryItem implements MarketItem {
 
 				getViewingPlayers().forEach(viewingUser -> Common.tell(viewingUser, TranslationManager.string(viewingUser, Translations.ITEM_OUT_OF_STOCK)));
 
-				Markets.getCategoryManager().getByUUID(this.owningCategory).getItems().removeIf(category -> category.getId().equals(this.id));
+				final Category category = Markets.getCategoryManager().getByUUID(this.owningCategory);
+				if (category.getItems().removeIf(item -> item.getId().equals(this.id)))
+					Markets.getMarketManager().adjustItemCount(category.getOwningMarket(), -1);
+
 				Markets.getCategoryItemManager().remove(this);
+				Markets.getOfferManager().invalidate(this.id);
+				Markets.getMarketManager().refreshRanking(category.getOwningMarket());
+				Markets.getCategoryManager().getLiveViews().markDirty(this.owningCategory);
 			}
 
 			if (syncResult != null)
@@ -195,22 +211,24 @@ public final class CategoryItem implements MarketItem {
 
 	@Override
 	public void sync(@Nullable Consumer<SynchronizeResult> syncResult) {
-		Markets.getDataManager().updateMarketItem(this, (error, updateStatus) -> {
-			if (syncResult != null)
-				syncResult.accept(error == null ? updateStatus ? SynchronizeResult.SUCCESS : SynchronizeResult.FAILURE : SynchronizeResult.FAILURE);
-		});
+		Markets.getWriteBehindQueue().queue(this, syncResult);
+		Markets.getCategoryManager().getLiveViews().markDirty(this.owningCategory);
+		Markets.getCategoryItemManager().getMatchingEngine().listingChanged(this);
+		Markets.getOfferManager().invalidateUnfillable(this);
 	}
 
 	@Override
 	public void performPurchase(@NonNull final Market market, @NonNull Player buyer, int quantity, Consumer<TransactionResult> transactionResult) {
+		// a price for the whole stack is only charged for the whole stack
+		final Reservation reservation = reserve(quantity, !this.priceIsForAll);
 
-		if (!this.infinite && this.stock == 0) {//todo add check to prevent multiple purchases
+		if (reservation == null) {
 			transactionResult.accept(TransactionResult.FAILED_OUT_OF_STOCK);
 			Common.tell(buyer, TranslationManager.string(buyer, Translations.ITEM_OUT_OF_STOCK));
 			return;
 		}
 
-		final int newPurchaseAmount = this.infinite ? quantity : Math.min(quantity, stock);
+		final int newPurchaseAmount = reservation.quantity();
 
 		final double subtotal = this.priceIsForAll ? this.price : this.price * newPurchaseAmount;
 		final double total = subtotal;
@@ -218,119 +236,164 @@ public final class CategoryItem implements MarketItem {
 		final String currencyPlugin = this.currency.split("/")[0];
 		final String currencyName = this.currency.split("/")[1];
 
-		final boolean hasEnoughMoney = this.isCurrencyOfItem() ? Markets.getCurrencyManager().has(buyer, this.currencyItem, (int) Taxer.getTaxedTotal(total)) : Markets.getCurrencyManager().has(buyer, currencyPlugin, currencyName, Taxer.getTaxedTotal(total));
+		boolean withdrawResult = false;
 
-		if (!hasEnoughMoney) {
-			Common.tell(buyer, TranslationManager.string(buyer, Translations.NO_MONEY));
-			transactionResult.accept(TransactionResult.FAILED_NO_MONEY);
-			return;
-		}
+		try {
+			final boolean hasEnoughMoney = this.isCurrencyOfItem() ? Markets.getCurrencyManager().has(buyer, this.currencyItem, (int) Taxer.getTaxedTotal(total)) : Markets.getCurrencyManager().has(buyer, currencyPlugin, currencyName, Taxer.getTaxedTotal(total));
 
-		final boolean withdrawResult = this.isCurrencyOfItem() ? Markets.getCurrencyManager().withdraw(buyer, this.currencyItem, (int) Taxer.getTaxedTotal(total)) : Markets.getCurrencyManager().withdraw(buyer, currencyPlugin, currencyName, Taxer.getTaxedTotal(total));
+			if (!hasEnoughMoney) {
+				Common.tell(buyer, TranslationManager.string(buyer, Translations.NO_MONEY));
+				transactionResult.accept(TransactionResult.FAILED_NO_MONEY);
+				return;
+			}
 
-		if (withdrawResult) {
-			final ItemStack updatedItem = this.item.clone();
-			updatedItem.setAmount(1);
+			withdrawResult = this.isCurrencyOfItem() ? Markets.getCurrencyManager().withdraw(buyer, this.currencyItem, (int) Taxer.getTaxedTotal(total)) : Markets.getCurrencyManager().withdraw(buyer, currencyPlugin, currencyName, Taxer.getTaxedTotal(total));
+		} finally {
+			// the reserved stock goes back unless the buyer actually paid for it
+			if (!withdrawResult)
+				releaseStock(reservation.quantity());
+		}
 
-			for (int i = 0; i < newPurchaseAmount; i++)
-				PlayerUtil.giveItem(buyer, updatedItem);
+		if (!withdrawResult) {
+			transactionResult.accept(TransactionResult.ERROR);
+			return;
+		}
 
-			final int newStock = this.stock - newPurchaseAmount;
-			final OfflinePlayer seller = Bukkit.getOfflinePlayer(market.getOwnerUUID());
+		completePurchase(market, buyer, reservation, total, currencyPlugin, currencyName, transactionResult);
+	}
 
-			if (newStock <= 0) {
-				if (!this.infinite) {
-					getViewingPlayers().forEach(viewingUser -> {
-						viewingUser.closeInventory();
-						Common.tell(viewingUser, TranslationManager.string(viewingUser, Translations.ITEM_OUT_OF_STOCK));
-					});
+	private void completePurchase(@NonNull final Market market, @NonNull Player buyer, @NonNull final Reservation reservation, final double total, final String currencyPlugin, final String currencyName, Consumer<TransactionResult> transactionResult) {
+		final int newPurchaseAmount = reservation.quantity();
 
-					this.stock = 0;
+		ItemDelivery.deliver(buyer, this.item, newPurchaseAmount);
 
-					if (Settings.AUTO_REMOVE_ITEM_WHEN_OUT_OF_STOCK.getBoolean()) {
-						unStore(result -> alertOutOfStock(seller, buyer, newPurchaseAmount));
-					} else {
-						sync(result -> alertOutOfStock(seller, buyer, newPurchaseAmount));
-					}
-				} else {
-					if (seller.isOnline()) {
-						Common.tell(seller.getPlayer(), TranslationManager.string(seller.getPlayer(), Translations.MARKET_ITEM_BOUGHT_SELLER,
-								"purchase_price", isCurrencyOfItem() ? total : (int) total,
-								"purchase_quantity", newPurchaseAmount,
-								"item_name", ItemUtil.getItemName(this.item),
-								"buyer_name", buyer.getName()
-						));
-					}
-				}
+		final OfflinePlayer seller = Bukkit.getOfflinePlayer(market.getOwnerUUID());
 
+		if (this.infinite) {
+			if (seller.isOnline()) {
+				Common.tell(seller.getPlayer(), TranslationManager.string(seller.getPlayer(), Translations.MARKET_ITEM_BOUGHT_SELLER,
+						"purchase_price", isCurrencyOfItem() ? total : (int) total,
+						"purchase_quantity", newPurchaseAmount,
+						"item_name", ItemUtil.getItemName(this.item),
+						"buyer_name", buyer.getName()
+				));
+			}
+		} else if (reservation.remaining() <= 0) {
+			// only the purchase that took the last unit gets here, so the item is removed exactly once
+			getViewingPlayers().forEach(viewingUser -> {
+				viewingUser.closeInventory();
+				Common.tell(viewingUser, TranslationManager.string(viewingUser, Translations.ITEM_OUT_OF_STOCK));
+			});
+
+			if (Settings.AUTO_REMOVE_ITEM_WHEN_OUT_OF_STOCK.getBoolean()) {
+				unStore(result -> {
+					// a listing that could not be deleted stays listed, its empty stock still has to be saved
+					if (result != SynchronizeResult.SUCCESS)
+						sync(this::reportUnsavedStock);
+
+					alertOutOfStock(seller, buyer, newPurchaseAmount);
+				});
 			} else {
-				if (!this.infinite) {
-					setStock(newStock);
-					sync(result -> {
-						if (seller.isOnline()) {
-							Common.tell(seller.getPlayer(), TranslationManager.string(seller.getPlayer(), Translations.MARKET_ITEM_BOUGHT_SELLER,
-									"purchase_quantity", newPurchaseAmount,
-									"item_name", ItemUtil.getItemName(this.item),
-									"buyer_name", buyer.getName()
-							));
-						}
-					});
-				} else {
-					if (seller.isOnline()) {
-						Common.tell(seller.getPlayer(), TranslationManager.string(seller.getPlayer(), Translations.MARKET_ITEM_BOUGHT_SELLER,
+				sync(result -> {
+					reportUnsavedStock(result);
+					alertOutOfStock(seller, buyer, newPurchaseAmount);
+				});
+			}
+		} else {
+			sync(result -> {
+				reportUnsavedStock(result);
+
+				if (seller.isOnline()) {
+					Common.tell(seller.getPlayer(), TranslationManager.string(seller.getPlayer(), Translations.MARKET_ITEM_BOUGHT_SELLER,
+							"purchase_quantity", newPurchaseAmount,
+							"item_name", ItemUtil.getItemName(this.item),
+							"buyer_name", buyer.getName()
+					));
+				}
+			});
+		}
+
+		if (isCurrencyOfItem()) {
+			if (seller.isOnline() && seller.getPlayer() != null)
+				Markets.getCurrencyManager().deposit(seller.getPlayer(), this.currencyItem, (int) total);
+			else
+				Markets.getOfflineItemPaymentManager().create(
+						seller.getUniqueId(),
+						this.currencyItem,
+						(int) total,
+						TranslationManager.string(seller.getPlayer(), Translations.MARKET_ITEM_BOUGHT_SELLER,
 								"purchase_price", isCurrencyOfItem() ? total : (int) total,
 								"purchase_quantity", newPurchaseAmount,
 								"item_name", ItemUtil.getItemName(this.item),
 								"buyer_name", buyer.getName()
-						));
-					}
-				}
-			}
+						), created -> {
+							// todo maybe do something here
+						});
+		} else {
+			Markets.getCurrencyManager().deposit(seller, currencyPlugin, currencyName, total);
+		}
 
-			if (isCurrencyOfItem()) {
-				if (seller.isOnline() && seller.getPlayer() != null)
-					Markets.getCurrencyManager().deposit(seller.getPlayer(), this.currencyItem, (int) total);
-				else
-					Markets.getOfflineItemPaymentManager().create(
-							seller.getUniqueId(),
-							this.currencyItem,
-							(int) total,
-							TranslationManager.string(seller.getPlayer(), Translations.MARKET_ITEM_BOUGHT_SELLER,
-									"purchase_price", isCurrencyOfItem() ? total : (int) total,
-									"purchase_quantity", newPurchaseAmount,
-									"item_name", ItemUtil.getItemName(this.item),
-									"buyer_name", buyer.getName()
-							), created -> {
-								// todo maybe do something here
-							});
-			} else {
-				Markets.getCurrencyManager().deposit(seller, currencyPlugin, currencyName, total);
-			}
+		Common.tell(buyer, TranslationManager.string(buyer, Translations.MARKET_ITEM_BOUGHT_BUYER,
+				"purchase_price", isCurrencyOfItem() ? total : (int) total,
+				"purchase_quantity", newPurchaseAmount,
+				"item_name", ItemUtil.getItemName(this.item),
+				"seller_name", market.getOwnerName()
+		));
+
+		// call transaction event
+		final double totalFixed = isCurrencyOfItem() ? (int) total : total;
+		Bukkit.getServer().getPluginManager().callEvent(new MarketTransactionEvent(
+				buyer,
+				seller,
+				TransactionType.ITEM_PURCHASE,
+				this.item,
+				getCurrencyDisplayName(),
+				newPurchaseAmount,
+				totalFixed
+		));
+
+		transactionResult.accept(TransactionResult.SUCCESS);
+	}
 
-			Common.tell(buyer, TranslationManager.string(buyer, Translations.MARKET_ITEM_BOUGHT_BUYER,
-					"purchase_price", isCurrencyOfItem() ? total : (int) total,
-					"purchase_quantity", newPurchaseAmount,
-					"item_name", ItemUtil.getItemName(this.item),
-					"seller_name", market.getOwnerName()
-			));
+	@Override
+	public int reserveStock(final int quantity, final boolean partial) {
+		final Reservation reservation = reserve(quantity, partial);
+		return reservation == null ? 0 : reservation.quantity();
+	}
 
-			// call transaction event
-			final double totalFixed = isCurrencyOfItem() ? (int) total : total;
-			Bukkit.getServer().getPluginManager().callEvent(new MarketTransactionEvent(
-					buyer,
-					seller,
-					TransactionType.ITEM_PURCHASE,
-					this.item,
-					getCurrencyDisplayName(),
-					newPurchaseAmount,
-					totalFixed
-			));
+	@Override
+	public void releaseStock(final int quantity) {
+		if (!this.infinite && quantity > 0)
+			this.stock.addAndGet(quantity);
+	}
 
-			transactionResult.accept(TransactionResult.SUCCESS);
-			return;
+	/**
+	 * Takes stock out in a single compare and set, concurrent purchases of the same item can never take more than what is left.
+	 *
+	 * @param quantity the requested quantity
+	 * @param partial  whether to take what is left when that is less than the requested quantity
+	 * @return the reservation, or null if nothing was taken
+	 */
+	private Reservation reserve(final int quantity, final boolean partial) {
+		if (this.infinite)
+			return new Reservation(quantity, this.stock.get());
+
+		while (true) {
+			final int current = this.stock.get();
+			if (current <= 0 || quantity <= 0 || (!partial && current < quantity)) return null;
+
+			final int reserved = Math.min(quantity, current);
+			if (this.stock.compareAndSet(current, current - reserved))
+				return new Reservation(reserved, current - reserved);
 		}
+	}
 
-		transactionResult.accept(TransactionResult.ERROR);
+	/**
+	 * The write behind queue already retried the write, the stock in memory is right and is saved with the next change of the listing.
+	 */
+	private void reportUnsavedStock(final SynchronizeResult result) {
+		if (result != SynchronizeResult.SUCCESS)
+			Common.log("&cCould not save the stock of listing &e" + this.id + " &cafter a purchase, the database keeps the old stock until the listing is saved again");
 	}
 
 	private void alertOutOfStock(final OfflinePlayer seller, @NonNull final Player buyer, final int newPurchaseAmount) {
@@ -344,4 +407,7 @@ public final class CategoryItem implements MarketItem {
 			Common.tell(seller.getPlayer(), TranslationManager.string(seller.getPlayer(), Translations.MARKET_ITEM_OUT_OF_STOCK, "item_name", ItemUtil.getItemName(this.item)));
 		}
 	}
+
+	private record Reservation(int quantity, int remaining) {
+	}
 }
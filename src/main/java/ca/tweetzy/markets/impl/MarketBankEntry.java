@@ -66,9 +66,6 @@ public final class MarketBankEntry implements BankEntry {
 
 	@Override
 	public void sync(@Nullable Consumer<SynchronizeResult> syncResult) {
-		Markets.getDataManager().updateBankEntry(this, (error, updateStatus) -> {
-			if (syncResult != null)
-				syncResult.accept(error == null ? updateStatus ? SynchronizeResult.SUCCESS : SynchronizeResult.FAILURE : SynchronizeResult.FAILURE);
-		});
+		Markets.getWriteBehindQueue().queue(this, syncResult);
 	}
 }
@@ -3,6 +3,7 @@ package ca.tweetzy.markets.impl;
 import ca.tweetzy.markets.Markets;
 import ca.tweetzy.markets.api.SynchronizeResult;
 import ca.tweetzy.markets.api.market.core.Category;
+import ca.tweetzy.markets.api.market.core.Market;
 import ca.tweetzy.markets.api.market.core.MarketItem;
 import lombok.NonNull;
 import org.bukkit.entity.Player;
@@ -147,8 +148,12 @@ public final class MarketCategory implements Category {
 	public void unStore(@Nullable Consumer<SynchronizeResult> syncResult) {
 		Markets.getDataManager().deleteCategory(this, (error, updateStatus) -> {
 			if (updateStatus) {
-				Markets.getMarketManager().getByUUID(this.owningMarket).getCategories().removeIf(category -> category.getId().equals(this.id));
+				final Market market = Markets.getMarketManager().getByUUID(this.owningMarket);
+				if (market.getCategories().removeIf(category -> category.getId().equals(this.id)))
+					market.adjustItemCount(-this.items.size());
+
 				Markets.getCategoryManager().remove(this);
+				Markets.getMarketManager().refreshRanking(this.owningMarket);
 			}
 
 			if (syncResult != null)
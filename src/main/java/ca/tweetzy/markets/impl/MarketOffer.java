@@ -151,8 +151,10 @@ public final class MarketOffer implements Offer {
 		final String currencyPlugin = this.currency.split("/")[0];
 		final String currencyName = this.currency.split("/")[1];
 
+		final BankEntry entry = isCurrencyOfItem() ? Markets.getBankManager().getEntryByPlayer(this.sender, this.currencyItem) : null;
+
 		boolean hasEnoughMoney = isCurrencyOfItem() ?
-				Markets.getBankManager().getEntryCountByPlayer(this.sender, this.currencyItem) >= (int) this.offeredAmount :
+				entry != null && entry.getQuantity() >= (int) this.offeredAmount :
 				Markets.getCurrencyManager().has(offerSender, currencyPlugin, currencyName, this.offeredAmount);
 
 		if (!hasEnoughMoney) {
@@ -165,7 +167,6 @@ public final class MarketOffer implements Offer {
 		}
 
 		if (isCurrencyOfItem()) {
-			final BankEntry entry = Markets.getBankManager().getEntryByPlayer(this.sender, this.currencyItem);
 			final int newTotal = entry.getQuantity() - (int) this.offeredAmount;
 
 			if (newTotal <= 0) {
@@ -114,9 +114,6 @@ public final class MarketPlayer implements MarketUser {
 	}
 
 	public void sync(@Nullable Consumer<SynchronizeResult> syncResult) {
-		Markets.getDataManager().updateMarketUser(this, (error, updateStatus) -> {
-			if (syncResult != null)
-				syncResult.accept(error == null ? updateStatus ? SynchronizeResult.SUCCESS : SynchronizeResult.FAILURE : SynchronizeResult.FAILURE);
-		});
+		Markets.getWriteBehindQueue().queue(this, syncResult);
 	}
 }
@@ -9,6 +9,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 public final class PlayerMarket extends AbstractMarket {
@@ -22,7 +23,8 @@ public final class PlayerMarket extends AbstractMarket {
 	private String ownerName;
 
 	private final List<Category> categories;
-	private final List<Rating> ratings;
+	private final RatingSummary ratingSummary;
+	private final AtomicInteger itemCount = new AtomicInteger();
 	private final List<UUID> bannedUsers;
 	private boolean open;
 	private boolean closeWhenOutOfStock;
@@ -38,7 +40,7 @@ public final class PlayerMarket extends AbstractMarket {
 			@NonNull final String displayName,
 			@NonNull final List<String> description,
 			@NonNull final List<Category> categories,
-			@NonNull final List<Rating> ratings,
+			@NonNull final RatingSummary ratingSummary,
 			@NonNull final List<UUID> bannedUsers,
 			final boolean open,
 			final boolean closeWhenOutOfStock,
@@ -54,7 +56,8 @@ public final class PlayerMarket extends AbstractMarket {
 		this.displayName = displayName;
 		this.description = description;
 		this.categories = categories;
-		this.ratings = ratings;
+		this.ratingSummary = ratingSummary;
+		categories.forEach(category -> this.itemCount.addAndGet(category.getItems().size()));
 		this.bannedUsers = bannedUsers;
 		this.open = open;
 		this.closeWhenOutOfStock = closeWhenOutOfStock;
@@ -95,8 +98,18 @@ public final class PlayerMarket extends AbstractMarket {
 	}
 
 	@Override
-	public @NonNull List<Rating> getRatings() {
-		return this.ratings;
+	public @NonNull RatingSummary getRatingSummary() {
+		return this.ratingSummary;
+	}
+
+	@Override
+	public int getItemCount() {
+		return this.itemCount.get();
+	}
+
+	@Override
+	public void adjustItemCount(int amount) {
+		this.itemCount.addAndGet(amount);
 	}
 
 	@Override
@@ -170,10 +183,8 @@ public final class PlayerMarket extends AbstractMarket {
 	@Override
 	public void sync(@Nullable Consumer<SynchronizeResult> syncResult) {
 		this.updatedAt = System.currentTimeMillis();
-		Markets.getDataManager().updateMarket(this, (error, updateStatus) -> {
-			if (syncResult != null)
-				syncResult.accept(error == null ? updateStatus ? SynchronizeResult.SUCCESS : SynchronizeResult.FAILURE : SynchronizeResult.FAILURE);
-		});
+		Markets.getWriteBehindQueue().queue(this, syncResult);
+		Markets.getMarketManager().refreshRanking(this.id);
 	}
 
 	@Override
@@ -2,6 +2,7 @@ package ca.tweetzy.markets.impl.currency;
 
 import ca.tweetzy.flight.utils.PlayerUtil;
 import ca.tweetzy.markets.api.currency.AbstractCurrency;
+import ca.tweetzy.markets.model.ItemDelivery;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.inventory.ItemStack;
 
@@ -25,8 +26,7 @@ public final class ItemCurrency extends AbstractCurrency {
 	public boolean deposit(OfflinePlayer player, double amount, ItemStack item) {
 		if (player == null || player.getPlayer() == null || !player.isOnline()) return false;
 
-		for (int i = 0; i < amount; i++)
-			PlayerUtil.giveItem(player.getPlayer(), item);
+		ItemDelivery.deliver(player.getPlayer(), item, (int) amount);
 
 		return true;
 	}
@@ -32,7 +32,7 @@ public final class MarketTransactionListener implements Listener {
 			if (storeTransaction == null)
 				Common.log("&CSomething went wrong while trying to store transaction: &d" + transaction.getId().toString());
 			else
-				Markets.getTransactionManager().add(storeTransaction);
+				Markets.getTransactionManager().track(storeTransaction);
 		});
 
 		// create an offline notification for the player
@@ -4,7 +4,6 @@ import ca.tweetzy.flight.settings.TranslationManager;
 import ca.tweetzy.flight.utils.Common;
 import ca.tweetzy.markets.Markets;
 import ca.tweetzy.markets.api.SynchronizeResult;
-import ca.tweetzy.markets.api.market.Transaction;
 import ca.tweetzy.markets.api.market.core.Market;
 import ca.tweetzy.markets.api.market.core.MarketUser;
 import ca.tweetzy.markets.settings.Translations;
@@ -12,17 +11,25 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.util.List;
-
 public final class PlayerJoinListener implements Listener {
 
 	@EventHandler
 	public void onPlayerJoin(final PlayerJoinEvent event) {
 		final Player player = event.getPlayer();
+		Markets.getPlayerManager().refreshLimits(player);
 
+		// profiles aren't loaded yet, handling the join now would create a duplicate one
+		Markets.getBootstrap().whenReady(() -> {
+			if (player.isOnline())
+				handleJoin(player);
+		});
+	}
+
+	private void handleJoin(final Player player) {
 		final MarketUser marketUser = Markets.getPlayerManager().get(player.getUniqueId());
 
 		if (marketUser != null) {
@@ -41,6 +48,7 @@ public final class PlayerJoinListener implements Listener {
 			if (market != null) {
 				if (!market.getOwnerName().equalsIgnoreCase(player.getName())) {
 					market.setOwnerName(player.getName());
+					Markets.getMarketManager().reindex(market);
 					market.sync(result -> {
 						if (result == SynchronizeResult.FAILURE)
 							Common.log("&cSomething went wrong while updating the market owner name for&F: &e" + player.getName());
@@ -48,11 +56,15 @@ public final class PlayerJoinListener implements Listener {
 				}
 			}
 
-			final List<Transaction> offlineTransactions = Markets.getTransactionManager().getOfflineTransactionsFor(player.getUniqueId());
-			if (offlineTransactions.isEmpty()) return;
+			Markets.getTransactionManager().countOfflineTransactionsFor(player.getUniqueId(), offlineSales -> {
+				if (offlineSales == 0) return;
+
+				// they had sales when offline, let them know
+				Bukkit.getServer().getScheduler().runTaskLaterAsynchronously(Markets.getInstance(), () -> Common.tellNoPrefix(player, TranslationManager.list(player, Translations.OFFLINE_SALES_INFO, "offline_sales_amount", offlineSales)), 20L);
+			});
 
-			// they had sales when offline, let them know
-			Bukkit.getServer().getScheduler().runTaskLaterAsynchronously(Markets.getInstance(), () -> Common.tellNoPrefix(player, TranslationManager.list(player, Translations.OFFLINE_SALES_INFO, "offline_sales_amount", offlineTransactions.size())), 20L);
+			// offers of theirs that were dropped while they were away
+			Markets.getOfferManager().tellPendingRejections(player);
 
 			return;
 		}
@@ -69,7 +81,10 @@ public final class PlayerJoinListener implements Listener {
 	@EventHandler
 	public void onPlayerQuit(final PlayerQuitEvent event) {
 		final Player player = event.getPlayer();
+		Markets.getPlayerManager().forgetLimits(player.getUniqueId());
+
 		final MarketUser marketUser = Markets.getPlayerManager().get(player.getUniqueId());
+		if (marketUser == null) return;
 
 		marketUser.setLastSeenAt(System.currentTimeMillis());
 		marketUser.sync(result -> {
@@ -78,4 +93,10 @@ public final class PlayerJoinListener implements Listener {
 
 		});
 	}
+
+	@EventHandler
+	public void onWorldChange(final PlayerChangedWorldEvent event) {
+		// per world permissions can change the limits
+		Markets.getPlayerManager().refreshLimits(event.getPlayer());
+	}
 }
@@ -0,0 +1,46 @@
+package ca.tweetzy.markets.listeners;
+
+import ca.tweetzy.flight.settings.TranslationManager;
+import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.settings.Settings;
+import ca.tweetzy.markets.settings.Translations;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+
+public final class StartupGateListener implements Listener {
+
+	@EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+	public void onPlayerCommand(final PlayerCommandPreprocessEvent event) {
+		if (Markets.getBootstrap().isReady() || !isMarketsCommand(event.getMessage())) return;
+
+		event.setCancelled(true);
+		Common.tell(event.getPlayer(), TranslationManager.string(event.getPlayer(), Translations.STILL_LOADING));
+	}
+
+	@EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+	public void onServerCommand(final ServerCommandEvent event) {
+		if (Markets.getBootstrap().isReady() || !isMarketsCommand(event.getCommand())) return;
+
+		event.setCancelled(true);
+		Common.tell(event.getSender(), TranslationManager.string(Translations.STILL_LOADING));
+	}
+
+	private boolean isMarketsCommand(final String commandLine) {
+		String label = commandLine.startsWith("/") ? commandLine.substring(1) : commandLine;
+
+		final int space = label.indexOf(' ');
+		if (space != -1) label = label.substring(0, space);
+
+		final int namespace = label.indexOf(':');
+		if (namespace != -1) label = label.substring(namespace + 1);
+
+		for (final String alias : Settings.CMD_ALIAS_MAIN.getStringList())
+			if (alias.equalsIgnoreCase(label)) return true;
+
+		return false;
+	}
+}
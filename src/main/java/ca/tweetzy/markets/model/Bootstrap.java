@@ -0,0 +1,129 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.markets.api.manager.Manager;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs the startup stages in order off the main thread, managers within a stage load in parallel.
+ * Until every stage has finished {@link #isReady()} is false and tasks passed to {@link #whenReady(Runnable)} are held back.
+ */
+public final class Bootstrap {
+
+	private final Plugin plugin;
+	private final List<Stage> stages = new ArrayList<>();
+	private final List<Runnable> readyTasks = new ArrayList<>();
+
+	private volatile boolean ready;
+	private volatile boolean failed;
+
+	public Bootstrap(@NonNull final Plugin plugin) {
+		this.plugin = plugin;
+	}
+
+	/**
+	 * Adds a blocking stage that runs on an async thread, such as the database migrations.
+	 */
+	public Bootstrap runAsync(@NonNull final String name, @NonNull final Runnable task) {
+		this.stages.add(new Stage(name, () -> CompletableFuture.runAsync(task, runnable -> Bukkit.getServer().getScheduler().runTaskAsynchronously(this.plugin, runnable))));
+		return this;
+	}
+
+	/**
+	 * Adds a stage that starts every manager load on the main thread and finishes once all of them are loaded.
+	 */
+	public Bootstrap load(@NonNull final String name, @NonNull final Manager... managers) {
+		this.stages.add(new Stage(name, () -> {
+			final CompletableFuture<Void> started = new CompletableFuture<>();
+
+			Bukkit.getServer().getScheduler().runTask(this.plugin, () -> {
+				try {
+					Arrays.stream(managers).forEach(this::loadTimed);
+					started.complete(null);
+				} catch (Exception e) {
+					started.completeExceptionally(e);
+				}
+			});
+
+			return started.thenCompose(ignored -> CompletableFuture.allOf(Arrays.stream(managers).map(Manager::getLoaded).toArray(CompletableFuture[]::new)));
+		}));
+		return this;
+	}
+
+	public void start() {
+		final long bootStart = System.nanoTime();
+		CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+
+		for (final Stage stage : this.stages)
+			chain = chain.thenCompose(ignored -> runTimed(stage));
+
+		chain.whenComplete((ignored, error) -> Bukkit.getServer().getScheduler().runTask(this.plugin, () -> {
+			if (error != null) {
+				this.failed = true;
+				Common.log("&cMarkets failed to start, commands will stay disabled&F: &e" + error.getMessage());
+				error.printStackTrace();
+				return;
+			}
+
+			final List<Runnable> tasks;
+			synchronized (this.readyTasks) {
+				this.ready = true;
+				tasks = new ArrayList<>(this.readyTasks);
+				this.readyTasks.clear();
+			}
+
+			Common.log("&aMarkets is ready, startup took &e" + millisSince(bootStart) + "ms");
+			tasks.forEach(Runnable::run);
+		}));
+	}
+
+	public boolean isReady() {
+		return this.ready;
+	}
+
+	public boolean isFailed() {
+		return this.failed;
+	}
+
+	/**
+	 * Holds the task back until startup has finished, if it already has the task runs right away.
+	 */
+	public void whenReady(@NonNull final Runnable task) {
+		synchronized (this.readyTasks) {
+			if (!this.ready) {
+				this.readyTasks.add(task);
+				return;
+			}
+		}
+
+		task.run();
+	}
+
+	private CompletableFuture<Void> runTimed(final Stage stage) {
+		final long start = System.nanoTime();
+
+		return stage.task().get().thenRun(() -> Common.log("&aFinished startup stage &e" + stage.name() + " &ain &e" + millisSince(start) + "ms"));
+	}
+
+	private void loadTimed(final Manager manager) {
+		final long start = System.nanoTime();
+
+		manager.load();
+		manager.getLoaded().thenRun(() -> Common.log("&aLoaded &e" + manager.getName() + " &ain &e" + millisSince(start) + "ms"));
+	}
+
+	private static long millisSince(final long start) {
+		return (System.nanoTime() - start) / 1_000_000L;
+	}
+
+	private record Stage(String name, Supplier<CompletableFuture<Void>> task) {
+	}
+}
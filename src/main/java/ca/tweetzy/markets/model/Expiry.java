@@ -0,0 +1,97 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.flight.config.ConfigEntry;
+import ca.tweetzy.flight.database.Callback;
+import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.api.Identifiable;
+import ca.tweetzy.markets.api.Trackable;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Removes elements of a manager once they're older than a configured number of hours. Elements are kept in a {@link TimingWheel}
+ * keyed by their creation time, so each sweep only looks at what just expired instead of every element. Sweeps are run by the
+ * {@link ExpiryScheduler} the expiry is registered with.
+ */
+public final class Expiry<T extends Identifiable & Trackable> {
+
+	private static final long RESOLUTION = 1000L;
+
+	private final String name;
+	private final ConfigEntry hoursToLive;
+	private final Function<UUID, T> lookup;
+	private final BiConsumer<Collection<UUID>, Callback<Integer>> delete;
+	private final Consumer<T> remove;
+	private final TimingWheel<UUID> wheel = new TimingWheel<>(RESOLUTION);
+
+	/**
+	 * @param name        what the elements are called in the log
+	 * @param hoursToLive the setting holding how long an element lives, 0 or less disables expiry
+	 * @param lookup      finds the element in the manager, null if it was removed in the meantime
+	 * @param delete      deletes a batch of ids from the database
+	 * @param remove      removes an element from the manager, always called on the main thread
+	 */
+	public Expiry(@NonNull final String name, @NonNull final ConfigEntry hoursToLive, @NonNull final Function<UUID, T> lookup, @NonNull final BiConsumer<Collection<UUID>, Callback<Integer>> delete, @NonNull final Consumer<T> remove) {
+		this.name = name;
+		this.hoursToLive = hoursToLive;
+		this.lookup = lookup;
+		this.delete = delete;
+		this.remove = remove;
+	}
+
+	public void track(@NonNull final T t) {
+		this.wheel.schedule(t.getId(), t.getTimeCreated());
+	}
+
+	public void untrack(@NonNull final T t) {
+		this.wheel.cancel(t.getId());
+	}
+
+	public void clear() {
+		this.wheel.clear();
+	}
+
+	/**
+	 * Deletes everything that expired since the last sweep as one batch, then drops it from the manager on the main thread.
+	 * The wheel's clock runs a full lifetime behind the real one, which lets a reload change the lifetime of elements already tracked.
+	 */
+	public void sweep() {
+		final long lifetime = TimeUnit.HOURS.toMillis(this.hoursToLive.getInt());
+		if (lifetime <= 0) return;
+
+		final List<UUID> expired = this.wheel.advanceTo(System.currentTimeMillis() - lifetime);
+		if (expired.isEmpty()) return;
+
+		this.delete.accept(expired, (error, deleted) -> {
+			if (error != null) {
+				// put them back so the next sweep tries again
+				expired.forEach(id -> {
+					final T t = this.lookup.apply(id);
+					if (t != null)
+						track(t);
+				});
+				return;
+			}
+
+			// matching runs on the main thread, removing there keeps the books from changing under a match
+			Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), () -> {
+				expired.forEach(id -> {
+					final T t = this.lookup.apply(id);
+					if (t != null)
+						this.remove.accept(t);
+				});
+
+				Common.log("&aRemoved &e" + deleted + " &aexpired " + this.name);
+			});
+		});
+	}
+}
@@ -0,0 +1,49 @@
+package ca.tweetzy.markets.model;
+
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Sweeps every registered {@link Expiry} from one async timer. The timer is started once, reloading a manager only refills its expiry.
+ */
+public final class ExpiryScheduler {
+
+	private final Plugin plugin;
+	private final long sweepInterval;
+	private final List<Expiry<?>> expiries = new CopyOnWriteArrayList<>();
+
+	private BukkitTask sweepTask;
+
+	public ExpiryScheduler(@NonNull final Plugin plugin, final long sweepInterval) {
+		this.plugin = plugin;
+		this.sweepInterval = Math.max(1, sweepInterval);
+	}
+
+	public ExpiryScheduler register(@NonNull final Expiry<?> expiry) {
+		if (!this.expiries.contains(expiry))
+			this.expiries.add(expiry);
+
+		return this;
+	}
+
+	public void start() {
+		if (this.sweepTask != null) return;
+		this.sweepTask = Bukkit.getServer().getScheduler().runTaskTimerAsynchronously(this.plugin, this::sweep, this.sweepInterval, this.sweepInterval);
+	}
+
+	public void shutdown() {
+		if (this.sweepTask == null) return;
+
+		this.sweepTask.cancel();
+		this.sweepTask = null;
+	}
+
+	private void sweep() {
+		this.expiries.forEach(Expiry::sweep);
+	}
+}
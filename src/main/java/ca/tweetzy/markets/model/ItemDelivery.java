@@ -0,0 +1,91 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.flight.settings.TranslationManager;
+import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.flight.utils.ItemUtil;
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.settings.Translations;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+@UtilityClass
+public final class ItemDelivery {
+
+	/**
+	 * Gives a player any quantity of an item in full stacks, whatever doesn't fit
+	 * is stored as an offline payment so it can be collected later instead of being dropped.
+	 *
+	 * @param player   the player receiving the items
+	 * @param item     the item to give, its amount is ignored
+	 * @param quantity the total number of units to give
+	 */
+	public void deliver(@NonNull final Player player, @NonNull final ItemStack item, final int quantity) {
+		if (quantity <= 0) return;
+
+		if (!Bukkit.isPrimaryThread()) {
+			Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), () -> deliver(player, item, quantity));
+			return;
+		}
+
+		final int overflow = fill(player.getInventory(), item, quantity);
+		if (overflow <= 0) return;
+
+		final ItemStack unit = item.clone();
+		unit.setAmount(1);
+
+		Markets.getOfflineItemPaymentManager().create(player.getUniqueId(), unit, overflow, TranslationManager.string(player, Translations.INVENTORY_FULL_PAYMENT), created -> {
+			if (created)
+				Common.tell(player, TranslationManager.string(player, Translations.INVENTORY_FULL, "item_quantity", overflow, "item_name", ItemUtil.getItemName(unit)));
+		});
+	}
+
+	/**
+	 * Tops up similar stacks and then fills empty slots, the inventory contents are read and written once.
+	 *
+	 * @param inventory the inventory to fill
+	 * @param item      the item to add, its amount is ignored
+	 * @param quantity  the total number of units to add
+	 * @return the number of units that did not fit
+	 */
+	public int fill(@NonNull final PlayerInventory inventory, @NonNull final ItemStack item, final int quantity) {
+		final ItemStack[] contents = inventory.getStorageContents();
+		final int maxStackSize = Math.max(1, Math.min(item.getMaxStackSize(), inventory.getMaxStackSize()));
+		final int[] emptySlots = new int[contents.length];
+
+		int emptyCount = 0;
+		int remaining = quantity;
+
+		for (int slot = 0; slot < contents.length && remaining > 0; slot++) {
+			final ItemStack content = contents[slot];
+
+			if (content == null || content.getType().isAir()) {
+				emptySlots[emptyCount++] = slot;
+				continue;
+			}
+
+			if (content.getAmount() >= maxStackSize || !content.isSimilar(item)) continue;
+
+			final int added = Math.min(maxStackSize - content.getAmount(), remaining);
+			content.setAmount(content.getAmount() + added);
+			remaining -= added;
+		}
+
+		for (int i = 0; i < emptyCount && remaining > 0; i++) {
+			final int added = Math.min(maxStackSize, remaining);
+			final ItemStack stack = item.clone();
+			stack.setAmount(added);
+
+			contents[emptySlots[i]] = stack;
+			remaining -= added;
+		}
+
+		if (remaining != quantity)
+			inventory.setStorageContents(contents);
+
+		return remaining;
+	}
+}
@@ -0,0 +1,21 @@
+package ca.tweetzy.markets.model;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * A hash of an item that ignores its amount, similar items always share a fingerprint.
+ * Different items can collide, so matches found through a fingerprint still have to be checked with {@link ItemStack#isSimilar(ItemStack)}.
+ */
+@UtilityClass
+public final class ItemFingerprint {
+
+	public int of(@NonNull final ItemStack item) {
+		if (item.getAmount() == 1) return item.hashCode();
+
+		final ItemStack single = item.clone();
+		single.setAmount(1);
+		return single.hashCode();
+	}
+}
@@ -0,0 +1,132 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.flight.utils.ItemUtil;
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import lombok.NonNull;
+import org.bukkit.ChatColor;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * An inverted index from item tokens (display name, material, lore and enchantments) to market item ids.
+ * Every keyword of a search is treated as a prefix, an item matches when each keyword prefixes at least one of its tokens.
+ */
+public final class ItemSearchIndex {
+
+	private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+	private final NavigableSet<String> tokens = new ConcurrentSkipListSet<>();
+	private final Map<UUID, Set<String>> itemTokens = new ConcurrentHashMap<>();
+
+	public synchronized void index(@NonNull final MarketItem marketItem) {
+		remove(marketItem.getId());
+
+		final Set<String> extracted = tokenize(marketItem.getItem());
+		extracted.forEach(token -> {
+			this.postings.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(marketItem.getId());
+			this.tokens.add(token);
+		});
+
+		this.itemTokens.put(marketItem.getId(), extracted);
+	}
+
+	public synchronized void remove(@NonNull final UUID id) {
+		final Set<String> extracted = this.itemTokens.remove(id);
+		if (extracted == null) return;
+
+		extracted.forEach(token -> {
+			final Set<UUID> ids = this.postings.get(token);
+			if (ids == null) return;
+
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				this.postings.remove(token);
+				this.tokens.remove(token);
+			}
+		});
+	}
+
+	public synchronized void clear() {
+		this.postings.clear();
+		this.tokens.clear();
+		this.itemTokens.clear();
+	}
+
+	/**
+	 * Finds every indexed item matching all the given keywords.
+	 *
+	 * @param keywords the raw search string
+	 * @return the ids of the matching items in no particular order, empty if there are no keywords
+	 */
+	public Set<UUID> search(@NonNull final String keywords) {
+		final List<String> terms = new ArrayList<>(split(keywords));
+		if (terms.isEmpty()) return Collections.emptySet();
+
+		// longer terms are more selective, start the intersection with them
+		terms.sort(Comparator.comparingInt(String::length).reversed());
+
+		Set<UUID> result = null;
+		for (final String term : terms) {
+			final Set<UUID> matches = new HashSet<>();
+
+			for (final String token : this.tokens.subSet(term, true, term + Character.MAX_VALUE, false)) {
+				final Set<UUID> ids = this.postings.get(token);
+				if (ids == null) continue;
+
+				if (result == null) matches.addAll(ids);
+				else ids.stream().filter(result::contains).forEach(matches::add);
+			}
+
+			if (matches.isEmpty()) return Collections.emptySet();
+			result = matches;
+		}
+
+		return result;
+	}
+
+	public int size() {
+		return this.itemTokens.size();
+	}
+
+	private static Set<String> tokenize(final ItemStack item) {
+		final Set<String> extracted = new HashSet<>(split(ItemUtil.getItemName(item)));
+
+		extracted.addAll(split(item.getType().name()));
+
+		final ItemMeta meta = item.getItemMeta();
+		if (meta == null) return extracted;
+
+		if (meta.hasDisplayName())
+			extracted.addAll(split(meta.getDisplayName()));
+
+		if (meta.hasLore() && meta.getLore() != null)
+			meta.getLore().forEach(line -> extracted.addAll(split(line)));
+
+		meta.getEnchants().keySet().forEach(enchantment -> addEnchantment(extracted, enchantment));
+		if (meta instanceof EnchantmentStorageMeta storageMeta)
+			storageMeta.getStoredEnchants().keySet().forEach(enchantment -> addEnchantment(extracted, enchantment));
+
+		return extracted;
+	}
+
+	private static void addEnchantment(final Set<String> extracted, final Enchantment enchantment) {
+		extracted.addAll(split(enchantment.getKey().getKey()));
+	}
+
+	private static List<String> split(final String text) {
+		if (text == null || text.isEmpty()) return Collections.emptyList();
+
+		final String plain = ChatColor.stripColor(ChatColor.translateAlternateColorCodes('&', text)).toLowerCase(Locale.ROOT);
+		final List<String> parts = new ArrayList<>();
+
+		for (final String part : plain.split("[^\\p{L}\\p{N}]+"))
+			if (!part.isEmpty()) parts.add(part);
+
+		return parts;
+	}
+}
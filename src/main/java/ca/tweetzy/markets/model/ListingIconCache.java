@@ -0,0 +1,88 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.api.market.core.Market;
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.api.market.core.MarketUser;
+import ca.tweetzy.markets.settings.Settings;
+import lombok.NonNull;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Rendered listing icons per market item, view and language, so paging through a category reuses the built stacks.
+ * An icon is rebuilt when anything shown on it changed since it was rendered, and dropped when the item is removed or translations reload.
+ */
+public final class ListingIconCache {
+
+	public enum View {
+		CATEGORY,
+		SEARCH
+	}
+
+	private final Map<UUID, Map<String, Icon>> icons = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the cached icon if it still shows the current state of the item, otherwise renders and caches a new one.
+	 * The returned stack is shared between viewers and must not be modified.
+	 *
+	 * @param view       the gui the icon is drawn in
+	 * @param player     the viewer, used for the language
+	 * @param marketItem the listing
+	 * @param renderer   builds the icon when there is no up to date one
+	 */
+	public ItemStack get(@NonNull final View view, @NonNull final Player player, @NonNull final MarketItem marketItem, @NonNull final Supplier<ItemStack> renderer) {
+		final Map<String, Icon> rendered = this.icons.computeIfAbsent(marketItem.getId(), id -> new ConcurrentHashMap<>());
+		final String key = view.name() + ':' + languageOf(player);
+		final Market market = view == View.SEARCH ? marketItem.getOwningMarket() : null;
+
+		final Icon cached = rendered.get(key);
+		if (cached != null && cached.shows(marketItem, market))
+			return cached.stack();
+
+		final Icon icon = Icon.of(marketItem, market, renderer.get());
+		rendered.put(key, icon);
+		return icon.stack();
+	}
+
+	public void invalidate(@NonNull final UUID marketItemId) {
+		this.icons.remove(marketItemId);
+	}
+
+	public void clear() {
+		this.icons.clear();
+	}
+
+	private String languageOf(final Player player) {
+		final MarketUser user = Markets.getPlayerManager().get(player.getUniqueId());
+		return (user == null ? "" : user.getPreferredLanguage()) + '/' + player.getLocale();
+	}
+
+	private record Icon(ItemStack stack, ItemStack item, ItemStack currencyItem, String currency, double price, int stock, boolean priceForAll, boolean acceptingOffers, boolean offersDisabled, String ownerName, String marketName) {
+
+		static Icon of(final MarketItem marketItem, final Market market, final ItemStack stack) {
+			return new Icon(stack, marketItem.getItem(), marketItem.getCurrencyItem(), marketItem.getCurrency(), marketItem.getPrice(), marketItem.getStock(), marketItem.isPriceForAll(), marketItem.isAcceptingOffers(),
+					Settings.DISABLE_OFFERS.getBoolean(), market == null ? null : market.getOwnerName(), market == null ? null : market.getDisplayName());
+		}
+
+		boolean shows(final MarketItem marketItem, final Market market) {
+			// the item stacks are replaced rather than edited, so comparing references is enough
+			return this.item == marketItem.getItem()
+					&& this.currencyItem == marketItem.getCurrencyItem()
+					&& this.currency.equals(marketItem.getCurrency())
+					&& this.price == marketItem.getPrice()
+					&& this.stock == marketItem.getStock()
+					&& this.priceForAll == marketItem.isPriceForAll()
+					&& this.acceptingOffers == marketItem.isAcceptingOffers()
+					&& this.offersDisabled == Settings.DISABLE_OFFERS.getBoolean()
+					&& Objects.equals(this.ownerName, market == null ? null : market.getOwnerName())
+					&& Objects.equals(this.marketName, market == null ? null : market.getDisplayName());
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.api.market.core.Category;
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks the open views of every category and keeps them live. Changes to a category are collected and
+ * flushed once on the next tick, the in stock listings are worked out once and handed to every viewer.
+ */
+public final class LiveCategoryViews {
+
+	public interface Viewer {
+
+		/**
+		 * Called on the main thread with the current in stock listings of the category, the list is shared and must not be modified.
+		 */
+		void refresh(@NonNull List<MarketItem> inStockItems);
+	}
+
+	private final Map<UUID, Set<Viewer>> viewers = new ConcurrentHashMap<>();
+	private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+	public void open(@NonNull final UUID categoryId, @NonNull final Viewer viewer) {
+		this.viewers.computeIfAbsent(categoryId, id -> ConcurrentHashMap.newKeySet()).add(viewer);
+	}
+
+	public void close(@NonNull final UUID categoryId, @NonNull final Viewer viewer) {
+		this.viewers.computeIfPresent(categoryId, (id, open) -> {
+			open.remove(viewer);
+			return open.isEmpty() ? null : open;
+		});
+	}
+
+	/**
+	 * Marks a category as changed, its viewers are refreshed on the next tick. Does nothing if no one is viewing it.
+	 */
+	public void markDirty(@NonNull final UUID categoryId) {
+		if (!this.viewers.containsKey(categoryId)) return;
+
+		this.dirty.add(categoryId);
+		if (this.flushScheduled.compareAndSet(false, true))
+			Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), this::flush);
+	}
+
+	private void flush() {
+		this.flushScheduled.set(false);
+
+		final Iterator<UUID> iterator = this.dirty.iterator();
+		while (iterator.hasNext()) {
+			final UUID categoryId = iterator.next();
+			iterator.remove();
+
+			final Set<Viewer> open = this.viewers.get(categoryId);
+			final Category category = Markets.getCategoryManager().getByUUID(categoryId);
+			if (open == null || category == null) continue;
+
+			final List<MarketItem> inStockItems = List.copyOf(category.getInStockItems());
+			open.forEach(viewer -> viewer.refresh(inStockItems));
+		}
+	}
+}
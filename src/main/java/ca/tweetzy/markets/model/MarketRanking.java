@@ -0,0 +1,82 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.markets.api.market.MarketSortType;
+import ca.tweetzy.markets.api.market.core.Market;
+import ca.tweetzy.markets.api.market.core.RatingSummary;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Every market kept sorted once per {@link MarketSortType}, along with the aggregates the sorting and filtering need.
+ * A market is re-ranked when it changes, so listing the markets is a walk over an already sorted set.
+ */
+public final class MarketRanking {
+
+	private final Map<MarketSortType, NavigableSet<Ranked>> rankings = new EnumMap<>(MarketSortType.class);
+	private final Map<UUID, Ranked> ranked = new HashMap<>();
+
+	public MarketRanking() {
+		for (MarketSortType sortType : MarketSortType.values())
+			this.rankings.put(sortType, new TreeSet<>(comparatorFor(sortType).thenComparing(Ranked::id)));
+	}
+
+	/**
+	 * Recomputes the aggregates of a market and moves it to its new place in every ranking.
+	 */
+	public synchronized void refresh(@NonNull final Market market) {
+		remove(market.getId());
+
+		final Ranked entry = Ranked.of(market);
+		this.ranked.put(entry.id(), entry);
+		this.rankings.values().forEach(ranking -> ranking.add(entry));
+	}
+
+	public synchronized void remove(@NonNull final UUID marketId) {
+		final Ranked entry = this.ranked.remove(marketId);
+		if (entry != null)
+			this.rankings.values().forEach(ranking -> ranking.remove(entry));
+	}
+
+	public synchronized void clear() {
+		this.ranked.clear();
+		this.rankings.values().forEach(Set::clear);
+	}
+
+	/**
+	 * @param sortType      the order to list the markets in
+	 * @param excludedOwner an owner whose market should be left out, usually the viewer
+	 * @return the open markets that have at least one item, in ranking order
+	 */
+	public synchronized List<Market> getOpenMarkets(@NonNull final MarketSortType sortType, @Nullable final UUID excludedOwner) {
+		final List<Market> markets = new ArrayList<>();
+
+		for (Ranked entry : this.rankings.get(sortType))
+			if (entry.open() && entry.itemCount() > 0 && !entry.owner().equals(excludedOwner))
+				markets.add(entry.market());
+
+		return markets;
+	}
+
+	private static Comparator<Ranked> comparatorFor(final MarketSortType sortType) {
+		return switch (sortType) {
+			case NAME -> Comparator.comparing(Ranked::name).reversed();
+			case ITEMS -> Comparator.comparingInt(Ranked::itemCount).reversed();
+			case REVIEWS -> Comparator.comparingDouble(Ranked::reviewAvg).reversed();
+			case LAST_UPDATED -> Comparator.comparingLong(Ranked::lastUpdated).reversed();
+		};
+	}
+
+	private record Ranked(UUID id, Market market, UUID owner, String name, boolean open, int itemCount, long ratingSum, int ratingCount, long lastUpdated) {
+
+		static Ranked of(final Market market) {
+			final RatingSummary ratings = market.getRatingSummary();
+			return new Ranked(market.getId(), market, market.getOwnerUUID(), market.getDisplayName(), market.isOpen(), market.getItemCount(), ratings.getSum(), ratings.getCount(), market.getLastUpdated());
+		}
+
+		double reviewAvg() {
+			return this.ratingCount == 0 ? 0 : (double) this.ratingSum / this.ratingCount;
+		}
+	}
+}
@@ -0,0 +1,333 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.flight.settings.TranslationManager;
+import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.flight.utils.ItemUtil;
+import ca.tweetzy.flight.utils.QuickItem;
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.api.event.MarketTransactionEvent;
+import ca.tweetzy.markets.api.market.BankEntry;
+import ca.tweetzy.markets.api.market.Request;
+import ca.tweetzy.markets.api.market.TransactionType;
+import ca.tweetzy.markets.api.market.core.Market;
+import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.settings.Settings;
+import ca.tweetzy.markets.settings.Translations;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Order books per item and currency, requests are the bids and market listings the asks.
+ * Bids are sorted by unit price (highest first) then age, asks by unit price (lowest first) then by when they entered the book at
+ * that price, so a new request or listing only walks the other side until prices stop crossing. Matching runs on the main thread
+ * a tick after the event that triggered it, fills settle through the same currency, bank and offline payment paths as a manual fill.
+ * <p>
+ * Listings priced for the whole stack can't be split, they are left out of the books.
+ */
+public final class MatchingEngine {
+
+	private static final Comparator<Bid> BID_ORDER = Comparator.comparingDouble(Bid::unitPrice).reversed().thenComparingLong(Bid::time).thenComparing(Bid::id);
+	private static final Comparator<Ask> ASK_ORDER = Comparator.comparingDouble(Ask::unitPrice).thenComparingLong(Ask::time).thenComparing(Ask::id);
+
+	private final Map<BookKey, Book> books = new HashMap<>();
+	private final Map<UUID, Bid> bids = new HashMap<>();
+	private final Map<UUID, Ask> asks = new HashMap<>();
+
+	private final Set<UUID> pendingRequests = ConcurrentHashMap.newKeySet();
+	private final Set<UUID> pendingListings = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+	private long askSequence;
+
+	public synchronized void addRequest(@NonNull final Request request) {
+		removeRequest(request.getId());
+		if (request.getRequestedAmount() <= 0 || request.getRequestItem().getType().isAir()) return;
+
+		final Bid bid = new Bid(request.getId(), request, BookKey.of(request.getRequestItem(), request.getCurrency(), request.getCurrencyItem()), request.getPrice() / request.getRequestedAmount(), request.getTimeCreated());
+		this.bids.put(bid.id(), bid);
+		this.books.computeIfAbsent(bid.key(), key -> new Book()).bids().add(bid);
+	}
+
+	public synchronized void removeRequest(@NonNull final UUID id) {
+		final Bid bid = this.bids.remove(id);
+		if (bid == null) return;
+
+		final Book book = this.books.get(bid.key());
+		book.bids().remove(bid);
+		if (book.isEmpty()) this.books.remove(bid.key());
+	}
+
+	public synchronized void addListing(@NonNull final MarketItem listing) {
+		final Ask previous = this.asks.get(listing.getId());
+		removeListing(listing.getId());
+		if (listing.isPriceForAll()) return;
+
+		final BookKey key = BookKey.of(listing.getItem(), listing.getCurrency(), listing.getCurrencyItem());
+
+		// listings don't store when they were listed, their place in the queue is when they entered the book at this price,
+		// a stock change keeps it and a price change puts the listing at the back
+		final long time = previous != null && previous.key().equals(key) && previous.unitPrice() == listing.getPrice() ? previous.time() : ++this.askSequence;
+
+		final Ask ask = new Ask(listing.getId(), listing, key, listing.getPrice(), time);
+		this.asks.put(ask.id(), ask);
+		this.books.computeIfAbsent(key, ignored -> new Book()).asks().add(ask);
+	}
+
+	public synchronized void removeListing(@NonNull final UUID id) {
+		final Ask ask = this.asks.remove(id);
+		if (ask == null) return;
+
+		final Book book = this.books.get(ask.key());
+		book.asks().remove(ask);
+		if (book.isEmpty()) this.books.remove(ask.key());
+	}
+
+	public synchronized void clearRequests() {
+		List.copyOf(this.bids.keySet()).forEach(this::removeRequest);
+	}
+
+	public synchronized void clearListings() {
+		List.copyOf(this.asks.keySet()).forEach(this::removeListing);
+	}
+
+	/**
+	 * A request was just created, it is matched against the cheapest compatible listing on the next tick.
+	 */
+	public void requestPlaced(@NonNull final Request request) {
+		addRequest(request);
+		this.pendingRequests.add(request.getId());
+		scheduleFlush();
+	}
+
+	/**
+	 * A listing was created or changed (price, stock, currency), it is re-sorted right away and matched against the best requests on the next tick.
+	 */
+	public void listingChanged(@NonNull final MarketItem listing) {
+		if (Markets.getCategoryItemManager().get(listing.getId()) != listing) return;
+
+		addListing(listing);
+		this.pendingListings.add(listing.getId());
+		scheduleFlush();
+	}
+
+	private void scheduleFlush() {
+		if (this.flushScheduled.compareAndSet(false, true))
+			Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), this::flush);
+	}
+
+	private synchronized void flush() {
+		this.flushScheduled.set(false);
+
+		final List<UUID> requests = drain(this.pendingRequests);
+		final List<UUID> listings = drain(this.pendingListings);
+
+		if (!Settings.ALLOW_REQUESTS.getBoolean() || !Settings.AUTO_MATCH_REQUESTS.getBoolean()) return;
+
+		for (UUID id : requests) {
+			final Bid bid = this.bids.get(id);
+			if (bid != null) matchBid(bid);
+		}
+
+		listings.forEach(this::matchAsk);
+	}
+
+	private void matchBid(final Bid bid) {
+		final Book book = this.books.get(bid.key());
+		if (book == null) return;
+
+		for (Ask ask : book.asks()) {
+			if (ask.unitPrice() > bid.unitPrice()) return;
+
+			if (canFill(bid.request(), ask.listing())) {
+				settle(bid.request(), ask.listing());
+				return;
+			}
+		}
+	}
+
+	private void matchAsk(final UUID listingId) {
+		final Set<UUID> unsettled = new HashSet<>();
+		Bid match;
+
+		do {
+			match = null;
+
+			// settling re-sorts the listing, so look it up again every round
+			final Ask ask = this.asks.get(listingId);
+			final Book book = ask == null ? null : this.books.get(ask.key());
+			if (book == null) return;
+
+			for (Bid bid : book.bids()) {
+				if (bid.unitPrice() < ask.unitPrice()) break;
+
+				if (!unsettled.contains(bid.id()) && canFill(bid.request(), ask.listing())) {
+					match = bid;
+					break;
+				}
+			}
+
+			// a bid that couldn't settle stays in the book, skip it for the rest of this round
+			if (match != null && !settle(match.request(), ask.listing()))
+				unsettled.add(match.id());
+		} while (match != null);
+	}
+
+	private boolean canFill(final Request request, final MarketItem listing) {
+		final int amount = request.getRequestedAmount();
+		if (!listing.isInfinite() && listing.getStock() < amount) return false;
+
+		// fingerprints can collide, make sure the items really are the same
+		if (!request.getRequestItem().isSimilar(listing.getItem()) || !request.getCurrency().equalsIgnoreCase(listing.getCurrency())) return false;
+		if (listing.isCurrencyOfItem() && !request.getCurrencyItem().isSimilar(listing.getCurrencyItem())) return false;
+
+		final Market market = listing.getOwningMarket();
+		if (market == null || !market.isOpen() || market.getOwnerUUID().equals(request.getOwner()) || market.getBannedUsers().contains(request.getOwner())) return false;
+
+		final double total = listing.getPrice() * amount;
+		if (listing.isCurrencyOfItem())
+			return Markets.getBankManager().getEntryCountByPlayer(request.getOwner(), request.getCurrencyItem()) >= (int) total;
+
+		final String[] currency = listing.getCurrency().split("/");
+		return Markets.getCurrencyManager().has(Bukkit.getOfflinePlayer(request.getOwner()), currency[0], currency[1], total);
+	}
+
+	/**
+	 * @return whether the fill went through, false leaves the request and the listing as they were
+	 */
+	private boolean settle(final Request request, final MarketItem listing) {
+		final Market market = listing.getOwningMarket();
+		final int amount = request.getRequestedAmount();
+		final double total = listing.getPrice() * amount;
+
+		final OfflinePlayer requester = Bukkit.getOfflinePlayer(request.getOwner());
+		final OfflinePlayer seller = Bukkit.getOfflinePlayer(market.getOwnerUUID());
+
+		// the same guard as a manual purchase, a concurrent buyer can't be sold the units this fill takes
+		if (listing.reserveStock(amount, false) == 0) return false;
+
+		if (!withdraw(request, requester, listing, total)) {
+			// the requester can't pay right now, the request stays in the book, canFill checks the funds again before the next attempt
+			listing.releaseStock(amount);
+			return false;
+		}
+
+		// the deletes below finish async, take the request out of the books now so it can't match again
+		removeRequest(request.getId());
+
+		// pay the market owner
+		if (listing.isCurrencyOfItem()) {
+			if (seller.isOnline() && seller.getPlayer() != null)
+				Markets.getCurrencyManager().deposit(seller.getPlayer(), listing.getCurrencyItem(), (int) total);
+			else
+				Markets.getOfflineItemPaymentManager().create(seller.getUniqueId(), QuickItem.of(listing.getCurrencyItem()).amount(1).make(), (int) total, TranslationManager.string(Translations.REQUEST_PAYMENT), created -> {
+				});
+		} else {
+			final String[] currency = listing.getCurrency().split("/");
+			Markets.getCurrencyManager().deposit(seller, currency[0], currency[1], total);
+		}
+
+		// give the requester their items
+		if (requester.isOnline() && requester.getPlayer() != null)
+			ItemDelivery.deliver(requester.getPlayer(), listing.getItem(), amount);
+		else
+			Markets.getOfflineItemPaymentManager().create(request.getOwner(), QuickItem.of(listing.getItem()).amount(1).make(), amount, TranslationManager.string(Translations.REQUEST_PAYMENT), created -> {
+			});
+
+		if (!listing.isInfinite()) {
+			if (listing.getStock() <= 0 && Settings.AUTO_REMOVE_ITEM_WHEN_OUT_OF_STOCK.getBoolean()) {
+				removeListing(listing.getId());
+				listing.unStore(null);
+			} else {
+				listing.sync(null);
+			}
+		}
+
+		Markets.getRequestManager().fulfilled(request);
+
+		if (requester.isOnline() && requester.getPlayer() != null)
+			Common.tell(requester.getPlayer(), TranslationManager.string(requester.getPlayer(), Translations.REQUEST_FULFILLED, "fulfill_name", market.getOwnerName(), "request_item_name", ItemUtil.getItemName(request.getRequestItem())));
+
+		if (seller.isOnline() && seller.getPlayer() != null)
+			Common.tell(seller.getPlayer(), TranslationManager.string(seller.getPlayer(), Translations.MARKET_ITEM_BOUGHT_SELLER,
+					"purchase_quantity", amount,
+					"item_name", ItemUtil.getItemName(listing.getItem()),
+					"buyer_name", request.getOwnerName()
+			));
+
+		// same sides as a manual fill, the fulfiller first
+		Bukkit.getServer().getPluginManager().callEvent(new MarketTransactionEvent(
+				seller,
+				requester,
+				TransactionType.REQUEST_FULFILLMENT,
+				QuickItem.of(listing.getItem()).amount(1).make(),
+				listing.getCurrencyDisplayName(),
+				amount,
+				listing.isCurrencyOfItem() ? (int) total : total
+		));
+
+		return true;
+	}
+
+	private boolean withdraw(final Request request, final OfflinePlayer requester, final MarketItem listing, final double total) {
+		if (!listing.isCurrencyOfItem()) {
+			final String[] currency = listing.getCurrency().split("/");
+			return Markets.getCurrencyManager().withdraw(requester, currency[0], currency[1], total);
+		}
+
+		final BankEntry entry = Markets.getBankManager().getEntryByPlayer(request.getOwner(), request.getCurrencyItem());
+		if (entry == null || entry.getQuantity() < (int) total) return false;
+
+		final int newTotal = entry.getQuantity() - (int) total;
+		if (newTotal <= 0) {
+			entry.unStore(null);
+		} else {
+			entry.setQuantity(newTotal);
+			entry.sync(null);
+		}
+
+		return true;
+	}
+
+	private static List<UUID> drain(final Set<UUID> pending) {
+		final List<UUID> drained = new ArrayList<>();
+		final Iterator<UUID> iterator = pending.iterator();
+
+		while (iterator.hasNext()) {
+			drained.add(iterator.next());
+			iterator.remove();
+		}
+
+		return drained;
+	}
+
+	private record BookKey(int item, String currency, int currencyItem) {
+
+		static BookKey of(final ItemStack item, final String currency, final ItemStack currencyItem) {
+			final boolean itemCurrency = currency.split("/")[1].equalsIgnoreCase("item");
+			return new BookKey(ItemFingerprint.of(item), currency.toLowerCase(Locale.ROOT), itemCurrency && currencyItem != null ? ItemFingerprint.of(currencyItem) : 0);
+		}
+	}
+
+	private record Bid(UUID id, Request request, BookKey key, double unitPrice, long time) {
+	}
+
+	private record Ask(UUID id, MarketItem listing, BookKey key, double unitPrice, long time) {
+	}
+
+	private record Book(NavigableSet<Bid> bids, NavigableSet<Ask> asks) {
+
+		Book() {
+			this(new TreeSet<>(BID_ORDER), new TreeSet<>(ASK_ORDER));
+		}
+
+		boolean isEmpty() {
+			return this.bids.isEmpty() && this.asks.isEmpty();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.api.market.core.Rating;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads the ratings behind a ratings or profile view from the database a chunk at a time, newest first,
+ * so reviews are only loaded when someone pages through them.
+ */
+public final class RatingPager {
+
+	private final UUID market;
+	private final UUID user;
+	private final int chunkSize;
+
+	private final List<Rating> loaded = new ArrayList<>();
+	private boolean loading;
+	private boolean exhausted;
+
+	/**
+	 * @param market    only ratings of this market, or null
+	 * @param user      only ratings given by this player or received by their market, or null
+	 * @param chunkSize how many ratings to read at a time
+	 */
+	public RatingPager(@Nullable final UUID market, @Nullable final UUID user, final int chunkSize) {
+		this.market = market;
+		this.user = user;
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	public boolean isExhausted() {
+		return this.exhausted;
+	}
+
+	/**
+	 * Reads the next chunk, does nothing if a chunk is already being read or every rating has been read.
+	 *
+	 * @param ratings called on the main thread with every rating read so far
+	 */
+	public void loadMore(@NonNull final Consumer<List<Rating>> ratings) {
+		if (this.loading || this.exhausted) return;
+		this.loading = true;
+
+		final Rating after = this.loaded.isEmpty() ? null : this.loaded.get(this.loaded.size() - 1);
+
+		Markets.getDataManager().getRatingsPage(this.market, this.user, after, this.chunkSize, (error, found) -> Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), () -> {
+			this.loading = false;
+
+			if (error != null || found.size() < this.chunkSize)
+				this.exhausted = true;
+
+			if (error == null)
+				this.loaded.addAll(found);
+
+			ratings.accept(new ArrayList<>(this.loaded));
+		}));
+	}
+}
@@ -0,0 +1,168 @@
+package ca.tweetzy.markets.model;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * A hierarchical timing wheel. Keys are scheduled at a point in time and handed back once the wheel's clock passes it.
+ * Scheduling and cancelling are O(1), each tick only touches the one slot that is due plus the occasional cascade of a
+ * higher level slot into the lower levels, so the cost of advancing does not depend on how many keys are waiting.
+ * <p>
+ * Four levels of 64 slots cover 64^4 ticks, keys further out wait in the top level and are re-placed each time it turns.
+ */
+public final class TimingWheel<K> {
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	private final long tickMillis;
+	private final List<List<Set<Entry<K>>>> levels = new ArrayList<>(LEVELS);
+	private final Map<K, Entry<K>> entries = new HashMap<>();
+
+	private long currentTick = Long.MIN_VALUE;
+
+	/**
+	 * @param tickMillis the resolution of the wheel, keys are handed back at most this late
+	 */
+	public TimingWheel(final long tickMillis) {
+		this.tickMillis = Math.max(1, tickMillis);
+
+		for (int level = 0; level < LEVELS; level++) {
+			final List<Set<Entry<K>>> slots = new ArrayList<>(SLOTS);
+			for (int slot = 0; slot < SLOTS; slot++)
+				slots.add(new HashSet<>());
+
+			this.levels.add(slots);
+		}
+	}
+
+	/**
+	 * Schedules a key, replacing its previous time if it was already scheduled.
+	 *
+	 * @param key  the key
+	 * @param time in milliseconds, when the key is due
+	 */
+	public synchronized void schedule(@NonNull final K key, final long time) {
+		cancel(key);
+
+		final Entry<K> entry = new Entry<>(key, (time + this.tickMillis - 1) / this.tickMillis);
+		this.entries.put(key, entry);
+
+		// until the wheel is first advanced there is no clock to place keys against, they're placed when it starts
+		if (this.currentTick != Long.MIN_VALUE)
+			place(entry);
+	}
+
+	public synchronized void cancel(@NonNull final K key) {
+		final Entry<K> entry = this.entries.remove(key);
+		if (entry != null && entry.bucket != null)
+			entry.bucket.remove(entry);
+	}
+
+	public synchronized void clear() {
+		this.entries.clear();
+		this.levels.forEach(slots -> slots.forEach(Set::clear));
+		this.currentTick = Long.MIN_VALUE;
+	}
+
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Moves the clock to a point in time and returns every key that became due on the way.
+	 * Large jumps, and jumps back in time, re-place every key instead of turning the wheel tick by tick.
+	 *
+	 * @param time in milliseconds, the new time of the wheel
+	 * @return the keys that are due, no longer scheduled
+	 */
+	public synchronized List<K> advanceTo(final long time) {
+		final long targetTick = time / this.tickMillis;
+		final List<K> due = new ArrayList<>();
+
+		if (this.currentTick == Long.MIN_VALUE || targetTick < this.currentTick || targetTick - this.currentTick > SLOTS) {
+			rebuild(targetTick, due);
+			return due;
+		}
+
+		while (this.currentTick < targetTick)
+			tick(due);
+
+		return due;
+	}
+
+	private void tick(final List<K> due) {
+		this.currentTick++;
+
+		// turn the higher levels whose slot boundary was just crossed, top down so cascaded keys can fall through more than one level
+		int aligned = 0;
+		while (aligned < LEVELS - 1 && (this.currentTick & ((1L << (SLOT_BITS * (aligned + 1))) - 1)) == 0)
+			aligned++;
+
+		for (int level = aligned; level >= 1; level--) {
+			final Set<Entry<K>> bucket = this.levels.get(level).get(slotOf(this.currentTick, level));
+			final List<Entry<K>> cascaded = new ArrayList<>(bucket);
+			bucket.clear();
+			cascaded.forEach(this::place);
+		}
+
+		final Set<Entry<K>> bucket = this.levels.get(0).get(slotOf(this.currentTick, 0));
+		for (Entry<K> entry : bucket) {
+			this.entries.remove(entry.key);
+			due.add(entry.key);
+		}
+
+		bucket.clear();
+	}
+
+	private void rebuild(final long targetTick, final List<K> due) {
+		this.levels.forEach(slots -> slots.forEach(Set::clear));
+		this.currentTick = targetTick;
+
+		final Iterator<Entry<K>> iterator = this.entries.values().iterator();
+		while (iterator.hasNext()) {
+			final Entry<K> entry = iterator.next();
+
+			if (entry.tick <= targetTick) {
+				iterator.remove();
+				due.add(entry.key);
+				continue;
+			}
+
+			place(entry);
+		}
+	}
+
+	private void place(final Entry<K> entry) {
+		// anything already due goes out on the next tick
+		final long tick = Math.max(entry.tick, this.currentTick + 1);
+		final long delay = tick - this.currentTick;
+
+		int level = 0;
+		while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1)))
+			level++;
+
+		final Set<Entry<K>> bucket = this.levels.get(level).get(slotOf(tick, level));
+		bucket.add(entry);
+		entry.bucket = bucket;
+	}
+
+	private static int slotOf(final long tick, final int level) {
+		return (int) ((tick >> (SLOT_BITS * level)) & MASK);
+	}
+
+	private static final class Entry<K> {
+
+		private final K key;
+		private final long tick;
+		private Set<Entry<K>> bucket;
+
+		private Entry(final K key, final long tick) {
+			this.key = key;
+			this.tick = tick;
+		}
+	}
+}
@@ -0,0 +1,215 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.api.market.Transaction;
+import ca.tweetzy.markets.api.market.TransactionFilter;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams transactions from the database straight into a CSV or NDJSON file for analysis outside the game.
+ * Rows are written as they are read, nothing is loaded into the transaction manager, and all of it happens off the main thread.
+ */
+public final class TransactionExport {
+
+	private static final int PROGRESS_INTERVAL = 10_000;
+	private static final String[] COLUMNS = {"id", "created_at", "date", "type", "seller", "seller_name", "buyer", "buyer_name", "item", "item_name", "quantity", "currency", "price"};
+
+	public enum Format {
+		CSV("csv"),
+		NDJSON("ndjson");
+
+		private final String extension;
+
+		Format(final String extension) {
+			this.extension = extension;
+		}
+
+		public String getExtension() {
+			return this.extension;
+		}
+	}
+
+	public interface Listener {
+
+		/**
+		 * Called on the main thread once the number of matching transactions is known and then every few thousand rows.
+		 */
+		void progress(int exported, int total);
+
+		/**
+		 * Called on the main thread once the export finished, error is null if it succeeded.
+		 */
+		void finished(int exported, Throwable error);
+	}
+
+	private final TransactionFilter filter;
+	private final Format format;
+	private final boolean gzip;
+
+	public TransactionExport(@NonNull final TransactionFilter filter, @NonNull final Format format, final boolean gzip) {
+		this.filter = filter;
+		this.format = format;
+		this.gzip = gzip;
+	}
+
+	public String getFileName(final long time) {
+		return "transactions-" + time + "." + this.format.getExtension() + (this.gzip ? ".gz" : "");
+	}
+
+	/**
+	 * Starts the export, the file is created or overwritten.
+	 *
+	 * @param file     where to write the transactions
+	 * @param listener told about the progress and the result
+	 */
+	public void start(@NonNull final File file, @NonNull final Listener listener) {
+		Markets.getDataManager().countTransactions(this.filter, (countError, total) -> {
+			if (countError != null) {
+				sync(() -> listener.finished(0, countError));
+				return;
+			}
+
+			sync(() -> listener.progress(0, total));
+
+			final Writer writer;
+			try {
+				writer = open(file);
+				writeHeader(writer);
+			} catch (IOException e) {
+				sync(() -> listener.finished(0, e));
+				return;
+			}
+
+			final int[] exported = {0};
+			Markets.getDataManager().streamTransactions(this.filter, transaction -> {
+				writeRow(writer, transaction);
+
+				final int done = ++exported[0];
+				if (done % PROGRESS_INTERVAL == 0)
+					sync(() -> listener.progress(done, total));
+			}, (error, visited) -> {
+				Throwable failure = error;
+				try {
+					writer.close();
+				} catch (IOException e) {
+					if (failure == null) failure = e;
+				}
+
+				final Throwable result = failure;
+				sync(() -> listener.finished(exported[0], result));
+			});
+		});
+	}
+
+	private Writer open(final File file) throws IOException {
+		final File folder = file.getParentFile();
+		if (folder != null && !folder.exists() && !folder.mkdirs())
+			throw new IOException("Could not create " + folder);
+
+		OutputStream stream = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+		if (this.gzip)
+			stream = new GZIPOutputStream(stream, 64 * 1024);
+
+		return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 64 * 1024);
+	}
+
+	private void writeHeader(final Writer writer) throws IOException {
+		if (this.format != Format.CSV) return;
+
+		writer.write(String.join(",", COLUMNS));
+		writer.write('\n');
+	}
+
+	private void writeRow(final Writer writer, final Transaction transaction) throws IOException {
+		final ItemStack item = transaction.getItem();
+		final Object[] values = {
+				transaction.getId().toString(),
+				transaction.getTimeCreated(),
+				Instant.ofEpochMilli(transaction.getTimeCreated()).toString(),
+				transaction.getType().name(),
+				transaction.getSeller().toString(),
+				transaction.getSellerName(),
+				transaction.getBuyer().toString(),
+				transaction.getBuyerName(),
+				item.getType().name(),
+				displayNameOf(item),
+				transaction.getQuantity(),
+				transaction.getCurrency(),
+				transaction.getPrice()
+		};
+
+		if (this.format == Format.CSV)
+			writeCsv(writer, values);
+		else
+			writeJson(writer, values);
+
+		writer.write('\n');
+	}
+
+	private void writeCsv(final Writer writer, final Object[] values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) writer.write(',');
+
+			final String value = String.valueOf(values[i]);
+			if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0)
+				writer.write('"' + value.replace("\"", "\"\"") + '"');
+			else
+				writer.write(value);
+		}
+	}
+
+	private void writeJson(final Writer writer, final Object[] values) throws IOException {
+		writer.write('{');
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) writer.write(',');
+
+			writer.write('"' + COLUMNS[i] + "\":");
+			if (values[i] instanceof Number)
+				writer.write(String.valueOf(values[i]));
+			else
+				writeJsonString(writer, String.valueOf(values[i]));
+		}
+		writer.write('}');
+	}
+
+	private void writeJsonString(final Writer writer, final String value) throws IOException {
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char character = value.charAt(i);
+			switch (character) {
+				case '"' -> writer.write("\\\"");
+				case '\\' -> writer.write("\\\\");
+				case '\n' -> writer.write("\\n");
+				case '\r' -> writer.write("\\r");
+				case '\t' -> writer.write("\\t");
+				default -> {
+					if (character < 0x20)
+						writer.write(String.format("\\u%04x", (int) character));
+					else
+						writer.write(character);
+				}
+			}
+		}
+		writer.write('"');
+	}
+
+	private String displayNameOf(final ItemStack item) {
+		final ItemMeta meta = item.getItemMeta();
+		if (meta == null || !meta.hasDisplayName()) return "";
+
+		return ChatColor.stripColor(meta.getDisplayName());
+	}
+
+	private void sync(final Runnable runnable) {
+		Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), runnable);
+	}
+}
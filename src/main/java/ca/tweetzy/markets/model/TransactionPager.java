@@ -0,0 +1,64 @@
+package ca.tweetzy.markets.model;
+
+import ca.tweetzy.markets.Markets;
+import ca.tweetzy.markets.api.market.Transaction;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads a seller's transactions from the database a chunk at a time, newest first, so history
+ * older than the in memory window can still be paged through.
+ */
+public final class TransactionPager {
+
+	private final UUID seller;
+	private final long since;
+	private final int chunkSize;
+
+	private final List<Transaction> loaded = new ArrayList<>();
+	private boolean loading;
+	private boolean exhausted;
+
+	/**
+	 * @param seller    the seller
+	 * @param since     only transactions made at or after this time
+	 * @param chunkSize how many transactions to read at a time
+	 */
+	public TransactionPager(@NonNull final UUID seller, final long since, final int chunkSize) {
+		this.seller = seller;
+		this.since = since;
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	public boolean isExhausted() {
+		return this.exhausted;
+	}
+
+	/**
+	 * Reads the next chunk, does nothing if a chunk is already being read or every transaction has been read.
+	 *
+	 * @param transactions called on the main thread with every transaction read so far
+	 */
+	public void loadMore(@NonNull final Consumer<List<Transaction>> transactions) {
+		if (this.loading || this.exhausted) return;
+		this.loading = true;
+
+		final Transaction after = this.loaded.isEmpty() ? null : this.loaded.get(this.loaded.size() - 1);
+
+		Markets.getTransactionManager().getHistory(this.seller, this.since, after, this.chunkSize, found -> Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), () -> {
+			this.loading = false;
+
+			// a failed read comes back empty, which ends the history the same way
+			if (found.size() < this.chunkSize)
+				this.exhausted = true;
+
+			this.loaded.addAll(found);
+			transactions.accept(new ArrayList<>(this.loaded));
+		}));
+	}
+}
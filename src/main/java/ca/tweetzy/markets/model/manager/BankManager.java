@@ -1,30 +1,39 @@
 package ca.tweetzy.markets.model.manager;
 
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.manager.ListManager;
+import ca.tweetzy.markets.api.manager.IndexedManager;
 import ca.tweetzy.markets.api.market.BankEntry;
 import ca.tweetzy.markets.impl.MarketBankEntry;
+import ca.tweetzy.markets.model.ItemFingerprint;
 import lombok.NonNull;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
-public final class BankManager extends ListManager<BankEntry> {
+public final class BankManager extends IndexedManager<UUID, BankEntry> {
+
+	private final MultiIndex<UUID> ownerIndex = createMultiIndex(BankEntry::getOwner);
+	private final MultiIndex<OwnedItem> itemIndex = createMultiIndex(entry -> new OwnedItem(entry.getOwner(), ItemFingerprint.of(entry.getItem())));
 
 	public BankManager() {
-		super("Bank");
+		super("Bank", BankEntry::getId);
 	}
 
 	public List<BankEntry> getEntriesByPlayer(@NonNull final UUID owner) {
-		return getManagerContent().stream().filter(entry -> entry.getOwner().equals(owner)).collect(Collectors.toList());
+		return new ArrayList<>(this.ownerIndex.get(owner));
 	}
 
 	public BankEntry getEntryByPlayer(@NonNull final UUID owner, @NonNull final ItemStack itemStack) {
-		return getManagerContent().stream().filter(entry -> entry.getOwner().equals(owner) && entry.getItem().isSimilar(itemStack)).findFirst().orElse(null);
+		// the fingerprint narrows it down to (almost always) one entry, isSimilar settles hash collisions
+		for (BankEntry entry : this.itemIndex.get(new OwnedItem(owner, ItemFingerprint.of(itemStack))))
+			if (entry.getItem().isSimilar(itemStack))
+				return entry;
+
+		return null;
 	}
 
 	public int getEntryCountByPlayer(@NonNull final UUID owner, @NonNull final ItemStack itemStack) {
@@ -55,13 +64,21 @@ public final class BankManager extends ListManager<BankEntry> {
 		});
 	}
 
+	private record OwnedItem(UUID owner, int fingerprint) {
+	}
+
 	@Override
 	public void load() {
 		clear();
 
 		Markets.getDataManager().getBankEntries((error, found) -> {
-			if (error != null) return;
+			if (error != null) {
+				markLoaded(error);
+				return;
+			}
+
 			found.forEach(this::add);
+			markLoaded();
 		});
 	}
 }
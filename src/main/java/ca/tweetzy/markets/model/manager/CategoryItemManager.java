@@ -1,24 +1,121 @@
 package ca.tweetzy.markets.model.manager;
 
+import ca.tweetzy.flight.utils.ItemUtil;
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.manager.ListManager;
+import ca.tweetzy.markets.api.manager.IndexedManager;
 import ca.tweetzy.markets.api.market.core.Category;
 import ca.tweetzy.markets.api.market.core.MarketItem;
 import ca.tweetzy.markets.impl.CategoryItem;
+import ca.tweetzy.markets.model.ItemSearchIndex;
+import ca.tweetzy.markets.model.ListingIconCache;
+import ca.tweetzy.markets.model.MatchingEngine;
+import lombok.Getter;
 import lombok.NonNull;
+import org.bukkit.ChatColor;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-public final class CategoryItemManager extends ListManager<MarketItem> {
+public final class CategoryItemManager extends IndexedManager<UUID, MarketItem> {
+
+	private static final Comparator<SearchHit> SEARCH_ORDER = Comparator.comparing(SearchHit::name, String.CASE_INSENSITIVE_ORDER)
+			.thenComparingDouble(hit -> hit.item().getPrice())
+			.thenComparing(hit -> hit.item().getId());
+
+	private final MultiIndex<UUID> byCategory = createMultiIndex(MarketItem::getOwningCategory);
+	private final ItemSearchIndex searchIndex = new ItemSearchIndex();
+
+	@Getter
+	private final ListingIconCache iconCache = new ListingIconCache();
+
+	@Getter
+	private final MatchingEngine matchingEngine = new MatchingEngine();
 
 	public CategoryItemManager() {
-		super("Category Item");
+		super("Category Item", MarketItem::getId);
 	}
 
 	public MarketItem getByUUID(@NonNull final UUID id) {
-		return getManagerContent().stream().filter(marketItem -> marketItem.getId().equals(id)).findFirst().orElse(null);
+		return get(id);
+	}
+
+	/**
+	 * @param keywords the raw search string
+	 * @return every in stock item matching all keywords sorted by name, then price, items that don't match are never visited
+	 */
+	public List<MarketItem> search(@NonNull final String keywords) {
+		return sorted(this.searchIndex.search(keywords).stream().map(this::get));
+	}
+
+	/**
+	 * Searches the items of some categories only. The matching ids are intersected with the items of the categories before
+	 * anything is resolved or sorted, so matches in other markets cost no more than an id in a set.
+	 *
+	 * @param keywords   the raw search string
+	 * @param categories the categories to search in
+	 * @return every in stock item of the categories matching all keywords sorted by name, then price
+	 */
+	public List<MarketItem> search(@NonNull final String keywords, @NonNull final Collection<? extends Category> categories) {
+		final Set<UUID> matches = this.searchIndex.search(keywords);
+		if (matches.isEmpty()) return List.of();
+
+		final List<MarketItem> found = new ArrayList<>();
+		for (Category category : categories)
+			for (MarketItem item : this.byCategory.get(category.getId()))
+				if (matches.contains(item.getId()))
+					found.add(item);
+
+		return sorted(found.stream());
+	}
+
+	private List<MarketItem> sorted(final Stream<MarketItem> items) {
+		// the index hands back an unordered set, sorting keeps results and their pages in place between searches
+		return items
+				.filter(item -> item != null && item.getStock() >= 1)
+				.map(item -> new SearchHit(item, ChatColor.stripColor(ItemUtil.getItemName(item.getItem()))))
+				.sorted(SEARCH_ORDER)
+				.map(SearchHit::item)
+				.toList();
+	}
+
+	@Override
+	public synchronized void add(@NonNull final MarketItem marketItem) {
+		super.add(marketItem);
+		if (get(marketItem.getId()) == marketItem) {
+			this.searchIndex.index(marketItem);
+			this.matchingEngine.addListing(marketItem);
+		}
+	}
+
+	@Override
+	public synchronized void remove(@NonNull final MarketItem marketItem) {
+		super.remove(marketItem);
+		this.searchIndex.remove(marketItem.getId());
+		this.iconCache.invalidate(marketItem.getId());
+		this.matchingEngine.removeListing(marketItem.getId());
+	}
+
+	@Override
+	public synchronized void reindex(@NonNull final MarketItem marketItem) {
+		super.reindex(marketItem);
+		this.iconCache.invalidate(marketItem.getId());
+		if (get(marketItem.getId()) == marketItem)
+			this.searchIndex.index(marketItem);
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		this.searchIndex.clear();
+		this.iconCache.clear();
+		this.matchingEngine.clearListings();
 	}
 
 	public void create(@NonNull final Category category, @NonNull final ItemStack item, @NonNull final String currency, @NonNull final ItemStack currencyItem, final double price, final boolean priceIsForAll, final boolean acceptingOffers, final boolean infinite, @NonNull final Consumer<Boolean> created) {
@@ -39,6 +136,10 @@ public final class CategoryItemManager extends ListManager<MarketItem> {
 			if (storedItem != null) {
 				add(storedItem);
 				category.getItems().add(storedItem);
+				Markets.getMarketManager().adjustItemCount(category.getOwningMarket(), 1);
+				Markets.getMarketManager().refreshRanking(category.getOwningMarket());
+				Markets.getCategoryManager().getLiveViews().markDirty(category.getId());
+				this.matchingEngine.listingChanged(storedItem);
 				created.accept(true);
 			} else {
 				created.accept(false);
@@ -48,20 +149,10 @@ public final class CategoryItemManager extends ListManager<MarketItem> {
 
 	@Override
 	public void load() {
-		clear();
-
-		Markets.getDataManager().getMarketItems((error, found) -> {
-			if (error != null) return;
-
-			found.forEach(marketItem -> {
-				final Category locatedCategory = Markets.getCategoryManager().getByUUID(marketItem.getOwningCategory());
-				if (locatedCategory == null) {
-					return;
-				}
+		// category items are loaded as part of the market graph, see MarketManager#load
+		Markets.getMarketManager().getLoaded().whenComplete((ignored, error) -> markLoaded(error));
+	}
 
-				locatedCategory.getItems().add(marketItem);
-				add(marketItem);
-			});
-		});
+	private record SearchHit(MarketItem item, String name) {
 	}
 }
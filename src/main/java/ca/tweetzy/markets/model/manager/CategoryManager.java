@@ -2,31 +2,37 @@ package ca.tweetzy.markets.model.manager;
 
 import ca.tweetzy.flight.comp.enums.CompMaterial;
 import ca.tweetzy.flight.settings.TranslationManager;
-import ca.tweetzy.flight.utils.Common;
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.manager.ListManager;
+import ca.tweetzy.markets.api.manager.IndexedManager;
 import ca.tweetzy.markets.api.market.core.Category;
 import ca.tweetzy.markets.api.market.core.Market;
 import ca.tweetzy.markets.impl.MarketCategory;
+import ca.tweetzy.markets.model.LiveCategoryViews;
 import ca.tweetzy.markets.settings.Translations;
+import lombok.Getter;
 import lombok.NonNull;
 
 import java.util.ArrayList;
 import java.util.UUID;
 import java.util.function.Consumer;
 
-public final class CategoryManager extends ListManager<Category> {
+public final class CategoryManager extends IndexedManager<UUID, Category> {
+
+	@Getter
+	private final LiveCategoryViews liveViews = new LiveCategoryViews();
+
+	private final Index<CategoryName> nameIndex = createIndex(category -> new CategoryName(category.getOwningMarket(), category.getName().toLowerCase()));
 
 	public CategoryManager() {
-		super("Category");
+		super("Category", Category::getId);
 	}
 
 	public Category getByUUID(@NonNull final UUID id) {
-		return getManagerContent().stream().filter(category -> category.getId().equals(id)).findFirst().orElse(null);
+		return get(id);
 	}
 
 	public Category getByName(@NonNull final UUID owningMarket, @NonNull final String name) {
-		return getManagerContent().stream().filter(category -> category.getOwningMarket().equals(owningMarket) && category.getName().equalsIgnoreCase(name)).findFirst().orElse(null);
+		return this.nameIndex.get(new CategoryName(owningMarket, name.toLowerCase()));
 	}
 
 	public Category getByName(@NonNull final Market owningMarket, @NonNull final String name) {
@@ -68,26 +74,10 @@ public final class CategoryManager extends ListManager<Category> {
 
 	@Override
 	public void load() {
-		clear();
-
-		Markets.getDataManager().getCategories((error, found) -> {
-			if (error != null) return;
-			Common.log("&aLoading Market Categories");
-
-			found.forEach(category -> {
-				final Market locatedMarket = Markets.getMarketManager().getByUUID(category.getOwningMarket());
-				if (locatedMarket == null) return;
-
-				// load items for the category, this is likely going to create way too many tasks when there's hundreds of categories... but we will see.
-				Markets.getDataManager().getMarketItemsByCategory(category.getId(), (itemsError, foundItems) -> {
-					if (itemsError != null) return;
-
-					category.getItems().addAll(foundItems);
-					Markets.getCategoryItemManager().addAll(foundItems);
-					locatedMarket.getCategories().add(category);
-					add(category);
-				});
-			});
-		});
+		// categories are loaded as part of the market graph, see MarketManager#load
+		Markets.getMarketManager().getLoaded().whenComplete((ignored, error) -> markLoaded(error));
+	}
+
+	private record CategoryName(UUID owningMarket, String name) {
 	}
 }
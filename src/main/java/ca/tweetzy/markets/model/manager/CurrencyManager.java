@@ -67,6 +67,7 @@ public final class CurrencyManager extends ListManager<AbstractCurrency> {
 
 		if (Settings.CURRENCY_USE_ITEM_ONLY.getBoolean()) {
 			add(new ItemCurrency());
+			markLoaded();
 			return;
 		}
 
@@ -80,5 +81,7 @@ public final class CurrencyManager extends ListManager<AbstractCurrency> {
 
 		if (Bukkit.getServer().getPluginManager().isPluginEnabled("Funds"))
 			new FundsEconomyLoader().getCurrencies().forEach(this::add);
+
+		markLoaded();
 	}
 }
@@ -0,0 +1,54 @@
+package ca.tweetzy.markets.model.manager;
+
+import ca.tweetzy.flight.config.ConfigEntry;
+import ca.tweetzy.flight.database.Callback;
+import ca.tweetzy.markets.api.Identifiable;
+import ca.tweetzy.markets.api.Trackable;
+import ca.tweetzy.markets.api.manager.IndexedManager;
+import ca.tweetzy.markets.model.Expiry;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * An indexed manager whose elements expire, everything it holds is tracked by its {@link Expiry}.
+ *
+ * @param <T> the managed element
+ */
+public abstract class ExpiringManager<T extends Identifiable & Trackable> extends IndexedManager<UUID, T> {
+
+	@Getter
+	private final Expiry<T> expiry;
+
+	/**
+	 * @param expiryName  what the elements are called in the log
+	 * @param hoursToLive the setting holding how long an element lives
+	 * @param delete      deletes a batch of ids from the database
+	 */
+	public ExpiringManager(@NonNull final String name, @NonNull final String expiryName, @NonNull final ConfigEntry hoursToLive, @NonNull final BiConsumer<Collection<UUID>, Callback<Integer>> delete) {
+		super(name, Identifiable::getId);
+		this.expiry = new Expiry<>(expiryName, hoursToLive, this::get, delete, this::remove);
+	}
+
+	@Override
+	public synchronized void add(@NonNull final T t) {
+		super.add(t);
+		if (get(t.getId()) == t)
+			this.expiry.track(t);
+	}
+
+	@Override
+	public synchronized void remove(@NonNull final T t) {
+		super.remove(t);
+		this.expiry.untrack(t);
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		this.expiry.clear();
+	}
+}
@@ -2,17 +2,21 @@ package ca.tweetzy.markets.model.manager;
 
 import ca.tweetzy.flight.settings.TranslationManager;
 import ca.tweetzy.flight.utils.Common;
-import ca.tweetzy.flight.utils.Filterer;
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.manager.ListManager;
+import ca.tweetzy.markets.api.manager.IndexedManager;
+import ca.tweetzy.markets.api.market.MarketSortType;
 import ca.tweetzy.markets.api.market.core.Category;
 import ca.tweetzy.markets.api.market.core.Market;
 import ca.tweetzy.markets.api.market.core.MarketItem;
+import ca.tweetzy.markets.api.market.core.RatingSummary;
 import ca.tweetzy.markets.impl.PlayerMarket;
 import ca.tweetzy.markets.impl.layout.HomeLayout;
+import ca.tweetzy.markets.model.MarketRanking;
 import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
+import lombok.Getter;
 import lombok.NonNull;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
@@ -22,34 +26,39 @@ import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-public final class MarketManager extends ListManager<Market> {
+public final class MarketManager extends IndexedManager<UUID, Market> {
+
+	private final Index<UUID> ownerIndex = createIndex(Market::getOwnerUUID);
+	private final Index<String> ownerNameIndex = createIndex(market -> market.getOwnerName().toLowerCase());
+
+	@Getter
+	private final MarketRanking ranking = new MarketRanking();
 
 	public MarketManager() {
-		super("Market");
+		super("Market", Market::getId);
 	}
 
 	public List<MarketItem> getSearchResults(@NonNull final Player searcher, @NonNull final String keywords) {
-		final List<MarketItem> marketItems = new ArrayList<>();
-		final List<Market> possibleSearchMarkets = getOpenMarketsExclusive(searcher).stream().filter(market -> !market.getBannedUsers().contains(searcher.getUniqueId())).toList();
-//		final List<Market> possibleSearchMarkets = getOpenMarketsInclusive();
-
-		// populate items into search list
-		possibleSearchMarkets.forEach(market -> market.getCategories().forEach(category -> marketItems.addAll(category.getInStockItems())));
-		return marketItems.stream().filter(marketItem -> Filterer.searchByItemInfo(keywords, marketItem.getItem())).collect(Collectors.toList());
+		return Markets.getCategoryItemManager().search(keywords).stream().filter(marketItem -> {
+			final Market market = getMarketOf(marketItem);
+			return market != null && !market.getOwnerUUID().equals(searcher.getUniqueId()) && market.isOpen() && !market.getBannedUsers().contains(searcher.getUniqueId());
+		}).collect(Collectors.toList());
 	}
 
 	public List<MarketItem> getSearchResults(@NonNull final Player searcher, @NonNull final Market market, @NonNull final String keywords) {
-		final List<MarketItem> marketItems = new ArrayList<>();
-		market.getCategories().forEach(category -> marketItems.addAll(category.getInStockItems()));
-		return marketItems.stream().filter(marketItem -> Filterer.searchByItemInfo(keywords, marketItem.getItem())).collect(Collectors.toList());
+		return Markets.getCategoryItemManager().search(keywords, market.getCategories());
 	}
 
 	public List<MarketItem> getSearchResults(@NonNull final Category category, @NonNull final String keywords) {
-		return category.getInStockItems().stream().filter(marketItem -> Filterer.searchByItemInfo(keywords, marketItem.getItem())).collect(Collectors.toList());
+		return Markets.getCategoryItemManager().search(keywords, List.of(category));
 	}
 
 	public List<Market> getOpenMarketsExclusive(@NonNull final OfflinePlayer ignoredUser) {
-		return getManagerContent().stream().filter(market -> !market.getOwnerUUID().equals(ignoredUser.getUniqueId()) && market.isOpen() && !market.isEmpty()).collect(Collectors.toList());
+		return getOpenMarketsExclusive(ignoredUser, MarketSortType.NAME);
+	}
+
+	public List<Market> getOpenMarketsExclusive(@NonNull final OfflinePlayer ignoredUser, @NonNull final MarketSortType sortType) {
+		return this.ranking.getOpenMarkets(sortType, ignoredUser.getUniqueId());
 	}
 
 	public List<Market> getOpenMarketsInclusive() {
@@ -57,15 +66,65 @@ public final class MarketManager extends ListManager<Market> {
 	}
 
 	public Market getByOwner(@NonNull final UUID uuid) {
-		return getManagerContent().stream().filter(market -> market.getOwnerUUID().equals(uuid)).findFirst().orElse(null);
+		return this.ownerIndex.get(uuid);
 	}
 
 	public Market getByOwnerName(@NonNull final String ownerName) {
-		return getManagerContent().stream().filter(market -> market.getOwnerName().equalsIgnoreCase(ownerName)).findFirst().orElse(null);
+		return this.ownerNameIndex.get(ownerName.toLowerCase());
 	}
 
 	public Market getByUUID(@NonNull final UUID uuid) {
-		return getManagerContent().stream().filter(market -> market.getId().equals(uuid)).findFirst().orElse(null);
+		return get(uuid);
+	}
+
+	/**
+	 * Re-ranks a market after its items, ratings or settings changed.
+	 */
+	public void refreshRanking(@NonNull final UUID marketId) {
+		final Market market = get(marketId);
+		if (market != null)
+			this.ranking.refresh(market);
+	}
+
+	/**
+	 * Changes the item count of a market after items were added to or removed from one of its categories.
+	 */
+	public void adjustItemCount(@NonNull final UUID marketId, final int amount) {
+		final Market market = get(marketId);
+		if (market != null)
+			market.adjustItemCount(amount);
+	}
+
+	@Override
+	public synchronized void add(@NonNull final Market market) {
+		super.add(market);
+		if (get(market.getId()) == market)
+			this.ranking.refresh(market);
+	}
+
+	@Override
+	public synchronized void remove(@NonNull final Market market) {
+		super.remove(market);
+		if (get(market.getId()) == null)
+			this.ranking.remove(market.getId());
+	}
+
+	@Override
+	public synchronized void reindex(@NonNull final Market market) {
+		super.reindex(market);
+		if (get(market.getId()) == market)
+			this.ranking.refresh(market);
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		this.ranking.clear();
+	}
+
+	private Market getMarketOf(@NonNull final MarketItem marketItem) {
+		final Category category = Markets.getCategoryManager().getByUUID(marketItem.getOwningCategory());
+		return category == null ? null : get(category.getOwningMarket());
 	}
 
 	public boolean isBannedFrom(@NonNull final Market market, @NonNull final UUID user) {
@@ -110,7 +169,7 @@ public final class MarketManager extends ListManager<Market> {
 				TranslationManager.string(player, Translations.DEFAULTS_MARKET_DISPLAY_NAME, "player_name", player.getName()),
 				TranslationManager.list(player, Translations.DEFAULTS_MARKET_DESCRIPTION),
 				new ArrayList<>(),
-				new ArrayList<>(),
+				new RatingSummary(),
 				new ArrayList<>(),
 				true,
 				false,
@@ -132,21 +191,31 @@ public final class MarketManager extends ListManager<Market> {
 
 	@Override
 	public void load() {
-		clear();
+		Markets.getDataManager().getMarketGraph((error, found) -> {
+			if (error != null) {
+				markLoaded(error);
+				return;
+			}
+
+			final List<Category> categories = new ArrayList<>();
+			final List<MarketItem> marketItems = new ArrayList<>();
 
-		Markets.getDataManager().getMarkets((error, found) -> {
-			if (error != null) return;
-			Common.log("&aLoading Markets");
 			found.forEach(market -> {
-				Markets.getDataManager().getRatingsByMarket(market.getId(), (ratingError, foundRatings) -> {
-					if (ratingError != null) return;
-					market.getRatings().addAll(foundRatings);
-					add(market);
+				market.getCategories().forEach(category -> {
+					categories.add(category);
+					marketItems.addAll(category.getItems());
 				});
 			});
 
-			// after markets have been added let's load categories
-			Markets.getCategoryManager().load();
+			// publish everything at once on the main thread so no one sees a half loaded market
+			Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), () -> {
+				Markets.getCategoryItemManager().publish(marketItems);
+				Markets.getCategoryManager().publish(categories);
+				publish(found);
+
+				Common.log("&aLoaded &e" + found.size() + " &amarkets, &e" + categories.size() + " &acategories and &e" + marketItems.size() + " &aitems");
+				markLoaded();
+			});
 		});
 	}
 }
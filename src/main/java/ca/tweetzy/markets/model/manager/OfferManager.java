@@ -2,32 +2,114 @@ package ca.tweetzy.markets.model.manager;
 
 import ca.tweetzy.flight.settings.TranslationManager;
 import ca.tweetzy.flight.utils.Common;
+import ca.tweetzy.flight.utils.ItemUtil;
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.manager.ListManager;
 import ca.tweetzy.markets.api.market.core.Market;
 import ca.tweetzy.markets.api.market.core.MarketItem;
 import ca.tweetzy.markets.api.market.offer.Offer;
+import ca.tweetzy.markets.api.market.offer.OfferRejectReason;
 import ca.tweetzy.markets.impl.MarketOffer;
+import ca.tweetzy.markets.settings.Settings;
 import ca.tweetzy.markets.settings.Translations;
 import lombok.NonNull;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
-public final class OfferManager extends ListManager<Offer> {
+public final class OfferManager extends ExpiringManager<Offer> {
+
+	private final MultiIndex<UUID> byRecipient = createMultiIndex(Offer::getOfferFor);
+	private final MultiIndex<UUID> byMarketItem = createMultiIndex(Offer::getMarketItem);
+
+	// rejections of invalidated offers whose sender was offline, they're told on their next join
+	private final Map<UUID, List<RejectionNotice>> pendingRejections = new ConcurrentHashMap<>();
 
 	public OfferManager() {
-		super("Offer");
+		super("Offer", "offers", Settings.OFFER_EXPIRY_HOURS, (ids, deleted) -> Markets.getDataManager().deleteOffers(ids, deleted));
 	}
 
 	public List<Offer> getOffersSentTo(@NonNull final UUID playerUUID) {
-		return getManagerContent().stream().filter(offer -> offer.getOfferFor().equals(playerUUID)).collect(Collectors.toList());
+		return new ArrayList<>(this.byRecipient.get(playerUUID));
+	}
+
+	public int getOfferCountFor(@NonNull final UUID playerUUID) {
+		return this.byRecipient.get(playerUUID).size();
+	}
+
+	/**
+	 * Drops every offer on a market item that no longer exists.
+	 */
+	public void invalidate(@NonNull final UUID marketItemId) {
+		invalidate(marketItemId, null, offer -> true);
+	}
+
+	/**
+	 * Drops the offers on a market item that ask for more than it has left, they could only ever be rejected.
+	 */
+	public void invalidateUnfillable(@NonNull final MarketItem marketItem) {
+		invalidate(marketItem.getId(), marketItem, offer -> marketItem.getStock() < offer.getRequestAmount());
+	}
+
+	/**
+	 * Tells a player about the offers that were rejected while they were offline.
+	 */
+	public void tellPendingRejections(@NonNull final Player player) {
+		final List<RejectionNotice> notices = this.pendingRejections.remove(player.getUniqueId());
+		if (notices != null)
+			notices.forEach(notice -> notice.tell(player));
+	}
+
+	private void invalidate(final UUID marketItemId, @Nullable final MarketItem marketItem, final Predicate<Offer> stale) {
+		final Collection<Offer> offers = this.byMarketItem.get(marketItemId);
+		if (offers.isEmpty()) return;
+
+		final List<Offer> invalid = offers.stream().filter(stale).toList();
+		if (invalid.isEmpty()) return;
+
+		// taken out right away so they can't be accepted while the delete runs, and put back if it fails
+		invalid.forEach(this::remove);
+		Markets.getDataManager().deleteOffers(invalid.stream().map(Offer::getId).toList(), (error, deleted) -> {
+			if (error != null) {
+				invalid.forEach(this::add);
+				return;
+			}
+
+			invalid.forEach(offer -> rejected(offer, marketItem));
+		});
+	}
+
+	/**
+	 * Sends the sender of an invalidated offer the same notice a manual rejection would.
+	 *
+	 * @param marketItem the market item when it's still listed but short on stock, null when it's gone
+	 */
+	private void rejected(final Offer offer, @Nullable final MarketItem marketItem) {
+		final Market market = Markets.getMarketManager().getByOwner(offer.getOfferFor());
+		final String ownerName = market != null ? market.getOwnerName() : Bukkit.getOfflinePlayer(offer.getOfferFor()).getName();
+
+		final RejectionNotice notice = marketItem == null
+				? new RejectionNotice(OfferRejectReason.ITEM_NO_LONGER_AVAILABLE, ownerName, null)
+				: new RejectionNotice(OfferRejectReason.INSUFFICIENT_STOCK, ownerName, ItemUtil.getItemName(marketItem.getItem()));
+
+		final OfflinePlayer sender = Bukkit.getOfflinePlayer(offer.getOfferSender());
+		if (sender.isOnline()) {
+			notice.tell(sender.getPlayer());
+			return;
+		}
+
+		this.pendingRejections.computeIfAbsent(offer.getOfferSender(), ignored -> new CopyOnWriteArrayList<>()).add(notice);
 	}
 
 	public void create(@NonNull final Player sender, @NonNull final Market owningMarket, @NonNull final MarketItem marketItem, @NonNull final String currency, @NonNull final ItemStack currencyItem, final double offeredAmount, @NonNull final Consumer<Boolean> created) {
@@ -66,8 +148,23 @@ public final class OfferManager extends ListManager<Offer> {
 		clear();
 
 		Markets.getDataManager().getOffers((error, found) -> {
-			if (error != null) return;
+			if (error != null) {
+				markLoaded(error);
+				return;
+			}
+
 			found.forEach(this::add);
+			markLoaded();
 		});
 	}
+
+	private record RejectionNotice(OfferRejectReason reason, String ownerName, String itemName) {
+
+		void tell(final Player player) {
+			if (this.reason == OfferRejectReason.INSUFFICIENT_STOCK)
+				Common.tell(player, TranslationManager.string(player, Translations.OFFER_REJECT_INSUFFICIENT_STOCK, "owner_name", this.ownerName, "market_item_name", this.itemName));
+			else
+				Common.tell(player, TranslationManager.string(player, Translations.OFFER_REJECT_NOT_AVAILABLE, "owner_name", this.ownerName));
+		}
+	}
 }
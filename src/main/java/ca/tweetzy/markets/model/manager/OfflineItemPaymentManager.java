@@ -2,30 +2,32 @@ package ca.tweetzy.markets.model.manager;
 
 import ca.tweetzy.markets.Markets;
 import ca.tweetzy.markets.api.currency.Payment;
-import ca.tweetzy.markets.api.manager.ListManager;
 import ca.tweetzy.markets.impl.OfflinePayment;
+import ca.tweetzy.markets.settings.Settings;
 import lombok.NonNull;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
-public final class OfflineItemPaymentManager extends ListManager<Payment> {
+public final class OfflineItemPaymentManager extends ExpiringManager<Payment> {
+
+	private final MultiIndex<UUID> byRecipient = createMultiIndex(Payment::getFor);
 
 	public OfflineItemPaymentManager() {
-		super("Offline Item Payments");
+		super("Offline Item Payments", "offline item payments", Settings.OFFLINE_PAYMENT_EXPIRY_HOURS, (ids, deleted) -> Markets.getDataManager().deleteOfflineItemPayments(ids, deleted));
 	}
 
 	public void remove(@NonNull final UUID paymentId) {
-		synchronized (this.managerContent) {
-			this.managerContent.removeIf(payment -> payment.getId().equals(paymentId));
-		}
+		final Payment payment = get(paymentId);
+		if (payment != null)
+			remove(payment);
 	}
 
 	public List<Payment> getPaymentsFor(@NonNull final UUID user) {
-		return getManagerContent().stream().filter(payment -> payment.getFor().equals(user)).collect(Collectors.toList());
+		return new ArrayList<>(this.byRecipient.get(user));
 	}
 
 	public void create(@NonNull UUID paymentFor, @NonNull final ItemStack currency, final int amount, @NonNull final String reason, @NonNull final Consumer<Boolean> created) {
@@ -53,8 +55,13 @@ public final class OfflineItemPaymentManager extends ListManager<Payment> {
 		clear();
 
 		Markets.getDataManager().getOfflineItemPayments((error, payments) -> {
-			if (error != null) return;
+			if (error != null) {
+				markLoaded(error);
+				return;
+			}
+
 			payments.forEach(this::add);
+			markLoaded();
 		});
 	}
 }
@@ -1,30 +1,34 @@
 package ca.tweetzy.markets.model.manager;
 
-import ca.tweetzy.flight.utils.Common;
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.manager.KeyValueManager;
+import ca.tweetzy.markets.api.manager.IndexedManager;
 import ca.tweetzy.markets.api.market.MarketSortType;
-import ca.tweetzy.markets.api.market.core.Category;
 import ca.tweetzy.markets.api.market.core.Market;
-import ca.tweetzy.markets.api.market.core.MarketItem;
 import ca.tweetzy.markets.api.market.core.MarketUser;
 import ca.tweetzy.markets.impl.MarketPlayer;
 import ca.tweetzy.markets.settings.Settings;
 import lombok.NonNull;
 import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public final class PlayerManager extends KeyValueManager<UUID, MarketUser> {
+public final class PlayerManager extends IndexedManager<UUID, MarketUser> {
 
 	private final Pattern maximumAllowedItemsPattern = Pattern.compile("markets\\.maxalloweditems\\.(\\d+)");
 	private final Pattern maximumAllowedCategoriesPattern = Pattern.compile("markets\\.maxallowedcategories\\.(\\d+)");
 	private final Pattern maximumAllowedRequestsPattern = Pattern.compile("markets\\.maxallowedrequests\\.(\\d+)");
 
+	private static final long LIMITS_REFRESH_INTERVAL = 30_000L;
+
+	private final Map<UUID, Limits> limits = new ConcurrentHashMap<>();
+
 	public enum MarketLimitPermission {
 		ITEMS,
 		CATEGORIES,
@@ -32,7 +36,7 @@ public final class PlayerManager extends KeyValueManager<UUID, MarketUser> {
 	}
 
 	public PlayerManager() {
-		super("Player");
+		super("Player", MarketUser::getUUID);
 	}
 
 	public int getMaxLimitOf(@NonNull final Player player, @NonNull final MarketLimitPermission limitPermission) {
@@ -52,105 +56,105 @@ public final class PlayerManager extends KeyValueManager<UUID, MarketUser> {
 	}
 
 	public int getMaxAllowedMarketItems(@NonNull final Player player) {
-		int maxAllowedItems = Settings.DEFAULT_MAX_ALLOWED_MARKET_ITEMS.getInt();
-		int max = player.getEffectivePermissions().stream().map(i -> {
-			final Matcher matcher = maximumAllowedItemsPattern.matcher(i.getPermission());
-			if (matcher.matches()) {
-				return Integer.parseInt(matcher.group(1));
-			}
-			return 0;
-		}).max(Integer::compareTo).orElse(0);
-
-		if (player.hasPermission("markets.maxalloweditems.*")) {
-			maxAllowedItems = Integer.MAX_VALUE;
-		}
-
-		if (max > maxAllowedItems) {
-			maxAllowedItems = max;
-		}
-
-		return maxAllowedItems;
+		return limitsOf(player).items();
 	}
 
 	public boolean isAtMarketItemLimit(@NonNull final Player player) {
-		final int maxAllowedItems = getMaxAllowedMarketItems(player);
 		final Market playerMarket = Markets.getMarketManager().getByOwner(player.getUniqueId());
 
 		if (playerMarket == null)
 			return false;
 
-		int categoryItemTotal = 0;
-		for (List<MarketItem> marketItems : playerMarket.getCategories().stream().map(Category::getItems).toList()) {
-			categoryItemTotal += marketItems.size();
-		}
-
-		return categoryItemTotal >= maxAllowedItems;
+		return playerMarket.getItemCount() >= getMaxAllowedMarketItems(player);
 	}
 
 	public int getMaxAllowedMarketCategories(@NonNull final Player player) {
-		int maxAllowedCategories = Settings.DEFAULT_MAX_ALLOWED_MARKET_CATEGORIES.getIntOr(64);
-		int max = player.getEffectivePermissions().stream().map(i -> {
-			final Matcher matcher = maximumAllowedCategoriesPattern.matcher(i.getPermission());
-			if (matcher.matches()) {
-				return Integer.parseInt(matcher.group(1));
-			}
-			return 0;
-		}).max(Integer::compareTo).orElse(0);
-
-		if (player.hasPermission("markets.maxallowedcategories.*")) {
-			maxAllowedCategories = Integer.MAX_VALUE;
-		}
-
-		if (max > maxAllowedCategories) {
-			maxAllowedCategories = max;
-		}
-
-		return maxAllowedCategories;
+		return limitsOf(player).categories();
 	}
 
 	public boolean isAtMarketCategoryLimit(@NonNull final Player player) {
-		final int maxAllowedCategories = getMaxAllowedMarketCategories(player);
 		final Market playerMarket = Markets.getMarketManager().getByOwner(player.getUniqueId());
 
 		if (playerMarket == null)
 			return false;
 
-		return playerMarket.getCategories().size() >= maxAllowedCategories;
+		return playerMarket.getCategories().size() >= getMaxAllowedMarketCategories(player);
 	}
 
 	public int getMaxAllowedRequests(@NonNull final Player player) {
-		int maxAllowedRequests = Settings.DEFAULT_MAX_ALLOWED_REQUESTS.getIntOr(64);
-		int max = player.getEffectivePermissions().stream().map(i -> {
-			final Matcher matcher = maximumAllowedRequestsPattern.matcher(i.getPermission());
-			if (matcher.matches()) {
-				return Integer.parseInt(matcher.group(1));
-			}
-			return 0;
-		}).max(Integer::compareTo).orElse(0);
+		return limitsOf(player).requests();
+	}
 
-		if (player.hasPermission("markets.maxallowedrequests.*")) {
-			maxAllowedRequests = Integer.MAX_VALUE;
-		}
+	public boolean isAtRequestLimit(@NonNull final Player player) {
+		return Markets.getRequestManager().getRequestsBy(player.getUniqueId()).size() >= getMaxAllowedRequests(player);
+	}
 
-		if (max > maxAllowedRequests) {
-			maxAllowedRequests = max;
+	/**
+	 * Works out the limits of a player from their permissions and caches them, called on join and world change.
+	 */
+	public void refreshLimits(@NonNull final Player player) {
+		final Limits limits = computeLimits(player);
+		this.limits.put(player.getUniqueId(), limits);
+	}
+
+	public void forgetLimits(@NonNull final UUID playerId) {
+		this.limits.remove(playerId);
+	}
+
+	public void clearLimits() {
+		this.limits.clear();
+	}
+
+	private Limits limitsOf(final Player player) {
+		final Limits cached = this.limits.get(player.getUniqueId());
+		// permission plugins don't tell us when a player's permissions change, so the limits are recomputed once they get old
+		if (cached != null && System.currentTimeMillis() - cached.computedAt() < LIMITS_REFRESH_INTERVAL)
+			return cached;
+
+		final Limits limits = computeLimits(player);
+		this.limits.put(player.getUniqueId(), limits);
+		return limits;
+	}
+
+	private Limits computeLimits(final Player player) {
+		int maxItems = 0;
+		int maxCategories = 0;
+		int maxRequests = 0;
+
+		for (PermissionAttachmentInfo permission : player.getEffectivePermissions()) {
+			if (!permission.getValue() || !permission.getPermission().startsWith("markets.maxallowed")) continue;
+
+			maxItems = Math.max(maxItems, matchLimit(this.maximumAllowedItemsPattern, permission.getPermission()));
+			maxCategories = Math.max(maxCategories, matchLimit(this.maximumAllowedCategoriesPattern, permission.getPermission()));
+			maxRequests = Math.max(maxRequests, matchLimit(this.maximumAllowedRequestsPattern, permission.getPermission()));
 		}
 
-		return maxAllowedRequests;
+		return new Limits(
+				resolveLimit(player, "markets.maxalloweditems.*", Settings.DEFAULT_MAX_ALLOWED_MARKET_ITEMS.getInt(), maxItems),
+				resolveLimit(player, "markets.maxallowedcategories.*", Settings.DEFAULT_MAX_ALLOWED_MARKET_CATEGORIES.getIntOr(64), maxCategories),
+				resolveLimit(player, "markets.maxallowedrequests.*", Settings.DEFAULT_MAX_ALLOWED_REQUESTS.getIntOr(64), maxRequests),
+				System.currentTimeMillis()
+		);
 	}
 
-	public boolean isAtRequestLimit(@NonNull final Player player) {
-		final int maxAllowedRequests = getMaxAllowedRequests(player);
-		return Markets.getRequestManager().getRequestsBy(player.getUniqueId()).size() >= maxAllowedRequests;
+	private int matchLimit(final Pattern pattern, final String permission) {
+		final Matcher matcher = pattern.matcher(permission);
+		return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
 	}
 
+	private int resolveLimit(final Player player, final String unlimitedPermission, final int defaultLimit, final int permittedLimit) {
+		if (player.hasPermission(unlimitedPermission))
+			return Integer.MAX_VALUE;
+
+		return Math.max(defaultLimit, permittedLimit);
+	}
 
 	public void create(@NonNull final Player player, @NonNull final Consumer<Boolean> created) {
 		final MarketUser marketUser = createRawPlayer(player);
 
 		marketUser.store(storedUser -> {
 			if (storedUser != null) {
-				add(storedUser.getUUID(), storedUser);
+				add(storedUser);
 				created.accept(true);
 			} else {
 				created.accept(false);
@@ -176,9 +180,16 @@ public final class PlayerManager extends KeyValueManager<UUID, MarketUser> {
 		clear();
 
 		Markets.getDataManager().getMarketUsers((error, found) -> {
-			if (error != null) return;
-			Common.log("&aLoading Players");
-			found.forEach(user -> add(user.getUUID(), user));
+			if (error != null) {
+				markLoaded(error);
+				return;
+			}
+
+			found.forEach(this::add);
+			markLoaded();
 		});
 	}
+
+	private record Limits(int items, int categories, int requests, long computedAt) {
+	}
 }
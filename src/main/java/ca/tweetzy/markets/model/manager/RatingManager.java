@@ -1,27 +1,38 @@
 package ca.tweetzy.markets.model.manager;
 
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.Trackable;
-import ca.tweetzy.markets.api.manager.ListManager;
+import ca.tweetzy.markets.api.manager.Manager;
 import ca.tweetzy.markets.api.market.core.Market;
 import ca.tweetzy.markets.api.market.core.Rating;
+import ca.tweetzy.markets.model.RatingPager;
 import ca.tweetzy.markets.settings.Settings;
 import lombok.NonNull;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
-import java.util.*;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
-public final class RatingManager extends ListManager<Rating> {
+/**
+ * Reviews are not kept in memory, each market holds its rating aggregates and the reviews themselves are paged in from the database.
+ * Only the time each player last rated each market is kept, for the time between ratings.
+ */
+public final class RatingManager extends Manager {
+
+	private final Map<UUID, Map<UUID, Long>> lastRatedAt = new ConcurrentHashMap<>();
 
 	public RatingManager() {
 		super("Rating");
 	}
 
-	public List<Rating> getRatingsByOrFor(@NonNull final OfflinePlayer profileUser) {
-		return getRatingsByOrFor(profileUser.getUniqueId());
+	public RatingPager newMarketPager(@NonNull final Market market, final int chunkSize) {
+		return new RatingPager(market.getId(), null, chunkSize);
+	}
+
+	public RatingPager newProfilePager(@NonNull final OfflinePlayer profileUser, final int chunkSize) {
+		return new RatingPager(null, profileUser.getUniqueId(), chunkSize);
 	}
 
 	public boolean userMeetsReviewRequirements(@NonNull final Market market, @NonNull final Player player) {
@@ -30,34 +41,21 @@ public final class RatingManager extends ListManager<Rating> {
 	}
 
 	public boolean canUserRateMarket(@NonNull final Market market, @NonNull final Player player) {
-		final List<Rating> userRatingsByMarket = market.getRatings().stream().filter(rating -> rating.getRaterUUID().equals(player.getUniqueId())).toList();
-		if (userRatingsByMarket.isEmpty()) return true;
+		final Map<UUID, Long> raters = this.lastRatedAt.get(market.getId());
+		final Long lastRatingTime = raters == null ? null : raters.get(player.getUniqueId());
 
-		final Rating latestRating = Collections.max(userRatingsByMarket, Comparator.comparing(Trackable::getTimeCreated));
-
-		if (latestRating == null)
+		if (lastRatingTime == null)
 			return true;
 
-		final long lastRatingTime = latestRating.getTimeCreated();
 		return timeDifferenceInSeconds(lastRatingTime, System.currentTimeMillis()) >= Settings.TIME_BETWEEN_RATINGS.getInt();
 	}
 
-	public List<Rating> getRatingsByOrFor(@NonNull final UUID uuid) {
-		final Market marketOwned = Markets.getMarketManager().getByOwner(uuid);
-
-		final List<Rating> ratingsReceived = marketOwned == null ? new ArrayList<>() : marketOwned.getRatings();
-		final List<Rating> ratingsGiven = getManagerContent().stream().filter(rating -> rating.getRaterUUID().equals(uuid)).collect(Collectors.toList());
-
-		ratingsGiven.addAll(ratingsReceived);
-
-		return ratingsGiven;
-	}
-
 	public void create(@NonNull final Market market, @NonNull final Rating rating, @NonNull final Consumer<Boolean> created) {
 		rating.store(storedRating -> {
 			if (storedRating != null) {
-				add(storedRating);
-				market.getRatings().add(rating);
+				this.lastRatedAt.computeIfAbsent(market.getId(), id -> new ConcurrentHashMap<>()).merge(storedRating.getRaterUUID(), storedRating.getTimeCreated(), Math::max);
+				market.getRatingSummary().add(storedRating.getStars());
+				Markets.getMarketManager().refreshRanking(market.getId());
 				created.accept(true);
 			} else {
 				created.accept(false);
@@ -67,7 +65,15 @@ public final class RatingManager extends ListManager<Rating> {
 
 	@Override
 	public void load() {
+		this.lastRatedAt.clear();
 
+		// the rating aggregates are loaded as part of the market graph, see MarketManager#load
+		Markets.getDataManager().getLastRatingTimes((error, times) -> {
+			if (error == null)
+				times.forEach((market, raters) -> this.lastRatedAt.put(market, new ConcurrentHashMap<>(raters)));
+
+			markLoaded(error);
+		});
 	}
 
 	private long timeDifferenceInSeconds(long time1, long time2) {
@@ -1,32 +1,46 @@
 package ca.tweetzy.markets.model.manager;
 
+import ca.tweetzy.flight.utils.Common;
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.manager.ListManager;
 import ca.tweetzy.markets.api.market.Request;
 import ca.tweetzy.markets.impl.MarketRequest;
+import ca.tweetzy.markets.settings.Settings;
 import lombok.NonNull;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-public final class RequestManager extends ListManager<Request> {
+public final class RequestManager extends ExpiringManager<Request> {
+
+	private static final int DELETE_ATTEMPTS = 5;
+	private static final long DELETE_RETRY_DELAY = 20L * 5;
+
+	// the load order depends on the backend, the request menus list oldest first so pages don't shuffle between restarts
+	private static final Comparator<Request> OLDEST_FIRST = Comparator.comparingLong(Request::getTimeCreated).thenComparing(Request::getId);
+
+	// fulfilled requests that are not deleted yet, they must not be listed or matched again if they are read back in the meantime
+	private final Set<UUID> fulfilled = ConcurrentHashMap.newKeySet();
 
 	public RequestManager() {
-		super("Request");
+		super("Request", "requests", Settings.REQUEST_EXPIRY_HOURS, (ids, deleted) -> Markets.getDataManager().deleteRequests(ids, deleted));
 	}
 
 	public List<Request> getRequestsBy(@NonNull final UUID user) {
-		return getManagerContent().stream().filter(request -> request.getOwner().equals(user)).collect(Collectors.toList());
+		return getManagerContent().stream().filter(request -> request.getOwner().equals(user)).sorted(OLDEST_FIRST).collect(Collectors.toList());
 	}
 
 
 	public List<Request> getRequestsExclude(@NonNull final UUID user) {
-		return getManagerContent().stream().filter(request -> !request.getOwner().equals(user)).collect(Collectors.toList());
+		return getManagerContent().stream().filter(request -> !request.getOwner().equals(user)).sorted(OLDEST_FIRST).collect(Collectors.toList());
 	}
 
 	public List<Request> getRequestsExclude(@NonNull final OfflinePlayer player) {
@@ -37,6 +51,56 @@ public final class RequestManager extends ListManager<Request> {
 		return getRequestsBy(player.getUniqueId());
 	}
 
+	@Override
+	public synchronized void add(@NonNull final Request request) {
+		if (this.fulfilled.contains(request.getId())) return;
+
+		super.add(request);
+		if (get(request.getId()) == request)
+			Markets.getCategoryItemManager().getMatchingEngine().addRequest(request);
+	}
+
+	@Override
+	public synchronized void remove(@NonNull final Request request) {
+		super.remove(request);
+		Markets.getCategoryItemManager().getMatchingEngine().removeRequest(request.getId());
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		Markets.getCategoryItemManager().getMatchingEngine().clearRequests();
+	}
+
+	/**
+	 * Takes a request the matching engine filled out of the menus and deletes it. A failed delete is retried a few times, until it
+	 * goes through the request is kept out of the menus and the books, even when requests are loaded again.
+	 */
+	public void fulfilled(@NonNull final Request request) {
+		this.fulfilled.add(request.getId());
+
+		// the engine calls this holding its own lock, removing takes this manager's lock first so it waits for the next tick
+		Bukkit.getServer().getScheduler().runTask(Markets.getInstance(), () -> remove(request));
+		deleteFulfilled(request, 1);
+	}
+
+	private void deleteFulfilled(final Request request, final int attempt) {
+		Markets.getDataManager().deleteRequest(request, (error, deleted) -> {
+			// no row to delete means it is gone as well
+			if (error == null) {
+				this.fulfilled.remove(request.getId());
+				return;
+			}
+
+			if (attempt < DELETE_ATTEMPTS) {
+				Bukkit.getServer().getScheduler().runTaskLaterAsynchronously(Markets.getInstance(), () -> deleteFulfilled(request, attempt + 1), DELETE_RETRY_DELAY * attempt);
+				return;
+			}
+
+			Common.log("&cCould not delete the fulfilled request &e" + request.getId() + "&c, it is kept out of the request menus until the next restart");
+		});
+	}
+
 	public void create(@NonNull final Player owner, @NonNull final ItemStack requestedItem, final String currency, @NonNull final ItemStack currencyItem, final double price, final int requestedAmount, @NonNull final Consumer<Boolean> created) {
 		final Request request = new MarketRequest(
 				UUID.randomUUID(),
@@ -53,6 +117,7 @@ public final class RequestManager extends ListManager<Request> {
 		request.store(storedRequest -> {
 			if (storedRequest != null) {
 				add(storedRequest);
+				Markets.getCategoryItemManager().getMatchingEngine().requestPlaced(storedRequest);
 				created.accept(true);
 			} else {
 				created.accept(false);
@@ -65,8 +130,13 @@ public final class RequestManager extends ListManager<Request> {
 		clear();
 
 		Markets.getDataManager().getRequests((error, found) -> {
-			if (error != null) return;
+			if (error != null) {
+				markLoaded(error);
+				return;
+			}
+
 			found.forEach(this::add);
+			markLoaded();
 		});
 	}
 }
@@ -1,38 +1,157 @@
 package ca.tweetzy.markets.model.manager;
 
 import ca.tweetzy.markets.Markets;
-import ca.tweetzy.markets.api.manager.ListManager;
+import ca.tweetzy.markets.api.manager.IndexedManager;
 import ca.tweetzy.markets.api.market.Transaction;
+import ca.tweetzy.markets.api.market.TransactionFilter;
 import ca.tweetzy.markets.api.market.core.MarketUser;
+import ca.tweetzy.markets.model.TransactionPager;
+import ca.tweetzy.markets.settings.Settings;
 import lombok.NonNull;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-public final class TransactionManager extends ListManager<Transaction> {
+/**
+ * Only recent transactions are kept in memory, older ones are read from the database page by page when asked for.
+ * Purchase counts cover the full history, they are loaded as aggregates and kept up to date as transactions are made.
+ */
+public final class TransactionManager extends IndexedManager<UUID, Transaction> {
+
+	private static final long EVICTION_INTERVAL = 20L * 60 * 60;
+
+	private final Map<UUID, Map<UUID, AtomicInteger>> purchaseCounts = new ConcurrentHashMap<>();
+	private final Map<UUID, AtomicInteger> salesCounts = new ConcurrentHashMap<>();
 
 	public TransactionManager() {
-		super("Transaction");
+		super("Transaction", Transaction::getId);
+	}
+
+	/**
+	 * Adds a newly made transaction and counts it towards the buyer and seller totals.
+	 */
+	public void track(@NonNull final Transaction transaction) {
+		add(transaction);
+		count(transaction.getSeller(), transaction.getBuyer(), 1);
 	}
 
 	public int getTransactionsMadeToMarket(@NonNull final UUID sellerUUID, @NonNull final UUID buyerUUID) {
-		return (int) this.managerContent.stream().filter(transaction -> transaction.getBuyer().equals(buyerUUID) && transaction.getSeller().equals(sellerUUID)).count();
+		final Map<UUID, AtomicInteger> buyers = this.purchaseCounts.get(sellerUUID);
+		if (buyers == null) return 0;
+
+		final AtomicInteger count = buyers.get(buyerUUID);
+		return count == null ? 0 : count.get();
+	}
+
+	public int getTotalSales(@NonNull final UUID sellerUUID) {
+		final AtomicInteger count = this.salesCounts.get(sellerUUID);
+		return count == null ? 0 : count.get();
 	}
 
+	/**
+	 * @return the sales a seller made since they were last seen, as far as they are still in memory
+	 */
 	public List<Transaction> getOfflineTransactionsFor(@NonNull final UUID sellerUUID) {
+		return getOfflineTransactionsFor(sellerUUID, getLastSeenAt(sellerUUID));
+	}
+
+	/**
+	 * @return the sales a seller made at or after the given time, as far as they are still in memory
+	 */
+	public List<Transaction> getOfflineTransactionsFor(@NonNull final UUID sellerUUID, final long since) {
+		return getManagerContent().stream().filter(transaction -> transaction.getSeller().equals(sellerUUID) && transaction.getTimeCreated() >= since).collect(Collectors.toList());
+	}
+
+	/**
+	 * Counts the sales a seller made since they were last seen. Answered from memory when that is inside the in memory window,
+	 * otherwise counted in the database.
+	 *
+	 * @param sellerUUID the seller
+	 * @param count      receives the count, 0 if counting failed
+	 */
+	public void countOfflineTransactionsFor(@NonNull final UUID sellerUUID, @NonNull final Consumer<Integer> count) {
+		final long since = getLastSeenAt(sellerUUID);
+
+		if (since >= getHotWindowStart()) {
+			count.accept(getOfflineTransactionsFor(sellerUUID).size());
+			return;
+		}
+
+		Markets.getDataManager().countTransactions(new TransactionFilter(since, null, sellerUUID, null), (error, total) -> count.accept(error == null ? total : 0));
+	}
+
+	/**
+	 * @return a pager over the sales a seller made since they were last seen, read from the database so it reaches past the in memory window
+	 */
+	public TransactionPager newOfflinePager(@NonNull final UUID sellerUUID, final int chunkSize) {
+		return new TransactionPager(sellerUUID, getLastSeenAt(sellerUUID), chunkSize);
+	}
+
+	/**
+	 * Reads a page of a seller's full transaction history from the database, newest first.
+	 *
+	 * @param sellerUUID the seller
+	 * @param since      only transactions made at or after this time
+	 * @param after      the last transaction of the previous page, or null for the first page
+	 * @param limit      the page size
+	 * @param page       receives the page, empty once the history is exhausted or if reading it failed
+	 */
+	public void getHistory(@NonNull final UUID sellerUUID, final long since, @Nullable final Transaction after, final int limit, @NonNull final Consumer<List<Transaction>> page) {
+		Markets.getDataManager().getTransactionsPage(sellerUUID, since, after, limit, (error, found) -> page.accept(error == null ? found : List.of()));
+	}
+
+	public long getHotWindowStart() {
+		return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(Math.max(1, Settings.TRANSACTIONS_DAYS_IN_MEMORY.getInt()));
+	}
+
+	private long getLastSeenAt(final UUID sellerUUID) {
 		final MarketUser user = Markets.getPlayerManager().get(sellerUUID);
+		return user == null ? 0 : user.getLastSeenAt();
+	}
+
+	private void count(final UUID seller, final UUID buyer, final int amount) {
+		this.purchaseCounts.computeIfAbsent(seller, key -> new ConcurrentHashMap<>()).computeIfAbsent(buyer, key -> new AtomicInteger()).addAndGet(amount);
+		this.salesCounts.computeIfAbsent(seller, key -> new AtomicInteger()).addAndGet(amount);
+	}
 
-		return getManagerContent().stream().filter(transaction -> transaction.getSeller().equals(sellerUUID) && transaction.getTimeCreated() >= user.getLastSeenAt()).collect(Collectors.toList());
+	private void evictCold() {
+		final long windowStart = getHotWindowStart();
+		getManagerContent().stream().filter(transaction -> transaction.getTimeCreated() < windowStart).toList().forEach(this::remove);
 	}
 
 	@Override
 	public void load() {
 		clear();
+		this.purchaseCounts.clear();
+		this.salesCounts.clear();
+
+		Markets.getDataManager().getTransactionCounts((countError, counts) -> {
+			if (countError != null) {
+				markLoaded(countError);
+				return;
+			}
+
+			counts.forEach((seller, buyers) -> buyers.forEach((buyer, total) -> count(seller, buyer, total)));
+
+			Markets.getDataManager().getTransactionsSince(getHotWindowStart(), (error, found) -> {
+				if (error != null) {
+					markLoaded(error);
+					return;
+				}
+
+				found.forEach(this::add);
+				markLoaded();
 
-		Markets.getDataManager().getTransactions((error, found) -> {
-			if (error != null) return;
-			found.forEach(this::add);
+				Bukkit.getServer().getScheduler().runTaskTimerAsynchronously(Markets.getInstance(), this::evictCold, EVICTION_INTERVAL, EVICTION_INTERVAL);
+			});
 		});
 	}
 }
@@ -23,6 +23,7 @@ public final class Settings extends FlightSettings {
 	public static ConfigEntry ALLOW_ANYONE_TO_CREATE_MARKET = create("settings.allow anyone to create market", true).withComment("If true, anyone can create a market. Otherwise they will need the permission: markets.createmarket");
 	public static ConfigEntry ALLOW_BANK = create("settings.allow usage of bank", true).withComment("If true, players can use the bank. If not, offline payment for things requiring items as payment will not work!");
 	public static ConfigEntry ALLOW_REQUESTS = create("settings.allow usage of request system", true).withComment("If true, players can use the request system");
+	public static ConfigEntry AUTO_MATCH_REQUESTS = create("settings.auto match requests", true).withComment("If true, requests are filled automatically from market listings selling the same item in the same currency at or below the requested price");
 	public static ConfigEntry CURRENCY_ALLOW_PICK = create("settings.currency.allow user to pick", true).withComment("If true, players will be able to select which currency they want to use.");
 	public static ConfigEntry CURRENCY_DEFAULT_SELECTED = create("settings.currency.default selection", "Vault/Vault").withComment("The default currency selection, PluginName/CurrencyName -> Ex. Vault/Vault");
 	public static ConfigEntry CURRENCY_ITEM_DEFAULT_SELECTED = create("settings.currency.default item selection", "DIAMOND").withComment("The default currency selection if using item only mode");
@@ -32,6 +33,10 @@ public final class Settings extends FlightSettings {
 	public static ConfigEntry TIME_BETWEEN_RATINGS = create("settings.time between ratings", 86400).withComment("How many seconds must a player wait before they can rate the same market?");
 	public static ConfigEntry OPEN_CATEGORY_SETTINGS_AFTER_ITEM_ADD = create("settings.open category after item add", false).withComment("If true, when adding an item using the command, it will open the category after");
 	public static ConfigEntry AUTO_REMOVE_ITEM_WHEN_OUT_OF_STOCK = create("settings.remove market item when out of stock", false).withComment("If true, then when an item's stock count hits zero, it will be removed from the market.");
+	public static ConfigEntry TRANSACTIONS_DAYS_IN_MEMORY = create("settings.transactions.days kept in memory", 30).withComment("Transactions from the last this many days are kept in memory, older ones are only read from the database when needed. Purchase counts for reviews always include every transaction.");
+	public static ConfigEntry OFFER_EXPIRY_HOURS = create("settings.expiry.offers", 168).withComment("Offers that were not accepted or rejected within this many hours are removed. Set to 0 to keep them forever.");
+	public static ConfigEntry REQUEST_EXPIRY_HOURS = create("settings.expiry.requests", 720).withComment("Requests that were not fulfilled within this many hours are removed. Set to 0 to keep them forever.");
+	public static ConfigEntry OFFLINE_PAYMENT_EXPIRY_HOURS = create("settings.expiry.offline payments", 0).withComment("Item payments that were not collected within this many hours are removed, the items in them are lost. Set to 0 to keep them forever.");
 	public static ConfigEntry MIN_PURCHASES_BEFORE_REVIEW = create("settings.minimum purchases before review", 1).withComment("How many items must a player buy from a market before they can leave a review?");
 	public static ConfigEntry ENABLE_SEARCH_IN_MARKETS = create("settings.enable search in markets", true).withComment("If true, the search button will be shown in the market content view/search");
 	public static ConfigEntry ITEMS_ARE_WHOLESALE_BY_DEFAULT = create("settings.default new items to wholesale", false).withComment("If true, any new items added to a market will be set as a wholesale item.");
@@ -69,6 +74,18 @@ public final class Settings extends FlightSettings {
 	========================= INTERNAL TIMINGS =========================
 	 */
 	public static ConfigEntry INTERNAL_ADD_ITEM_DELAY = create("settings.internal.add item delay", 3).withComment("In ticks, how long should markets wait before calling the method to create an item after the button is clicked.");
+	public static ConfigEntry INTERNAL_WRITE_FLUSH_INTERVAL = create("settings.internal.write queue.flush interval", 20).withComment("In ticks, how often queued updates (stock, bank, market & profile changes) are written to the database.");
+	public static ConfigEntry INTERNAL_WRITE_MAX_QUEUE_SIZE = create("settings.internal.write queue.max queue size", 256).withComment("If this many distinct updates are waiting, they are written right away instead of waiting for the next interval.");
+	public static ConfigEntry DATABASE_BACKEND = create("settings.database.backend", "SQLITE").withComment("Where data is stored, one of SQLITE, H2 (embedded, allows concurrent writes) or JDBC (any MySQL compatible database at the jdbc url). Changing it does not move existing data.");
+	public static ConfigEntry DATABASE_JDBC_URL = create("settings.database.jdbc.url", "jdbc:mysql://localhost:3306/markets").withComment("Only used by the JDBC backend.");
+	public static ConfigEntry DATABASE_DRIVER = create("settings.database.jdbc.driver", "com.mysql.cj.jdbc.Driver").withComment("The driver class for the jdbc url, leave empty to let java find it.");
+	public static ConfigEntry DATABASE_USERNAME = create("settings.database.jdbc.username", "root");
+	public static ConfigEntry DATABASE_PASSWORD = create("settings.database.jdbc.password", "");
+	public static ConfigEntry DATABASE_POOL_SIZE = create("settings.database.pool.size", 8).withComment("The most connections the H2 and JDBC backends keep open at once.");
+	public static ConfigEntry DATABASE_POOL_TIMEOUT = create("settings.database.pool.timeout", 10).withComment("In seconds, how long a database task waits for a free connection before it fails.");
+	public static ConfigEntry DATABASE_SQLITE_WAL = create("settings.database.sqlite.write ahead log", true).withComment("If true, the SQLITE backend uses write ahead logging with synchronous=NORMAL, which makes writes much faster and lets reads run alongside them.");
+	public static ConfigEntry DATABASE_SQLITE_MMAP_SIZE = create("settings.database.sqlite.mmap size", 64).withComment("In megabytes, how much of the sqlite database file is memory mapped for faster reads, 0 turns it off.");
+	public static ConfigEntry DATABASE_COMPACT_UUIDS = create("settings.database.compact uuids", false).withComment("If true, ids are stored as 16 bytes instead of 36 characters. Existing data is converted on the next startup, setting it back to false converts it back. Only supported by the SQLITE backend.");
 
 
 	/*
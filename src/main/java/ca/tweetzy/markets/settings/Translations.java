@@ -37,6 +37,7 @@ public final class Translations extends TranslationManager {
 	public static TranslationEntry NO_MARKET_FOUND = create("error.no market found", "&cCould not find any market for&F: &4%player_name%");
 	public static TranslationEntry ONE_FILL_SLOT_REQUIRED = create("error.one fill slot required", "&cThis layout requires at least one fill slot!");
 	public static TranslationEntry ITEM_OUT_OF_STOCK = create("error.item out of stock", "&cSorry that item is now out of stock");
+	public static TranslationEntry STILL_LOADING = create("error.still loading", "&cMarkets is still loading, please try again in a moment");
 	public static TranslationEntry ITEM_NO_LONGER_AVAILABLE = create("error.item no longer available", "&cSorry that item is no longer available");
 	public static TranslationEntry BANNED_FROM_MARKET = create("error.banned from market", "&4%market_owner% &chas banned you from viewing their market!");
 	public static TranslationEntry MARKET_IS_CLOSED = create("error.market is closed", "&4%market_owner%&c's market is currently closed!");
@@ -45,8 +46,13 @@ public final class Translations extends TranslationManager {
 	public static TranslationEntry REVIEWS_DISABLED = create("error.ratings disabled", "&cReviews are disabled");
 	public static TranslationEntry OFFERS_DISABLED = create("error.offers disabled", "&cOffers are disabled");
 	public static TranslationEntry NO_REVIEWS = create("error.no reviews", "&cThere are no reviews currently.");
+	public static TranslationEntry EXPORT_INVALID_DATE = create("error.export invalid date", "&cInvalid date&F: &4%value%&c, use year-month-day like 2024-01-31");
+	public static TranslationEntry EXPORT_FAILED = create("error.export failed", "&cThe export to &4%export_file% &cfailed, check the console for details");
 
 	public static TranslationEntry DELETED_MARKET = create("info.deleted market", "&eSuccessfully deleted your market!");
+	public static TranslationEntry EXPORT_STARTED = create("info.admin.export started", "&eExporting &a%export_total% &etransactions to &b%export_file%");
+	public static TranslationEntry EXPORT_PROGRESS = create("info.admin.export progress", "&eExported &a%export_done%&f/&a%export_total% &etransactions");
+	public static TranslationEntry EXPORT_FINISHED = create("info.admin.export finished", "&eExported &a%export_done% &etransactions to &b%export_file%");
 	public static TranslationEntry REMOVED_PLAYER_MARKET = create("info.admin.removed market", "&eSuccessfully removed market owned by &b%player_name%");
 	public static TranslationEntry MARKET_ITEM_BOUGHT_SELLER = create("info.market item bought.seller", "&fx&a%purchase_quantity% &f%item_name% &ewas bought by &b%buyer_name%");
 	public static TranslationEntry MARKET_ITEM_BOUGHT_BUYER = create("info.market item bought.buyer", "&eBought &fx&a%purchase_quantity% &f%item_name% &efrom &b%seller_name%");
@@ -70,6 +76,8 @@ public final class Translations extends TranslationManager {
 	public static TranslationEntry OFFER_ACCEPTED = create("info.offer.accepted", "&b%owner_name% &eaccepted your offer on &e%market_item_name%");
 	public static TranslationEntry OFFER_ACCEPTED_PAYMENT = create("info.offer.accepted payment", "&eThe offer request was accepted");
 	public static TranslationEntry REQUEST_PAYMENT = create("info.request.payment", "&eA request was completed");
+	public static TranslationEntry INVENTORY_FULL_PAYMENT = create("info.inventory full.payment", "&eItems that did not fit in your inventory");
+	public static TranslationEntry INVENTORY_FULL = create("info.inventory full.message", "&fx&a%item_quantity% &f%item_name% &edid not fit in your inventory and were sent to your payments");
 	public static TranslationEntry REQUEST_FULFILLED = create("info.request.fulfilled", "&b%fulfill_name% &efulfilled your request for &e%request_item_name%");
 
 
@@ -191,6 +199,8 @@ public final class Translations extends TranslationManager {
 			"&7Used to view any offers that",
 			"&7other users have sent regarding your items.",
 			"",
+			"&7Pending offers&f: &e%offer_count%",
+			"",
 			"&e&l%left_click% &7to view offers"
 	);
 
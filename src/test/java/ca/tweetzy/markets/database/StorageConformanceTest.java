@@ -0,0 +1,541 @@
+package ca.tweetzy.markets.database;
+
+import ca.tweetzy.flight.database.DatabaseConnector;
+import ca.tweetzy.flight.database.SQLiteConnector;
+import ca.tweetzy.markets.api.currency.Payment;
+import ca.tweetzy.markets.api.market.*;
+import ca.tweetzy.markets.api.market.core.*;
+import ca.tweetzy.markets.api.market.offer.Offer;
+import ca.tweetzy.markets.database.migrations._18_IndexMigration;
+import ca.tweetzy.markets.impl.*;
+import ca.tweetzy.markets.stub.StubDatabase;
+import ca.tweetzy.markets.stub.StubItemCodec;
+import ca.tweetzy.markets.stub.StubServer;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the migrations and the data manager queries against every embedded backend, so a statement that only one of them
+ * understands fails here instead of on a server.
+ */
+final class StorageConformanceTest {
+
+	private static final String PREFIX = StubDatabase.PREFIX;
+
+	@TempDir
+	File dataFolder;
+
+	enum Backend {
+
+		SQLITE {
+			@Override
+			DatabaseConnector connect(final Plugin plugin) {
+				return new SerializedConnector(new SQLiteConnector(plugin));
+			}
+		},
+
+		H2 {
+			@Override
+			DatabaseConnector connect(final Plugin plugin) {
+				return new PooledConnector("org.h2.Driver", "jdbc:h2:mem:markets-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "", "", 4, 5);
+			}
+		};
+
+		abstract DatabaseConnector connect(Plugin plugin);
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void migrationsCreateTheIndexesAndCanBeRepeated(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			storage.sql(connection -> {
+				assertTrue(hasIndex(connection.getMetaData(), PREFIX + "offer", PREFIX + "offer_to_idx"));
+				assertTrue(hasIndex(connection.getMetaData(), PREFIX + "transaction", PREFIX + "transaction_seller_created_idx"));
+
+				// indexes that already exist are skipped rather than failing the migration
+				new _18_IndexMigration().migrate(connection, PREFIX);
+			});
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void infiniteDefaultsToFalse(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			storage.sql(connection -> {
+				try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + PREFIX + "category_item (id, owning_category, item, currency, price, stock, price_is_for_all) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+					insert.setString(1, UUID.randomUUID().toString());
+					insert.setString(2, UUID.randomUUID().toString());
+					insert.setBytes(3, new byte[]{1});
+					insert.setString(4, "Vault/Vault");
+					insert.setDouble(5, 10);
+					insert.setInt(6, 1);
+					insert.setBoolean(7, false);
+					insert.executeUpdate();
+				}
+
+				try (PreparedStatement select = connection.prepareStatement("SELECT infinite FROM " + PREFIX + "category_item")) {
+					final ResultSet resultSet = select.executeQuery();
+					assertTrue(resultSet.next());
+					assertFalse(resultSet.getBoolean("infinite"));
+				}
+			});
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void ratingsRoundTrip(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final UUID market = UUID.randomUUID();
+			final UUID rater = UUID.randomUUID();
+
+			storage.<Rating>await(callback -> storage.dataManager().createMarketRating(new MarketRating(UUID.randomUUID(), market, rater, "Steve", "fine", 3, 1_000L), callback));
+			storage.<Rating>await(callback -> storage.dataManager().createMarketRating(new MarketRating(UUID.randomUUID(), market, rater, "Steve", "great", 5, 2_000L), callback));
+			storage.<Rating>await(callback -> storage.dataManager().createMarketRating(new MarketRating(UUID.randomUUID(), UUID.randomUUID(), rater, "Steve", "other", 1, 3_000L), callback));
+
+			final List<Rating> ratings = storage.await(callback -> storage.dataManager().getRatingsByMarket(market, callback));
+			assertEquals(2, ratings.size());
+			assertEquals(Set.of("fine", "great"), ratings.stream().map(Rating::getFeedback).collect(Collectors.toSet()));
+
+			final Map<UUID, Map<UUID, Long>> lastRated = storage.await(storage.dataManager()::getLastRatingTimes);
+			assertEquals(2_000L, lastRated.get(market).get(rater));
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void bankEntriesRoundTrip(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final BankEntry entry = new MarketBankEntry(UUID.randomUUID(), UUID.randomUUID(), new ItemStack(Material.DIAMOND), 5);
+			storage.<BankEntry>await(callback -> storage.dataManager().createBankEntry(entry, callback));
+
+			entry.setQuantity(12);
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().updateBankEntry(entry, callback)));
+
+			final List<BankEntry> entries = storage.await(storage.dataManager()::getBankEntries);
+			assertEquals(1, entries.size());
+			assertEquals(entry.getId(), entries.get(0).getId());
+			assertEquals(12, entries.get(0).getQuantity());
+			assertEquals(Material.DIAMOND, entries.get(0).getItem().getType());
+
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().deleteBankEntry(entry, callback)));
+			assertTrue(storage.<List<BankEntry>>await(storage.dataManager()::getBankEntries).isEmpty());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void batchUpdatesReportRowsThatAreNotStored(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final BankEntry stored = new MarketBankEntry(UUID.randomUUID(), UUID.randomUUID(), new ItemStack(Material.STONE), 1);
+			final BankEntry missing = new MarketBankEntry(UUID.randomUUID(), UUID.randomUUID(), new ItemStack(Material.STONE), 1);
+			storage.<BankEntry>await(callback -> storage.dataManager().createBankEntry(stored, callback));
+
+			stored.setQuantity(7);
+			final WriteBehindQueue.BatchResult result = storage.dataManager().updateBatch(new WriteBehindQueue.Batch(List.of(), List.of(), List.of(stored, missing), List.of()));
+
+			assertTrue(result.committed());
+			assertEquals(1, result.unmatched().size());
+			assertTrue(result.unmatched().contains(missing));
+			assertEquals(7, storage.<List<BankEntry>>await(storage.dataManager()::getBankEntries).get(0).getQuantity());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void transactionPagesFollowTheKeyset(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final UUID seller = UUID.randomUUID();
+
+			// two rows share a timestamp, the id breaks the tie
+			final long[] times = {1_000L, 2_000L, 2_000L, 3_000L, 4_000L};
+			for (long time : times) {
+				final Transaction transaction = new MarketTransaction(UUID.randomUUID(), UUID.randomUUID(), "Alex", seller, "Steve", TransactionType.ITEM_PURCHASE, new ItemStack(Material.BREAD), "Vault/Vault", 1, 10, time);
+				storage.<Transaction>await(callback -> storage.dataManager().createTransaction(transaction, callback));
+			}
+
+			storage.<Transaction>await(callback -> storage.dataManager().createTransaction(new MarketTransaction(UUID.randomUUID(), UUID.randomUUID(), "Alex", UUID.randomUUID(), "Other", TransactionType.ITEM_PURCHASE, new ItemStack(Material.BREAD), "Vault/Vault", 1, 10, 5_000L), callback));
+
+			final List<Transaction> read = new ArrayList<>();
+			Transaction after = null;
+
+			while (true) {
+				final Transaction last = after;
+				final List<Transaction> page = storage.await(callback -> storage.dataManager().getTransactionsPage(seller, 1_500L, last, 2, callback));
+				if (page.isEmpty()) break;
+
+				read.addAll(page);
+				after = page.get(page.size() - 1);
+			}
+
+			assertEquals(4, read.size());
+			assertEquals(4, read.stream().map(Transaction::getId).distinct().count());
+			for (int i = 1; i < read.size(); i++)
+				assertTrue(read.get(i - 1).getTimeCreated() >= read.get(i).getTimeCreated());
+
+			assertEquals(5, storage.<Integer>await(callback -> storage.dataManager().countTransactions(new TransactionFilter(null, null, seller, null), callback)));
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void marketsRoundTripWithTheirBannedUsers(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final UUID first = UUID.randomUUID();
+			final UUID second = UUID.randomUUID();
+			final UUID third = UUID.randomUUID();
+
+			final AbstractMarket market = market(UUID.randomUUID(), new ArrayList<>(List.of(first, second)));
+			storage.<AbstractMarket>await(callback -> storage.dataManager().createMarket(market, callback));
+
+			AbstractMarket read = storage.<List<AbstractMarket>>await(storage.dataManager()::getMarkets).get(0);
+			assertEquals(market.getId(), read.getId());
+			assertEquals("Steve's Market", read.getDisplayName());
+			assertEquals(Set.of(first, second), Set.copyOf(read.getBannedUsers()));
+
+			market.setDisplayName("Renamed");
+			market.setOpen(false);
+			market.getBannedUsers().remove(first);
+			market.getBannedUsers().add(third);
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().updateMarket(market, callback)));
+
+			read = storage.<List<AbstractMarket>>await(storage.dataManager()::getMarkets).get(0);
+			assertEquals("Renamed", read.getDisplayName());
+			assertFalse(read.isOpen());
+			assertEquals(Set.of(second, third), Set.copyOf(read.getBannedUsers()));
+
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().deleteMarket(market, callback)));
+			assertTrue(storage.<List<AbstractMarket>>await(storage.dataManager()::getMarkets).isEmpty());
+			assertEquals(0, count(storage, "market_banned_user"));
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void marketGraphLinksCategoriesItemsAndRatings(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final AbstractMarket market = market(UUID.randomUUID(), new ArrayList<>());
+			final Category category = category(market.getId());
+			final Category orphanCategory = category(UUID.randomUUID());
+
+			storage.<AbstractMarket>await(callback -> storage.dataManager().createMarket(market, callback));
+			storage.<Category>await(callback -> storage.dataManager().createCategory(category, callback));
+			storage.<Category>await(callback -> storage.dataManager().createCategory(orphanCategory, callback));
+
+			for (MarketItem marketItem : List.of(marketItem(category.getId()), marketItem(category.getId()), marketItem(UUID.randomUUID())))
+				storage.<MarketItem>await(callback -> storage.dataManager().createMarketItem(marketItem, callback));
+
+			storage.<Rating>await(callback -> storage.dataManager().createMarketRating(new MarketRating(UUID.randomUUID(), market.getId(), UUID.randomUUID(), "Alex", "great", 5, 1_000L), callback));
+			storage.<Rating>await(callback -> storage.dataManager().createMarketRating(new MarketRating(UUID.randomUUID(), market.getId(), UUID.randomUUID(), "Steve", "fine", 3, 2_000L), callback));
+
+			final List<AbstractMarket> graph = storage.await(storage.dataManager()::getMarketGraph);
+			assertEquals(1, graph.size());
+
+			final AbstractMarket read = graph.get(0);
+			assertEquals(1, read.getCategories().size());
+			assertEquals(category.getId(), read.getCategories().get(0).getId());
+			assertEquals(2, read.getCategories().get(0).getItems().size());
+			assertEquals(2, read.getItemCount());
+			assertEquals(2, read.getRatingSummary().getCount());
+			assertEquals(4.0, read.getRatingSummary().getAverage(), 0.001);
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void categoriesRoundTrip(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final Category category = category(UUID.randomUUID());
+			storage.<Category>await(callback -> storage.dataManager().createCategory(category, callback));
+
+			category.setDisplayName("Weapons");
+			category.setIcon(new ItemStack(Material.DIAMOND_SWORD));
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().updateCategory(category, callback)));
+
+			final List<Category> categories = storage.await(storage.dataManager()::getCategories);
+			assertEquals(1, categories.size());
+			assertEquals(category.getId(), categories.get(0).getId());
+			assertEquals(category.getOwningMarket(), categories.get(0).getOwningMarket());
+			assertEquals("Weapons", categories.get(0).getDisplayName());
+			assertEquals(Material.DIAMOND_SWORD, categories.get(0).getIcon().getType());
+
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().deleteCategory(category, callback)));
+			assertTrue(storage.<List<Category>>await(storage.dataManager()::getCategories).isEmpty());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void marketItemsRoundTripThroughTheItemCodec(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final UUID category = UUID.randomUUID();
+			final MarketItem kept = marketItem(category);
+			final MarketItem deleted = marketItem(category);
+
+			storage.<MarketItem>await(callback -> storage.dataManager().createMarketItem(kept, callback));
+			storage.<MarketItem>await(callback -> storage.dataManager().createMarketItem(deleted, callback));
+			storage.<MarketItem>await(callback -> storage.dataManager().createMarketItem(marketItem(UUID.randomUUID()), callback));
+
+			kept.setPrice(42.5);
+			kept.setStock(3);
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().updateMarketItem(kept, callback)));
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().deleteMarketItem(deleted, callback)));
+
+			final List<MarketItem> items = storage.await(callback -> storage.dataManager().getMarketItemsByCategory(category, callback));
+			assertEquals(1, items.size());
+
+			final MarketItem read = items.get(0);
+			assertEquals(kept.getId(), read.getId());
+			assertEquals(42.5, read.getPrice());
+			assertEquals(3, read.getStock());
+			assertEquals(Material.DIAMOND_SWORD, read.getItem().getType());
+			assertEquals("Blazing Edge", read.getItem().getItemMeta().getDisplayName());
+			assertEquals(List.of("forged in fire"), read.getItem().getItemMeta().getLore());
+
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().deleteMarketItems(new MarketCategory(UUID.randomUUID(), category, new ItemStack(Material.CHEST), "gear", "Gear", new ArrayList<>(), new ArrayList<>(), 0L, 0L), callback)));
+			assertEquals(1, storage.<List<MarketItem>>await(storage.dataManager()::getMarketItems).size());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void usersRoundTrip(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final MarketUser user = new MarketPlayer(UUID.randomUUID(), null, "Steve", new ArrayList<>(List.of("hello", "world")), "english", "US", MarketSortType.NAME, 1_000L);
+			storage.<MarketUser>await(callback -> storage.dataManager().createMarketUser(user, callback));
+
+			user.setLastKnownName("Alex");
+			user.setLastSeenAt(2_000L);
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().updateMarketUser(user, callback)));
+
+			final List<MarketUser> users = storage.await(storage.dataManager()::getMarketUsers);
+			assertEquals(1, users.size());
+			assertEquals(user.getUUID(), users.get(0).getUUID());
+			assertEquals("Alex", users.get(0).getLastKnownName());
+			assertEquals(List.of("hello", "world"), users.get(0).getBio());
+			assertEquals(2_000L, users.get(0).getLastSeenAt());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void offersAreDeletedOneByOneAndByIds(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final List<Offer> offers = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				final Offer offer = new MarketOffer(UUID.randomUUID(), UUID.randomUUID(), "Steve", UUID.randomUUID(), UUID.randomUUID(), 2, "Vault/Vault", new ItemStack(Material.AIR), 10 + i, 1_000L + i);
+				storage.<Offer>await(callback -> storage.dataManager().createOffer(offer, callback));
+				offers.add(offer);
+			}
+
+			final List<Offer> read = storage.await(storage.dataManager()::getOffers);
+			assertEquals(3, read.size());
+			assertEquals(offers.stream().map(Offer::getId).collect(Collectors.toSet()), read.stream().map(Offer::getId).collect(Collectors.toSet()));
+			assertEquals(2, read.get(0).getRequestAmount());
+
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().deleteOffer(offers.get(0), callback)));
+
+			// ids that are not stored are not counted
+			assertEquals(2, storage.<Integer>await(callback -> storage.dataManager().deleteOffers(List.of(offers.get(1).getId(), offers.get(2).getId(), UUID.randomUUID()), callback)));
+			assertTrue(storage.<List<Offer>>await(storage.dataManager()::getOffers).isEmpty());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void requestsAreDeletedOneByOneAndByIds(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final List<Request> requests = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				final Request request = new MarketRequest(UUID.randomUUID(), UUID.randomUUID(), "Steve", new ItemStack(Material.OAK_LOG), "Vault/Vault", new ItemStack(Material.AIR), 5 + i, 16, 1_000L + i);
+				storage.<Request>await(callback -> storage.dataManager().createRequest(request, callback));
+				requests.add(request);
+			}
+
+			final List<Request> read = storage.await(storage.dataManager()::getRequests);
+			assertEquals(3, read.size());
+			assertEquals(Material.OAK_LOG, read.get(0).getRequestItem().getType());
+			assertEquals(16, read.get(0).getRequestedAmount());
+
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().deleteRequest(requests.get(0), callback)));
+			assertEquals(2, storage.<Integer>await(callback -> storage.dataManager().deleteRequests(List.of(requests.get(1).getId(), requests.get(2).getId(), UUID.randomUUID()), callback)));
+			assertTrue(storage.<List<Request>>await(storage.dataManager()::getRequests).isEmpty());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void offlinePaymentsAreDeletedOneByOneAndByIds(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final UUID player = UUID.randomUUID();
+			final List<Payment> payments = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				final Payment payment = new OfflinePayment(UUID.randomUUID(), player, new ItemStack(Material.EMERALD), 4 + i, "Sold an item", 1_000L + i);
+				storage.<Payment>await(callback -> storage.dataManager().createOfflineItemPayment(payment, callback));
+				payments.add(payment);
+			}
+
+			final List<Payment> read = storage.await(storage.dataManager()::getOfflineItemPayments);
+			assertEquals(3, read.size());
+			assertTrue(read.stream().allMatch(payment -> payment.getFor().equals(player) && payment.getCurrency().getType() == Material.EMERALD));
+
+			assertTrue(storage.<Boolean>await(callback -> storage.dataManager().deleteOfflineItemPayment(payments.get(0), callback)));
+			assertEquals(2, storage.<Integer>await(callback -> storage.dataManager().deleteOfflineItemPayments(List.of(payments.get(1).getId(), payments.get(2).getId()), callback)));
+			assertTrue(storage.<List<Payment>>await(storage.dataManager()::getOfflineItemPayments).isEmpty());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Backend.class)
+	void streamedTransactionsCrossChunksInKeysetOrder(final Backend backend) throws Exception {
+		try (StubDatabase storage = open(backend)) {
+			final UUID seller = UUID.randomUUID();
+
+			// more rows than a chunk holds, three per timestamp so chunks end between rows that share one
+			final int rows = 1_203;
+			storage.sql(connection -> insertTransactions(connection, seller, rows));
+			storage.<Transaction>await(callback -> storage.dataManager().createTransaction(new MarketTransaction(UUID.randomUUID(), UUID.randomUUID(), "Alex", UUID.randomUUID(), "Other", TransactionType.ITEM_PURCHASE, new ItemStack(Material.BREAD), "Vault/Vault", 1, 10, 0L), callback));
+
+			final List<Transaction> visited = new ArrayList<>();
+			final int total = storage.await(callback -> storage.dataManager().streamTransactions(new TransactionFilter(null, null, seller, null), visited::add, callback));
+
+			assertEquals(rows, total);
+			assertEquals(rows, visited.size());
+			assertEquals(rows, visited.stream().map(Transaction::getId).distinct().count());
+			assertTrue(visited.stream().allMatch(transaction -> transaction.getSeller().equals(seller)));
+			for (int i = 1; i < visited.size(); i++)
+				assertTrue(visited.get(i - 1).getTimeCreated() <= visited.get(i).getTimeCreated());
+		}
+	}
+
+	@Test
+	void uuidStorageConvertsStoredIdsBothWays() throws Exception {
+		try (StubDatabase storage = open(Backend.SQLITE)) {
+			final UUID seller = UUID.randomUUID();
+			final BankEntry entry = new MarketBankEntry(UUID.randomUUID(), seller, new ItemStack(Material.DIAMOND), 5);
+			storage.<BankEntry>await(callback -> storage.dataManager().createBankEntry(entry, callback));
+			storage.sql(connection -> insertTransactions(connection, seller, 10));
+
+			storage.dataManager().applyUUIDStorage(true);
+			assertEquals("blob", storedType(storage, "bank_entry", "id"));
+			assertEquals("blob", storedType(storage, "transaction", "seller"));
+
+			// rows written after the conversion use the compact form as well
+			final BankEntry compact = new MarketBankEntry(UUID.randomUUID(), seller, new ItemStack(Material.STONE), 1);
+			storage.<BankEntry>await(callback -> storage.dataManager().createBankEntry(compact, callback));
+			assertEquals(Set.of(entry.getId(), compact.getId()), storage.<List<BankEntry>>await(storage.dataManager()::getBankEntries).stream().map(BankEntry::getId).collect(Collectors.toSet()));
+			assertEquals(10, storage.<Integer>await(callback -> storage.dataManager().countTransactions(new TransactionFilter(null, null, seller, null), callback)));
+
+			// converting again is a no-op
+			storage.dataManager().applyUUIDStorage(true);
+
+			storage.dataManager().applyUUIDStorage(false);
+			assertEquals("text", storedType(storage, "bank_entry", "id"));
+			assertEquals(Set.of(entry.getId(), compact.getId()), storage.<List<BankEntry>>await(storage.dataManager()::getBankEntries).stream().map(BankEntry::getId).collect(Collectors.toSet()));
+			assertEquals(10, storage.<Integer>await(callback -> storage.dataManager().countTransactions(new TransactionFilter(null, null, seller, null), callback)));
+		}
+	}
+
+	private StubDatabase open(final Backend backend) throws Exception {
+		final Plugin plugin = StubServer.plugin(this.dataFolder);
+		return StubDatabase.open(backend.connect(plugin), plugin);
+	}
+
+	private static AbstractMarket market(final UUID id, final List<UUID> bannedUsers) {
+		return new PlayerMarket(id, UUID.randomUUID(), "Steve", "Steve's Market", new ArrayList<>(List.of("the", "description")), new ArrayList<>(), new RatingSummary(), bannedUsers,
+				true, false, StubServer.layout(), StubServer.layout(), 1_000L, 1_000L);
+	}
+
+	private static Category category(final UUID market) {
+		return new MarketCategory(market, UUID.randomUUID(), new ItemStack(Material.CHEST), "gear", "Gear", new ArrayList<>(List.of("all", "gear")), new ArrayList<>(), 1_000L, 1_000L);
+	}
+
+	private static MarketItem marketItem(final UUID category) {
+		final ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+		final ItemMeta meta = item.getItemMeta();
+		meta.setDisplayName("Blazing Edge");
+		meta.setLore(List.of("forged in fire"));
+		item.setItemMeta(meta);
+
+		return new CategoryItem(UUID.randomUUID(), category, item, "Vault/Vault", new ItemStack(Material.AIR), 10, 5, false, true, false);
+	}
+
+	private static void insertTransactions(final Connection connection, final UUID seller, final int rows) throws Exception {
+		try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + PREFIX + "transaction (id, buyer, buyer_name, seller, seller_name, type, item, currency, quantity, price, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+			final byte[] item = new StubItemCodec().encode(new ItemStack(Material.BREAD));
+
+			for (int i = 0; i < rows; i++) {
+				insert.setString(1, UUID.randomUUID().toString());
+				insert.setString(2, UUID.randomUUID().toString());
+				insert.setString(3, "Alex");
+				insert.setString(4, seller.toString());
+				insert.setString(5, "Steve");
+				insert.setString(6, TransactionType.ITEM_PURCHASE.name());
+				insert.setBytes(7, item);
+				insert.setString(8, "Vault/Vault");
+				insert.setInt(9, 1);
+				insert.setDouble(10, 10);
+				insert.setLong(11, 1_000L + i / 3);
+				insert.addBatch();
+			}
+
+			insert.executeBatch();
+		}
+	}
+
+	private static int count(final StubDatabase storage, final String table) throws Exception {
+		final int[] count = {0};
+
+		storage.sql(connection -> {
+			try (PreparedStatement select = connection.prepareStatement("SELECT COUNT(*) FROM " + PREFIX + table)) {
+				final ResultSet resultSet = select.executeQuery();
+				if (resultSet.next()) count[0] = resultSet.getInt(1);
+			}
+		});
+
+		return count[0];
+	}
+
+	private static String storedType(final StubDatabase storage, final String table, final String column) throws Exception {
+		final String[] type = {null};
+
+		storage.sql(connection -> {
+			try (PreparedStatement select = connection.prepareStatement("SELECT DISTINCT typeof(" + column + ") FROM " + PREFIX + table)) {
+				final ResultSet resultSet = select.executeQuery();
+				if (resultSet.next()) type[0] = resultSet.getString(1);
+				assertFalse(resultSet.next(), "ids of both formats are stored in " + table + "." + column);
+			}
+		});
+
+		return type[0];
+	}
+
+	private static boolean hasIndex(final DatabaseMetaData metaData, final String table, final String index) throws Exception {
+		final String storedTable = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+
+		try (ResultSet indexes = metaData.getIndexInfo(null, null, storedTable, false, true)) {
+			while (indexes.next())
+				if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME")))
+					return true;
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,123 @@
+package ca.tweetzy.markets.stub;
+
+import ca.tweetzy.flight.database.Callback;
+import ca.tweetzy.flight.database.DataMigration;
+import ca.tweetzy.flight.database.DatabaseConnector;
+import ca.tweetzy.flight.database.SQLiteConnector;
+import ca.tweetzy.markets.database.DataManager;
+import ca.tweetzy.markets.database.SerializedConnector;
+import ca.tweetzy.markets.database.migrations.*;
+import lombok.NonNull;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A data manager over a freshly migrated database, storing items with the {@link StubItemCodec}.
+ * Used by the tests and the benchmarks to run the real queries outside of a server.
+ */
+public record StubDatabase(DatabaseConnector connector, DataManager dataManager) implements AutoCloseable {
+
+	public static final String PREFIX = "markets_";
+
+	/**
+	 * @param dataFolder the folder the sqlite file is created in
+	 * @return a database on a sqlite file, shared by callers one at a time like the plugin does
+	 */
+	public static StubDatabase sqlite(@NonNull final File dataFolder) throws Exception {
+		final Plugin plugin = StubServer.plugin(dataFolder);
+		return open(new SerializedConnector(new SQLiteConnector(plugin)), plugin);
+	}
+
+	/**
+	 * Runs every migration against the connector, in the order the plugin runs them.
+	 */
+	public static StubDatabase open(@NonNull final DatabaseConnector connector, @NonNull final Plugin plugin) throws Exception {
+		final DataManager dataManager = new DataManager(connector, plugin);
+		dataManager.setItemCodec(new StubItemCodec());
+
+		final StubDatabase database = new StubDatabase(connector, dataManager);
+		database.sql(connection -> {
+			for (DataMigration migration : migrations())
+				migration.migrate(connection, PREFIX);
+		});
+
+		return database;
+	}
+
+	public static List<DataMigration> migrations() {
+		return List.of(
+				new _1_InitialMigration(),
+				new _2_UserProfileMigration(),
+				new _3_CategoryItemMigration(),
+				new _4_CategoryItemCurrencyMigration(),
+				new _5_UserProfilePrefsMigration(),
+				new _6_MarketItemOffersColMigration(),
+				new _7_MarketSettingsInitialMigration(),
+				new _8_MarketLayoutMigration(),
+				new _9_OfflineItemPaymentMigration(),
+				new _10_MarketOfferMigration(),
+				new _11_OfferRequestAmountMigration(),
+				new _12_BankEntryMigration(),
+				new _13_MarketReviewMigration(),
+				new _14_MarketRequestMigration(),
+				new _15_TransactionsMigration(),
+				new _16_InfiniteItemsMigration(),
+				new _17_BinaryItemMigration(),
+				new _18_IndexMigration(),
+				new _19_BannedUserTableMigration(),
+				new _20_StorageMetaMigration(),
+				new _21_BinaryColumnMigration()
+		);
+	}
+
+	/**
+	 * Runs statements on the connector's connection, rethrowing whatever they threw.
+	 */
+	public void sql(@NonNull final SqlWork work) throws Exception {
+		final Exception[] failure = {null};
+
+		this.connector.connect(connection -> {
+			try {
+				work.run(connection);
+			} catch (Exception e) {
+				failure[0] = e;
+			}
+		});
+
+		if (failure[0] != null) throw failure[0];
+	}
+
+	/**
+	 * Waits for an asynchronous data manager call.
+	 *
+	 * @param call starts the call with the callback it has to complete
+	 * @return what the call handed to its callback
+	 */
+	public <T> T await(@NonNull final Consumer<Callback<T>> call) throws Exception {
+		final CompletableFuture<T> result = new CompletableFuture<>();
+
+		call.accept((error, value) -> {
+			if (error != null) result.completeExceptionally(error);
+			else result.complete(value);
+		});
+
+		return result.get(30, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public void close() {
+		this.connector.closeConnection();
+	}
+
+	@FunctionalInterface
+	public interface SqlWork {
+
+		void run(Connection connection) throws Exception;
+	}
+}
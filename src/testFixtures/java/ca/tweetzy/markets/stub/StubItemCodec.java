@@ -0,0 +1,74 @@
+package ca.tweetzy.markets.stub;
+
+import ca.tweetzy.markets.database.codec.ItemCodec;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the material, amount, display name and lore of an item. The bukkit serialization used by the real codec needs a running
+ * server, this keeps what the stub server's item meta can hold so decoding still builds a stack and its meta per row.
+ */
+public final class StubItemCodec implements ItemCodec {
+
+	@Override
+	public @Nullable byte[] encode(@Nullable final ItemStack item) {
+		if (item == null) return null;
+
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		try (DataOutputStream data = new DataOutputStream(outputStream)) {
+			data.writeUTF(item.getType().name());
+			data.writeInt(item.getAmount());
+
+			final ItemMeta meta = item.hasItemMeta() ? item.getItemMeta() : null;
+			final String name = meta != null && meta.hasDisplayName() ? meta.getDisplayName() : null;
+			final List<String> lore = meta != null && meta.hasLore() ? meta.getLore() : null;
+
+			data.writeBoolean(name != null);
+			if (name != null) data.writeUTF(name);
+
+			data.writeInt(lore == null ? -1 : lore.size());
+			if (lore != null)
+				for (String line : lore)
+					data.writeUTF(line);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not encode item " + item.getType(), e);
+		}
+
+		return outputStream.toByteArray();
+	}
+
+	@Override
+	public @Nullable ItemStack decode(@Nullable final byte[] payload) {
+		if (payload == null || payload.length == 0) return null;
+
+		try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload))) {
+			final ItemStack item = new ItemStack(Material.valueOf(data.readUTF()), data.readInt());
+			final String name = data.readBoolean() ? data.readUTF() : null;
+
+			final int loreSize = data.readInt();
+			final List<String> lore = loreSize < 0 ? null : new ArrayList<>(loreSize);
+			for (int i = 0; i < loreSize; i++)
+				lore.add(data.readUTF());
+
+			if (name != null || lore != null) {
+				final ItemMeta meta = item.getItemMeta();
+				if (meta != null) {
+					meta.setDisplayName(name);
+					meta.setLore(lore);
+					item.setItemMeta(meta);
+				}
+			}
+
+			return item;
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not decode item payload", e);
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package ca.tweetzy.markets.stub;
+
+import ca.tweetzy.markets.api.market.layout.Layout;
+import lombok.experimental.UtilityClass;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Just enough of a Bukkit server for item stacks to carry meta and for the data manager to run its queries outside of a
+ * running server, shared by the tests and the benchmarks. Async tasks run on a single background thread, sync tasks run
+ * on the calling thread. Every call that isn't needed answers with the zero value of its return type.
+ */
+@UtilityClass
+public final class StubServer {
+
+	private final Logger logger = Logger.getLogger("Markets");
+	private final ExecutorService async = Executors.newSingleThreadExecutor(runnable -> {
+		final Thread thread = new Thread(runnable, "markets-stub-async");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private boolean installed;
+
+	public synchronized void install() {
+		if (installed || Bukkit.getServer() != null) return;
+
+		final ItemFactory itemFactory = proxy(ItemFactory.class, (method, args) -> switch (method) {
+			case "getItemMeta" -> newMeta(new HashMap<>());
+			case "isApplicable" -> true;
+			case "equals" -> args.length == 2 ? Objects.equals(args[0], args[1]) : args[0] == null;
+			case "asMetaFor" -> args[0];
+			default -> null;
+		});
+
+		final BukkitScheduler scheduler = proxy(BukkitScheduler.class, (method, args) -> switch (method) {
+			case "runTaskAsynchronously" -> {
+				async.execute((Runnable) args[1]);
+				yield null;
+			}
+			case "runTask" -> {
+				((Runnable) args[1]).run();
+				yield null;
+			}
+			default -> null;
+		});
+
+		// the plugin's log lines go to the console sender
+		final ConsoleCommandSender console = proxy(ConsoleCommandSender.class, (method, args) -> switch (method) {
+			case "sendMessage" -> {
+				for (Object message : args)
+					logger.info(message instanceof String[] lines ? String.join("\n", lines) : String.valueOf(message));
+				yield null;
+			}
+			case "getName" -> "CONSOLE";
+			default -> null;
+		});
+
+		Bukkit.setServer(proxy(Server.class, (method, args) -> switch (method) {
+			case "getItemFactory" -> itemFactory;
+			case "getConsoleSender" -> console;
+			case "getScheduler" -> scheduler;
+			case "getLogger" -> logger;
+			case "getName" -> "stub";
+			// material lookups parse the game version out of these
+			case "getVersion" -> "stub (MC: 1.20.4)";
+			case "getBukkitVersion" -> "1.20.4-R0.1-SNAPSHOT";
+			default -> null;
+		}));
+
+		installed = true;
+	}
+
+	/**
+	 * @param dataFolder where the plugin keeps its files, the sqlite database among them
+	 * @return a plugin named Markets, so tables get the usual prefix
+	 */
+	public Plugin plugin(final File dataFolder) {
+		install();
+
+		final PluginDescriptionFile description = new PluginDescriptionFile("Markets", "stub", "ca.tweetzy.markets.Markets");
+
+		return proxy(Plugin.class, (method, args) -> switch (method) {
+			case "getName", "toString" -> "Markets";
+			case "getDescription" -> description;
+			case "getDataFolder" -> dataFolder;
+			case "getLogger" -> logger;
+			case "getServer" -> Bukkit.getServer();
+			case "isEnabled" -> true;
+			default -> null;
+		});
+	}
+
+	public OfflinePlayer offlinePlayer(final UUID uuid) {
+		return proxy(OfflinePlayer.class, (method, args) -> switch (method) {
+			case "getUniqueId" -> uuid;
+			case "getName" -> uuid.toString();
+			default -> null;
+		});
+	}
+
+	/**
+	 * @return a layout that is stored as nothing, storing a real one serializes its items through bukkit. Read back it is the default layout.
+	 */
+	public Layout layout() {
+		return proxy(Layout.class, (method, args) -> null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private ItemMeta newMeta(final Map<String, Object> values) {
+		return proxy(ItemMeta.class, (method, args) -> switch (method) {
+			case "getDisplayName" -> values.get("name");
+			case "setDisplayName" -> values.put("name", args[0]);
+			case "hasDisplayName" -> values.get("name") != null;
+			case "getLore" -> values.get("lore") == null ? null : new ArrayList<>((List<String>) values.get("lore"));
+			case "setLore" -> values.put("lore", args[0]);
+			case "hasLore" -> values.get("lore") != null;
+			case "getEnchants" -> Collections.emptyMap();
+			case "hasEnchants" -> false;
+			case "clone" -> newMeta(new HashMap<>(values));
+			case "equals" -> args[0] instanceof ItemMeta other && Objects.equals(values.get("name"), other.getDisplayName()) && Objects.equals(values.get("lore"), other.getLore());
+			case "hashCode" -> values.hashCode();
+			case "toString" -> "StubMeta" + values;
+			default -> null;
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T proxy(final Class<T> type, final StubHandler handler) {
+		return (T) Proxy.newProxyInstance(StubServer.class.getClassLoader(), new Class<?>[]{type}, (instance, method, args) -> {
+			final Object[] arguments = args == null ? new Object[0] : args;
+			final Object result = handler.handle(method.getName(), arguments);
+			if (result != null) return result;
+
+			// stubs that don't answer equality compare by identity, so they can be used as map keys
+			if (method.getName().equals("equals") && arguments.length == 1) return instance == arguments[0];
+			if (method.getName().equals("hashCode") && arguments.length == 0) return System.identityHashCode(instance);
+
+			return defaultValue(method.getReturnType());
+		});
+	}
+
+	private Object defaultValue(final Class<?> type) {
+		if (!type.isPrimitive() || type == void.class) return null;
+		if (type == boolean.class) return false;
+		if (type == char.class) return '\0';
+		if (type == long.class) return 0L;
+		if (type == float.class) return 0F;
+		if (type == double.class) return 0D;
+		if (type == byte.class) return (byte) 0;
+		if (type == short.class) return (short) 0;
+		return 0;
+	}
+
+	@FunctionalInterface
+	private interface StubHandler {
+		Object handle(String method, Object[] args) throws Throwable;
+	}
+}